@@ -26,6 +26,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
@@ -39,6 +43,7 @@ import javafx.beans.property.StringProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.event.EventType;
@@ -54,6 +59,8 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Scale;
+import javafx.util.Duration;
 import javafx.stage.WindowEvent;
 
 import org.apache.log4j.Logger;
@@ -70,12 +77,15 @@ import de.itd.maps.mapsforge.tiles.ExecuteMapforge;
 import de.itd.maps.mapsforge.tiles.FileTileCache;
 import de.itd.maps.mapsforge.tiles.LiveRenderRule;
 import de.itd.maps.mapsforge.tiles.MemoryTileCache;
+import de.itd.maps.mapsforge.tiles.TileLayer;
 import de.itd.mapsforge.javafx.maps.mapgenerator.TileCache;
 import de.itd.mapsforge.javafx.maps.rendertheme.BundleRenderTheme;
 
 public class MapsforgeMap extends StackPane {
 
     private Canvas canvas = new Canvas();
+    private Canvas labelCanvas = new Canvas();
+    private TileLayer tileLayer = new TileLayer();
     private ExecuteMapforge mapforge = null;
     private MapView mapView = null;
     private GraphicsProperties properties = null;
@@ -91,6 +101,12 @@ public class MapsforgeMap extends StackPane {
     private Rectangle selection = null;
     
     private int prioMouseDrag = 100;
+    
+    // the zoom-levels to change by, once zooming has settled, and the scale to preview it with
+    private int zoomPending = 0;
+    private Scale zoomScale = new Scale(1, 1);
+    private Timeline zoomAnimation = new Timeline();
+    private PauseTransition zoomSettle = new PauseTransition();
 
     // automatically sorts by key...
     private Map<Integer, Pane> layers = new TreeMap<>();
@@ -146,11 +162,38 @@ public class MapsforgeMap extends StackPane {
     	
 		
 		this.mapforge = new ExecuteMapforge(canvas, mapView, renderTheme, properties);
+		
+		// place the labels above the tiles, if requested
+		this.labelCanvas.setMouseTransparent(true);
+		if (properties.isLabelOverlayEnabled()) {
+			this.mapforge.setLabelCanvas(labelCanvas);
+		}
+		
+		// show the tiles as images that are moved while panning, if requested
+		if (properties.isTileLayerEnabled()) {
+			this.mapforge.setTileLayer(tileLayer);
+		}
 	
 		// add the canvas and the mapItems
 		this.getChildren().add(canvas);
+		this.getChildren().add(tileLayer);
+		this.getChildren().add(labelCanvas);
 		this.getChildren().add(mapItems);
 		this.getChildren().add(selections);
+		
+		// scale the current tiles while zooming, the new zoom-level is rendered once it has settled
+		this.canvas.getTransforms().add(zoomScale);
+		this.tileLayer.getTransforms().add(zoomScale);
+		this.labelCanvas.getTransforms().add(zoomScale);
+		this.mapItems.getTransforms().add(zoomScale);
+		
+		this.zoomSettle.setDuration(Duration.millis(properties.getZoomSettleTime()));
+		this.zoomSettle.setOnFinished(new EventHandler<ActionEvent>() {
+			@Override
+			public void handle(ActionEvent event) {
+				settleZoom();
+			}
+		});
 	
 		this.setClip(enforcedBounds);
 	
@@ -161,6 +204,7 @@ public class MapsforgeMap extends StackPane {
 				// set the new height
 				enforcedBounds.setHeight(newValue.doubleValue());
 				canvas.setHeight(newValue.doubleValue());
+				labelCanvas.setHeight(newValue.doubleValue());
 		
 				// redraw
 				updateMapLater(false);
@@ -174,6 +218,7 @@ public class MapsforgeMap extends StackPane {
 				// set the new width
 				enforcedBounds.setWidth(newValue.doubleValue());
 				canvas.setWidth(newValue.doubleValue());
+				labelCanvas.setWidth(newValue.doubleValue());
 		
 				// redraw
 				updateMapLater(false);
@@ -240,8 +285,7 @@ public class MapsforgeMap extends StackPane {
      *            and generating new images
      */
     public void updateMap(boolean fast) {
-		mapforge.redrawTiles(!fast);
-		mapforge.execute();
+		mapforge.requestRedraw(!fast);
     }
 
     /**
@@ -261,11 +305,11 @@ public class MapsforgeMap extends StackPane {
     public void onMouseClicked(MouseEvent event) {
 		if (event.getClickCount() == 2) {
 		    if (event.getButton().equals(MouseButton.PRIMARY)) {
-			changeZoom(event.getX(), event.getY(), +1);
+			animateZoom(event.getX(), event.getY(), +1);
 		    }
 	
 		    else if (event.getButton().equals(MouseButton.SECONDARY)) {
-			changeZoom(event.getX(), event.getY(), -1);
+			animateZoom(event.getX(), event.getY(), -1);
 		    }
 		}
     }
@@ -472,6 +516,7 @@ public class MapsforgeMap extends StackPane {
 		}
 	
 		this.setPaused(false);
+		this.mapforge.setMoving(false);
 		this.updateMap(false);
     }
 
@@ -497,8 +542,9 @@ public class MapsforgeMap extends StackPane {
 			getMapView().unfollow (prioMouseDrag);
 		    getMapView().movePixel(positionBefore.getX() - event.getX(), positionBefore.getY() - event.getY());
 	
-		    // position has been moved, update the map
-		    updateMap(true);
+		    // position has been moved, update the map, with previews of the missing tiles if enabled,
+		    // the tiles are only redrawn if a column or row of them enters or leaves the viewport
+		    mapforge.requestMove(mapforge.isMoving());
 		}
 	
 		else if (selection != null) {
@@ -520,7 +566,13 @@ public class MapsforgeMap extends StackPane {
 		}
 	
 		this.positionBefore = event;
-		this.setPaused(true);
+		
+		// keep rendering quick previews while moving, if enabled
+		if (properties.isInteractionPreviewEnabled() && selection == null) {
+			mapforge.setMoving(true);
+		} else {
+			this.setPaused(true);
+		}
     }
     
     /**
@@ -546,11 +598,68 @@ public class MapsforgeMap extends StackPane {
     private void onScroll(ScrollEvent event) {
 		if (event.getDeltaY() > 0) {
 		    // zoom in
-		    changeZoom(event.getX(), event.getY(), +1);
+		    animateZoom(event.getX(), event.getY(), +1);
 	
 		} else if (event.getDeltaY() < 0) {
 		    // zoom out
-		    changeZoom(event.getX(), event.getY(), -1);
+		    animateZoom(event.getX(), event.getY(), -1);
+		}
+    }
+
+    /**
+     * Scales the shown map by the given modifier around the given coordinate,
+     * the zoom level is changed and rendered once there has been no further
+     * zooming for the settle time, so the levels passed are never rendered
+     * 
+     * @param x	X coordinate on the screen
+     * @param y Y coordinate on the screen
+     * @param modifier Zoom modifier
+     */
+    private void animateZoom(double x, double y, int modifier) {
+		if (zoomSettle.getDuration().lessThanOrEqualTo(Duration.ZERO)) {
+		    changeZoom(x, y, modifier);
+		    return;
+		}
+		
+		// stay within the allowed zoom levels
+		int target = mapView.getZoomLevel() + zoomPending + modifier;
+		if (target < MapViewPosition.ZOOM_MIN || target > MapViewPosition.ZOOM_MAX) {
+		    return;
+		}
+		
+		// the position under the mouse stays where it is, for the first step of a gesture
+		if (zoomPending == 0) {
+		    zoomScale.setPivotX(x);
+		    zoomScale.setPivotY(y);
+		}
+		
+		zoomPending += modifier;
+		
+		double scale = Math.pow(2, zoomPending);
+		zoomAnimation.stop();
+		zoomAnimation.getKeyFrames().setAll(new KeyFrame(
+			Duration.millis(150),
+			new KeyValue(zoomScale.xProperty(), scale),
+			new KeyValue(zoomScale.yProperty(), scale)
+		));
+		zoomAnimation.play();
+		
+		zoomSettle.playFromStart();
+    }
+    
+    /**
+     * Changes the zoom level by the levels zoomed since the last change, and removes the scale
+     */
+    private void settleZoom() {
+		int modifier = zoomPending;
+		
+		zoomPending = 0;
+		zoomAnimation.stop();
+		zoomScale.setX(1);
+		zoomScale.setY(1);
+		
+		if (modifier != 0) {
+		    changeZoom(zoomScale.getPivotX(), zoomScale.getPivotY(), modifier);
 		}
     }
 
@@ -19,7 +19,16 @@ package de.itd.maps.mapsforge.properties;
 
 import java.util.Map;
 
+import org.mapsforge.core.model.Tile;
+
 import de.itd.maps.mapsforge.tiles.MemoryTileCache;
+import de.itd.maps.mapsforge.tiles.TileLayer;
+import de.itd.mapsforge.javafx.maps.graphics.TextMetricsCache;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.DatabaseRenderer;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.DependencyTable;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.LabelOverlay;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.LabelSpriteCache;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.PoiDensityFilter;
 
 public class GraphicsProperties extends PropertiesBase {
 
@@ -45,4 +54,186 @@ public class GraphicsProperties extends PropertiesBase {
 	public String getFileTileCachePath () {
 		return get("path-cache-file", "mapdata/cache");
 	}
+	
+	/**
+	 * @return The width and height of a tile on the map, 256, 512 or 1024
+	 */
+	public int getTileSize () {
+		return get("size-tile", Tile.TILE_SIZE);
+	}
+	
+	/**
+	 * @return The number of physical pixels per pixel on the screen, tiles are rendered with this resolution
+	 */
+	public float getDeviceScale () {
+		return get("scale-device", 1f);
+	}
+	
+	/**
+	 * @return The number of zoom-levels to look for a cached ancestor of a missing tile, zero to only use descendants
+	 */
+	public int getFallbackLevels () {
+		return get("levels-fallback", 4);
+	}
+	
+	/**
+	 * @return Whether a missing tile is created from its four children, if they are cached
+	 */
+	public boolean isSynthesisEnabled () {
+		return get("enabled-synthesis", false);
+	}
+	
+	/**
+	 * @return Whether a tile created from its children is kept instead of being rendered, if it has no labels
+	 */
+	public boolean isSynthesisFinal () {
+		return get("final-synthesis", false);
+	}
+	
+	/**
+	 * @return The highest zoom-level on which the render theme draws no labels and symbols, -1 if there is none
+	 */
+	public int getLabelFreeZoom () {
+		return get("zoom-max-label-free", -1);
+	}
+	
+	/**
+	 * @return The number of tiles in each direction that are rendered together as one metatile, one to disable it
+	 */
+	public int getMetatileSize () {
+		return get("size-metatile", 1);
+	}
+	
+	/**
+	 * @return The number of tiles around the viewport that are rendered in advance, zero to disable it
+	 */
+	public int getPrefetchRing () {
+		return get("ring-prefetch", 1);
+	}
+	
+	/**
+	 * @return Whether the tiles covering the viewport on the zoom-levels above and below are rendered in advance
+	 */
+	public boolean isZoomPrefetchEnabled () {
+		return get("enabled-prefetch-zoom", true);
+	}
+	
+	/**
+	 * @return The milliseconds to look ahead for the tiles a moving viewport will reach, zero to disable it
+	 */
+	public int getPredictionHorizon () {
+		return get("horizon-prediction", 500);
+	}
+	
+	/**
+	 * @return The share of the capacity of the {@link MemoryTileCache} that tiles rendered in advance may use
+	 */
+	public double getPrefetchCacheShare () {
+		return get("share-prefetch-cache", MemoryTileCache.DEFAULT_PREFETCH_SHARE);
+	}
+	
+	/**
+	 * @return The tolerance in pixels to simplify ways with, zero to disable it
+	 */
+	public float getSimplificationTolerance () {
+		return get("tolerance-simplification", DatabaseRenderer.DEFAULT_SIMPLIFICATION_TOLERANCE);
+	}
+	
+	/**
+	 * @return Whether the {@link TextMetricsCache} estimates the width of texts by the advances of their glyphs
+	 */
+	public boolean isTextWidthEstimated () {
+		return get("enabled-estimate-width-text", false);
+	}
+	
+	/**
+	 * @return The maximum number of pixels of the {@link LabelSpriteCache}, zero to disable it
+	 */
+	public int getLabelSpriteCacheCapacity () {
+		return get("capacity-cache-labels", LabelSpriteCache.DEFAULT_PIXEL_BUDGET);
+	}
+	
+	/**
+	 * @return The radius in tiles around the rendered tile, in which the {@link DependencyTable} keeps its entries
+	 */
+	public int getDependencyCacheRadius () {
+		return get("radius-cache-dependency", DependencyTable.DEFAULT_RADIUS);
+	}
+	
+	/**
+	 * @return The zoom-levels above and below the rendered tile, in which the {@link DependencyTable} keeps its entries
+	 */
+	public int getDependencyCacheZoomWindow () {
+		return get("window-cache-dependency", DependencyTable.DEFAULT_ZOOM_WINDOW);
+	}
+	
+	/**
+	 * @return Whether labels and symbols are placed for the whole viewport by a {@link LabelOverlay}, instead of per tile
+	 */
+	public boolean isLabelOverlayEnabled () {
+		return get("enabled-overlay-labels", false);
+	}
+	
+	/**
+	 * @return The milliseconds without zooming, until the zoom-level is changed and rendered, zero to change it immediately
+	 */
+	public int getZoomSettleTime () {
+		return get("time-settle-zoom", 300);
+	}
+	
+	/**
+	 * @return Whether missing tiles are rendered as quick previews while the map is dragged, instead of pausing
+	 */
+	public boolean isInteractionPreviewEnabled () {
+		return get("enabled-preview-interaction", false);
+	}
+	
+	/**
+	 * @return Whether a tile is shown after its areas and ways have been drawn, before its labels and symbols are
+	 */
+	public boolean isProgressiveEnabled () {
+		return get("enabled-progressive-tiles", false);
+	}
+	
+	/**
+	 * @return Whether the tiles are shown by a {@link TileLayer} of images, instead of being drawn on a canvas
+	 */
+	public boolean isTileLayerEnabled () {
+		return get("enabled-layer-tiles", false);
+	}
+	
+	/**
+	 * @return The number of tiles the {@link LabelOverlay} keeps the labels and symbols of
+	 */
+	public int getLabelOverlayCapacity () {
+		return get("capacity-overlay-labels", LabelOverlay.DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * @return The width and height in pixels of a cell of the {@link PoiDensityFilter}, zero to disable it
+	 */
+	public int getPoiDensityCellSize () {
+		return get("cell-size-density-poi", PoiDensityFilter.DEFAULT_CELL_SIZE);
+	}
+	
+	/**
+	 * @return The number of labels of points of interest the {@link PoiDensityFilter} keeps per cell
+	 */
+	public int getPoiDensityCandidates () {
+		return get("candidates-density-poi", PoiDensityFilter.DEFAULT_CANDIDATES_PER_CELL);
+	}
+	
+	/**
+	 * @return How the {@link PoiDensityFilter} determines the priority of a point of interest
+	 */
+	public PoiDensityFilter.Priority getPoiDensityPriority () {
+		String priority = get("priority-density-poi", PoiDensityFilter.Priority.RULE_ORDER.name());
+		
+		try {
+			return PoiDensityFilter.Priority.valueOf(priority.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			// mistyped, use the default like the other values
+			return PoiDensityFilter.Priority.RULE_ORDER;
+		}
+	}
 }
@@ -21,17 +21,33 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Queue;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 
 import org.apache.log4j.Logger;
@@ -43,13 +59,20 @@ import org.mapsforge.map.reader.header.FileOpenResult;
 import org.mapsforge.map.rendertheme.XmlRenderTheme;
 
 import de.itd.maps.mapsforge.MapView;
+import de.itd.maps.mapsforge.tiles.LiveRenderRule.Drawable;
 import de.itd.maps.mapsforge.properties.GraphicsProperties;
 import de.itd.mapsforge.javafx.maps.DebugSettings;
 import de.itd.mapsforge.javafx.maps.graphics.FXBitmap;
+import de.itd.mapsforge.javafx.maps.graphics.TextMetricsCache;
+import de.itd.mapsforge.javafx.maps.mapgenerator.InFlightJobs;
 import de.itd.mapsforge.javafx.maps.mapgenerator.JobParameters;
+import de.itd.mapsforge.javafx.maps.mapgenerator.JobScheduler;
 import de.itd.mapsforge.javafx.maps.mapgenerator.MapGeneratorJob;
 import de.itd.mapsforge.javafx.maps.mapgenerator.TileCache;
 import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.DatabaseRenderer;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.LabelOverlay;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.PoiDensityFilter;
+import de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer.LabelSpriteCache;
 
 /**
  * Base on the class "MapView extends ViewGroup" form the mapforge package,
@@ -68,13 +91,25 @@ public class ExecuteMapforge {
 	private MapDatabase 		mapDatabase 		= new MapDatabase();
 	private File 				mapFile 			= null;
 
-	private Queue<MapGeneratorJob> jobs = new LinkedList<>();
+	private JobScheduler jobs = new JobScheduler();
+	
+	// the jobs in flight, the ones of other map views are not rendered again
+	private InFlightJobs			inFlight			= InFlightJobs.getShared();
+	private InFlightJobs.Listener	inFlightListener;
+	
+	// the tiles requested through requestTile, by the jobs rendering them
+	private final Map<MapGeneratorJob, Map<Tile, CompletableFuture<FXBitmap>>>	requests			= new HashMap<>();
+	private final Map<MapGeneratorJob, Double>									requestPriorities	= new HashMap<>();
 
 	private DoubleProperty offsetX = new SimpleDoubleProperty(0);
 	private DoubleProperty offsetY = new SimpleDoubleProperty(0);
 
 	private DebugSettings	debugSettings;
 	private Canvas 			canvas;
+	private Canvas			labelCanvas;
+	private LabelOverlay	labelOverlay;
+	private TileLayer		tileLayer;
+	private volatile boolean	moving;
 	private Image 			emptyImage;
 	private GraphicsContext graphics;
 	private MapView 		mapView;
@@ -83,6 +118,64 @@ public class ExecuteMapforge {
 	private long tileTop 	= 0;
 	private long tileRight 	= 0;
 	private long tileBottom = 0;
+	private byte tileZoom	= -1;
+	
+	// the position the labels have been placed for
+	private double	labelPixelX	= 0;
+	private double	labelPixelY	= 0;
+	private byte	labelZoom	= -1;
+	
+	// the number of images in each direction that are rendered together
+	private int		metatileSize	= 1;
+	
+	// the number of zoom-levels to look for a cached ancestor of a missing tile
+	private int		fallbackLevels	= 4;
+	
+	// the number of tiles in each direction of an image and its pixels per pixel
+	private int		imageTiles		= 1;
+	private float	deviceScale		= 1;
+
+	// the parents to create from their cached children and the ones shown until they are rendered
+	private boolean								synthesisEnabled	= false;
+	private boolean								synthesisFinal		= false;
+	private int									labelFreeZoom		= -1;
+	private final Map<MapGeneratorJob, Image[]>	syntheses			= new LinkedHashMap<>();
+	private final Set<MapGeneratorJob>			previews			= Collections.synchronizedSet(new HashSet<MapGeneratorJob>());
+	private Runnable							synthesisRunnable;
+
+	// the tiles around the viewport and on the adjacent zoom-levels that are rendered in advance
+	private int							prefetchRing	= 1;
+	private boolean						prefetchZoom	= true;
+	private final Set<MapGeneratorJob>	prefetchJobs	= Collections.synchronizedSet(new HashSet<MapGeneratorJob>());
+
+	// the tiles the moving viewport is expected to reach, with the time they have been predicted
+	private final MotionPredictor				motion				= new MotionPredictor();
+	private int									predictionHorizon	= 500;
+	private final Map<MapGeneratorJob, Long>	predictions			= new HashMap<>();
+	private final AtomicLong					predictedTiles		= new AtomicLong();
+	private final AtomicLong					predictionHits		= new AtomicLong();
+
+	// the job that is currently rendered, cancelled if its tile is not needed anymore
+	private volatile MapGeneratorJob	currentJob;
+	private volatile boolean			currentPrefetch;
+	private final AtomicLong			renderedJobs	= new AtomicLong();
+	private final AtomicLong			renderNanos		= new AtomicLong();
+	private final AtomicLong			cancelledJobs	= new AtomicLong();
+	private final AtomicLong			wastedNanos		= new AtomicLong();
+
+	// publish the tiles after the areas and ways, before the labels and symbols are drawn
+	private boolean				progressive			= false;
+	private final AtomicLong	publishedJobs		= new AtomicLong();
+	private final AtomicLong	firstPixelNanos		= new AtomicLong();
+	private final AtomicLong	completeNanos		= new AtomicLong();
+
+	// redraws are requested and done at most once per pulse, the merged ones are counted
+	private AnimationTimer		redrawTimer;
+	private boolean				redrawRequested		= false;
+	private boolean				redrawCreateJobs	= false;
+	private boolean				redrawMoveOnly		= false;
+	private final AtomicLong	redraws				= new AtomicLong();
+	private final AtomicLong	mergedRedraws		= new AtomicLong();
 
 	private Runnable runnable;
 	private Runnable redrawListener;
@@ -107,28 +200,108 @@ public class ExecuteMapforge {
 		this.redrawListener = new Runnable() {
 			@Override
 			public void run() {
-				// be sure this is called in the FX-Thread
-				if (!Platform.isFxApplicationThread()) {
-					Platform.runLater(redrawListener);
+				requestRedraw(false);
+			}
+		};
+		
+		// caches the jobs rendered by this or another map view
+		this.inFlightListener = new InFlightJobs.Listener() {
+			@Override
+			public void jobCompleted(MapGeneratorJob job, FXBitmap bitmap) {
+				if (isDestroyed()) {
+					return;
+				}
+				if (bitmap != null && cacheJob(job, bitmap.image) && !job.isPreview()) {
+					serveRequests(job, bitmap.image);
+				}
+				requestRedraw(true);
+			}
+		};
+		
+		// does the requested redraw on the next pulse and stops if there are no more requests
+		this.redrawTimer = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				if (!redrawRequested) {
+					stop();
+					return;
+				}
+				
+				boolean createJobs	= redrawCreateJobs;
+				boolean moveOnly	= redrawMoveOnly;
+				
+				redrawRequested		= false;
+				redrawCreateJobs	= false;
+				redrawMoveOnly		= false;
+				
+				// panned within the same tiles --> just move them
+				if (moveOnly && moveTiles()) {
 					return;
 				}
 				
-				// redraw the tiles if in FX-Thread
-				redrawTiles(false);
+				redraws.incrementAndGet();
+				redrawTiles(createJobs);
+				
+				if (createJobs) {
+					execute();
+				}
 			}
 		};
 
+		this.imageTiles			= Integer.highestOneBit(Math.max(1, properties.getTileSize() / Tile.TILE_SIZE));
+		this.deviceScale		= properties.getDeviceScale() > 0 ? properties.getDeviceScale() : 1;
+
 		this.debugSettings		= new DebugSettings(false, false, false);
 		this.databaseRenderer 	= new DatabaseRenderer(mapDatabase);
+		this.databaseRenderer	.setScaleFactor(deviceScale);
+		this.databaseRenderer	.setSimplificationTolerance(properties.getSimplificationTolerance());
+		this.databaseRenderer	.getDependencyTable().setRadius		(properties.getDependencyCacheRadius());
+		this.databaseRenderer	.getDependencyTable().setZoomWindow	(properties.getDependencyCacheZoomWindow());
+		
+		PoiDensityFilter poiDensityFilter = this.databaseRenderer.getPoiDensityFilter();
+		poiDensityFilter.setEnabled				(properties.getPoiDensityCellSize() > 0);
+		poiDensityFilter.setCellSize			(Math.max(1, properties.getPoiDensityCellSize()));
+		poiDensityFilter.setCandidatesPerCell	(properties.getPoiDensityCandidates());
+		poiDensityFilter.setPriority			(properties.getPoiDensityPriority());
+		
+		TextMetricsCache.INSTANCE.setEstimateWidth(properties.isTextWidthEstimated());
+		
+		LabelSpriteCache labelSpriteCache = this.databaseRenderer.getLabelSpriteCache();
+		labelSpriteCache.setPixelBudget	(properties.getLabelSpriteCacheCapacity());
+		labelSpriteCache.setEnabled		(properties.getLabelSpriteCacheCapacity() > 0);
+		
+		setMetatileSize(properties.getMetatileSize());
+		setFallbackLevels(properties.getFallbackLevels());
+		
+		this.synthesisEnabled	= properties.isSynthesisEnabled();
+		this.synthesisFinal		= properties.isSynthesisFinal();
+		this.labelFreeZoom		= properties.getLabelFreeZoom();
+		
+		this.prefetchRing		= Math.max(0, properties.getPrefetchRing());
+		this.prefetchZoom		= properties.isZoomPrefetchEnabled();
+		this.predictionHorizon	= Math.max(0, properties.getPredictionHorizon());
+		this.progressive		= properties.isProgressiveEnabled();
 
 		this.fileCache			= new FileTileCache(properties.getFileTileCachePath());
 		this.fileCache.setOnLoadCompleteListener(redrawListener);
+		this.fileCache.setImageLayout(imageTiles, deviceScale);
 		
 		this.memoryTileCache	= new MemoryTileCache(properties.getMemoryTileCacheCapacity());
 		this.memoryTileCache.setFileCache(fileCache);
+		this.memoryTileCache.setPrefetchShare(properties.getPrefetchCacheShare());
 
 		this.jobParameters		= new JobParameters(renderTheme, 1.0F);
 		this.mapView 			= info;
+		
+		// track the velocity of the viewport, while it is dragged or follows an item
+		InvalidationListener motionListener = new InvalidationListener() {
+			@Override
+			public void invalidated(Observable observable) {
+				motion.sample(mapView.getX(), mapView.getY(), mapView.getZoomLevel(), System.nanoTime());
+			}
+		};
+		this.mapView.xProperty().addListener(motionListener);
+		this.mapView.yProperty().addListener(motionListener);
 
 
 		// create the image, that should be shown while the actual image is
@@ -150,368 +323,1631 @@ public class ExecuteMapforge {
 	}
 
 	/**
-	 * Loads the given {@link File}
+	 * Sets the {@link Canvas} above the tiles, on which the labels and symbols
+	 * are placed for the whole viewport. The tiles are rendered without them, so
+	 * tiles that have already been rendered are rendered again.
 	 * 
-	 * @param file
-	 *            {@link File} to load from
+	 * @param labelCanvas {@link Canvas} to draw the labels on, null to draw them on the tiles
 	 */
-	public void load(File file) {
-		// save the file
-		this.mapFile = file;
-
-		// open the file
-		FileOpenResult result = mapDatabase.openFile(mapFile);
+	public void setLabelCanvas (Canvas labelCanvas) {
+		if (this.labelCanvas != null) {
+			this.labelCanvas.getGraphicsContext2D().clearRect(0, 0, this.labelCanvas.getWidth(), this.labelCanvas.getHeight());
+		}
 		
-		// log the result
-		logger.debug("Opened file="+file.getAbsolutePath()+", succeeded="+result.isSuccess()+", errorMessage="+result.getErrorMessage());
+		this.labelCanvas	= labelCanvas;
+		this.labelOverlay	= labelCanvas != null ? new LabelOverlay(properties.getLabelOverlayCapacity()) : null;
+		this.labelZoom		= -1;
 		
-		// stop, if file couldn't be opened
-		if (!result.isSuccess()) {
-			throw new RuntimeException("Couldn't open file, errorMessage="+(result != null ? result.getErrorMessage() : null));
+		if (labelOverlay != null) {
+			labelOverlay.setScale(deviceScale);
 		}
 		
+		this.databaseRenderer.setLabelOverlay(labelOverlay);
 		
-
-		// redraw after load
-		redrawTiles(true);
-		execute();
+		// the tiles without labels are cached apart from the ones with labels
+		this.jobParameters = new JobParameters(jobParameters.jobTheme, jobParameters.textScale, labelOverlay != null);
 	}
 	
 	/**
-	 * @return Whether there is already a file loaded
-	 */
-	public boolean hasLoaded () {
-		return mapDatabase.hasOpenFile();
-	}
-
-	/**
-	 * Sets the {@link MapPosition} of the center of the canvas
+	 * Sets the {@link TileLayer} to show the tiles with, instead of drawing them
+	 * on the {@link Canvas}. While panning, only the {@link TileLayer} is moved.
 	 * 
-	 * @param latitude
-	 *            Latitude coordinate to set
-	 * @param longitude
-	 *            Longitude coordinate to set
-	 * @param zoom
-	 *            Zoom level to set
+	 * @param tileLayer {@link TileLayer} to show the tiles with, null to draw them on the {@link Canvas}
 	 */
-	public void setMapPosition(double latitude, double longitude, byte zoom) {
-		mapView.set(latitude, longitude);
-		mapView.setZoomLevel(zoom);
+	public void setTileLayer (TileLayer tileLayer) {
+		if (this.tileLayer != null) {
+			this.tileLayer.clear();
+		}
+		
+		this.tileLayer = tileLayer;
+		this.graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
 	}
-
+	
 	/**
-	 * Sets the {@link MapPosition} of the center of the canvas
-	 * 
-	 * @param latitude
-	 *            Latitude coordinate to set
-	 * @param longitude
-	 *            Longitude coordinate to set
+	 * @return The {@link TileLayer} showing the tiles, null if they are drawn on the {@link Canvas}
 	 */
-	public void setMapPosition(double latitude, double longitude) {
-		setMapPosition(latitude, longitude, mapView.getZoomLevel());
-	}
-	
-	
-	
-	private void drawBackground () {
-		
-		// TODO use latest zoom level not +/-1
-		
-		// get the center of the canvas
-		offsetX.set(canvas.getWidth() / 2);
-		offsetY.set(canvas.getHeight() / 2);
-
-		// convert from relative to the MapView(at center of the Canvas) to
-		// relative to the Canvas (0,0)
-		double 	pixelX 	= mapView.getX() - offsetX.get();
-		double 	pixelY 	= mapView.getY() - offsetY.get();
-		byte	zoom	= (byte)(mapView.getZoomLevel()+1);// TODO
-
-		tileLeft 	= MercatorProjection.pixelXToTileX	(pixelX, zoom);
-		tileTop 	= MercatorProjection.pixelYToTileY	(pixelY, zoom);
-		tileRight 	= MercatorProjection.pixelXToTileX	(pixelX + canvas.getWidth(),  zoom);
-		tileBottom 	= MercatorProjection.pixelYToTileY	(pixelY + canvas.getHeight(), zoom);
-		
-//		final double tileXCenter	= MercatorProjection.pixelXToTileX(pixelX+canvas.getWidth() /2, zoom);
-//		final double tileYCenter	= MercatorProjection.pixelXToTileX(pixelY+canvas.getHeight()/2, zoom);
-
-		int tileWidth	= Tile.TILE_SIZE;
-		int tileHeight	= Tile.TILE_SIZE;
-
-		int offSetX = -(int) (pixelX % tileWidth);
-		int offSetY = -(int) (pixelY % tileHeight);
-
-		for (long tileY = tileTop; tileY <= tileBottom; tileY += 1L) {
-			for (long tileX = tileLeft; tileX <= tileRight; tileX += 1L) {
-				
-				
-
-				// get the tile and the job for the current x and y coordinate
-				Tile			tile 			= new Tile				(tileX, tileY, zoom);
-				MapGeneratorJob mapGeneratorJob = new MapGeneratorJob	(tile, mapFile, jobParameters, debugSettings);
-
-				// the variable where the cached image is going to be placed
-				Image image = null;
-
-				// is there already a rendered image in the memory?
-				if (this.memoryTileCache.containsKey(mapGeneratorJob)) {
-					// get the image
-					image = ((FXBitmap) this.memoryTileCache.get(mapGeneratorJob)).image;
-				}
-				
-				
-				// is there already a rendered image as file?
-				else if (this.memoryTileCache.useFileTileCacheProperty().get() && this.fileCache.containsKey(mapGeneratorJob)) {
-					
-					// get the image
-					image = this.fileCache.get(mapGeneratorJob).image;
-					
-					// add it to the memory cache
-					this.memoryTileCache.put(mapGeneratorJob, new FXBitmap(image));
-				}
-
-				
-				// draw the image if it was found
-				if (image != null) {
-					// draw it on the canvas
-					graphics.drawImage(image, offSetX + tileWidth
-							* (tileX - tileLeft), offSetY + tileHeight
-							* (tileY - tileTop), tileWidth, tileHeight);
-				}
-				
-			}
-		}
-		
-		
+	public TileLayer getTileLayer () {
+		return tileLayer;
 	}
 	
-
 	/**
-	 * Redraws the tiles and creates new jobs if needed
+	 * @return Whether the map is moving, so missing tiles are rendered as quick previews
 	 */
-	public void redrawTiles() {
-		redrawTiles(true);
+	public boolean isMoving () {
+		return moving;
 	}
-
+	
 	/**
-	 * Redraws the tiles and creates new jobs to create tiles if needed and requested
+	 * Sets whether the map is moving. While it is, missing tiles are rendered as
+	 * quick previews without labels and symbols, which are replaced by tiles in
+	 * full detail with a lower priority once it has stopped. The map is not
+	 * expected to move any further, once it has stopped.
 	 * 
-	 * @param createJobs
-	 *            Whether create new jobs if possible (will remove all old jobs)
+	 * @param moving Whether the map is moving
 	 */
-	public void redrawTiles(boolean createJobs) {
-		// list to add the new jobs temporarily
-		List<MapGeneratorJob> jobs = new ArrayList<MapGeneratorJob>();
-		
-		drawBackground();
-		
-		// get the center of the canvas
-		offsetX.set(canvas.getWidth() / 2);
-		offsetY.set(canvas.getHeight() / 2);
-
-		// convert from relative to the MapView(at center of the Canvas) to
-		// relative to the Canvas (0,0)
-		double pixelX = mapView.getX() - offsetX.get();
-		double pixelY = mapView.getY() - offsetY.get();
-
-		tileLeft 	= MercatorProjection.pixelXToTileX	(pixelX, mapView.getZoomLevel());
-		tileTop 	= MercatorProjection.pixelYToTileY	(pixelY, mapView.getZoomLevel());
-		tileRight 	= MercatorProjection.pixelXToTileX	(pixelX + canvas.getWidth(), mapView.getZoomLevel());
-		tileBottom 	= MercatorProjection.pixelYToTileY	(pixelY + canvas.getHeight(), mapView.getZoomLevel());
-		
-		final double tileXCenter	= MercatorProjection.pixelXToTileX(pixelX+canvas.getWidth() /2, mapView.getZoomLevel());
-		final double tileYCenter	= MercatorProjection.pixelXToTileX(pixelY+canvas.getHeight()/2, mapView.getZoomLevel());
-
-		int tileWidth	= Tile.TILE_SIZE;
-		int tileHeight	= Tile.TILE_SIZE;
-
-		int offSetX = -(int) (pixelX % tileWidth);
-		int offSetY = -(int) (pixelY % tileHeight);
-
-		for (long tileY = tileTop; tileY <= tileBottom; tileY += 1L) {
-			for (long tileX = tileLeft; tileX <= tileRight; tileX += 1L) {
-
-				// get the tile and the job for the current x and y coordinate
-				Tile			tile 			= new Tile				(tileX, tileY, mapView.getZoomLevel());
-				MapGeneratorJob mapGeneratorJob = new MapGeneratorJob	(tile, mapFile, jobParameters, debugSettings);
-
-				// the variable where the cached image is going to be placed
-				Image image = null;
-
-				// is there already a rendered image in the memory?
-				if (this.memoryTileCache.containsKey(mapGeneratorJob)) {
-					// get the image
-					image = ((FXBitmap) this.memoryTileCache.get(mapGeneratorJob)).image;
-				}
-				
-				
-				// is there already a rendered image as file?
-				else if (this.memoryTileCache.useFileTileCacheProperty().get() && this.fileCache.containsKey(mapGeneratorJob)) {
-					
-					// get the image
-					image = this.fileCache.get(mapGeneratorJob).image;
-					
-					// add it to the memory cache
-					this.memoryTileCache.put(mapGeneratorJob, new FXBitmap(image));
-				}
-
-				// no image found? --> create the job and create a new image
-				if (image == null) {
-
-					// add the job only if requested, and there isn't already a
-					// job for this tile
-					if (createJobs) {
-						jobs.add(mapGeneratorJob);
-					}
-
-					// draw the empty image
-					image = emptyImage;
-				}
-
-				// draw the image if it was found
-				if (image != null) {
-					// draw it on the canvas
-					graphics.drawImage(image, offSetX + tileWidth
-							* (tileX - tileLeft), offSetY + tileHeight
-							* (tileY - tileTop), tileWidth, tileHeight);
-				}
-			}
-		}
+	public void setMoving (boolean moving) {
+		this.moving = moving;
 		
-		if (createJobs) {
-			// order the jobs by distance to the center
-			Collections.sort(jobs, new Comparator<MapGeneratorJob>() {
-	
-				@Override
-				public int compare(MapGeneratorJob o1, MapGeneratorJob o2) {
-					// get the difference to the center for the first job
-					double dx1 = o1.tile.tileX - tileXCenter;
-					double dy1 = o1.tile.tileY - tileYCenter;
-					
-					// get the difference to the center for the second job
-					double dx2 = o2.tile.tileX - tileXCenter;
-					double dy2 = o2.tile.tileY - tileYCenter;
-					
-					double d1  = Math.sqrt( Math.pow(dx1, 2) + Math.pow(dy1, 2) );
-					double d2  = Math.sqrt( Math.pow(dx2, 2) + Math.pow(dy2, 2) );
-					
-					return Double.compare(d1, d2);
-				}
-			});
-			
-			// add to to the jobs
-			this.jobs.clear();
-			this.jobs.addAll(jobs);
+		if (!moving) {
+			motion.reset();
 		}
 	}
-
+	
 	/**
-	 * @return The {@link DoubleProperty} containing the current x offset
+	 * @return The {@link LabelOverlay} placing the labels for the viewport, null if they are drawn on the tiles
 	 */
-	public ReadOnlyDoubleProperty offsetXProperty() {
-		return offsetX;
+	public LabelOverlay getLabelOverlay () {
+		return labelOverlay;
 	}
-
+	
 	/**
-	 * @return The {@link DoubleProperty} containing the current y offset
+	 * @return The number of images in each direction that are rendered together as one metatile
 	 */
-	public ReadOnlyDoubleProperty offsetYProperty() {
-		return offsetY;
+	public synchronized int getMetatileSize () {
+		return metatileSize;
 	}
-
+	
 	/**
-	 * @return The {@link TileCache} that caches everything in the memory
+	 * Sets the number of images in each direction that are rendered together
+	 * as one metatile. A metatile is rendered in a single job on one large
+	 * {@link Canvas} and sliced into the images afterwards, so the map data
+	 * is matched and the labels are placed once for all of them.
+	 * 
+	 * @param metatileSize Number of images in each direction, rounded down to a power of two, one to render each image on its own
 	 */
-	public MemoryTileCache getMemoryTileCache() {
-		return memoryTileCache;
+	public synchronized void setMetatileSize (int metatileSize) {
+		this.metatileSize = Integer.highestOneBit(Math.max(1, metatileSize));
 	}
-
+	
 	/**
-	 * @return The {@link TileCache} that caches everything in a file / files
+	 * @return The width and height of a rendered image on the map, a multiple of {@link Tile#TILE_SIZE}
 	 */
-	public FileTileCache getFileTileCache() {
-		return fileCache;
+	public int getTileSize () {
+		return imageTiles * Tile.TILE_SIZE;
 	}
 	
 	/**
-	 * @return The {@link DebugSettings} for the rendering
+	 * @return The number of pixels of the rendered images per pixel on the map
 	 */
-	public DebugSettings getDebugSettings () {
-		return debugSettings;
+	public float getDeviceScale () {
+		return deviceScale;
 	}
 	
 	/**
-	 * @return Whether the drawing of {@link Tile}s is currently paused
+	 * @return The number of {@link Tile}s in each direction that are rendered in a single job
 	 */
-	public synchronized boolean isPaused () {
-		return pauseTileDrawing;
+	private int getJobTiles () {
+		return getMetatileSize() * imageTiles;
 	}
 	
 	/**
-	 * @param pause Whether to pause the drawing of {@link Tile}s
+	 * @return How the images of a job are laid out, the jobs of other map views
+	 *         are only merged with the ones of this instance, if they are equal
 	 */
-	public synchronized void setPaused (boolean pause) {
-		this.pauseTileDrawing = pause;
+	private String getLayout () {
+		return getMetatileSize() + "x" + imageTiles + "@" + deviceScale;
 	}
 	
 	/**
-	 * Destroys this instance and the {@link TileCache}s
+	 * @param tile	{@link Tile} to get the upper left {@link Tile} of the group for
+	 * @param size	Number of {@link Tile}s in each direction of the group
+	 * @return The upper left {@link Tile} of the group the given {@link Tile} belongs to
 	 */
-	public void destroy () {
-		synchronized (this) {
-			// return if already is destroyed
-			if (isDestroyed()) {
-				return;
-			}
-			
-			// set destroyed
-			isDestroyed = true;
+	private static Tile getFirstTile (Tile tile, int size) {
+		if (size == 1) {
+			return tile;
 		}
-		
-		
-		// stop redrawing
-		setPaused(true);
-		
-		// destroy the cashes / free the memory
-		fileCache		.destroy();
-		memoryTileCache	.destroy();
+		return new Tile(tile.tileX - tile.tileX % size, tile.tileY - tile.tileY % size, tile.zoomLevel);
 	}
 	
 	/**
-	 * @return Whether this instance has been destroyed
+	 * Adds the job that renders the given {@link Tile} to the given {@link Set},
+	 * if it isn't already in it. This is the job for the upper left {@link Tile}
+	 * of the metatile the given {@link Tile} belongs to.
+	 * 
+	 * @param jobs	{@link Set} to add the job to
+	 * @param tile	{@link Tile} that needs to be rendered
 	 */
-	public synchronized boolean isDestroyed () {
-		return isDestroyed;
+	private void addJob (Set<MapGeneratorJob> jobs, Tile tile) {
+		addJob(jobs, tile, false);
 	}
 	
-
 	/**
-	 * Just executes the given {@link MapGeneratorJob}
+	 * Adds the job that renders the given {@link Tile} to the given {@link Set},
+	 * if it isn't already in it. This is the job for the upper left {@link Tile}
+	 * of the metatile the given {@link Tile} belongs to.
 	 * 
-	 * @param job {@link MapGeneratorJob} to execute
+	 * @param jobs		{@link Set} to add the job to, in the order they are added
+	 * @param tile		{@link Tile} that needs to be rendered
+	 * @param preview	Whether to render a quick preview without labels and symbols
 	 */
-	private void executeJob(final MapGeneratorJob job) {
-		// create the canvas to draw on
-		final Canvas canvas = new Canvas(Tile.TILE_SIZE, Tile.TILE_SIZE);
-		
-		// queue all the data that needs to be drawn
-		databaseRenderer.executeJob(job, canvas);
+	private void addJob (Set<MapGeneratorJob> jobs, Tile tile, boolean preview) {
+		MapGeneratorJob job = new MapGeneratorJob(getFirstTile(tile, getJobTiles()), mapFile, jobParameters, debugSettings);
 		
-		// cache the tile
-		Platform.runLater(new Runnable() {
+		if (!jobs.contains(job)) {
+			job.setPreview(preview);
+			jobs.add(job);
+		}
+	}
+	
+	/**
+	 * Looks for the image with the given {@link MapGeneratorJob} in the memory
+	 * cache and then in the file cache
+	 * 
+	 * @param job {@link MapGeneratorJob} of the image
+	 * @return The cached image or null
+	 */
+	private Image getCachedImage (MapGeneratorJob job) {
+		// is there already a rendered image in the memory?
+		if (this.memoryTileCache.containsKey(job)) {
+			// get the image
+			return ((FXBitmap) this.memoryTileCache.get(job)).image;
+		}
+		
+		// is there already a rendered image as file?
+		else if (this.memoryTileCache.useFileTileCacheProperty().get() && this.fileCache.containsKey(job)) {
+			
+			// get the image
+			Image image = this.fileCache.get(job).image;
+			
+			// add it to the memory cache
+			this.memoryTileCache.put(job, new FXBitmap(image));
+			return image;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * @param tile {@link Tile} to get the job for
+	 * @return The {@link MapGeneratorJob} of the image containing the given {@link Tile}
+	 */
+	private MapGeneratorJob getImageJob (Tile tile) {
+		return new MapGeneratorJob(getFirstTile(tile, imageTiles), mapFile, jobParameters, debugSettings);
+	}
+	
+	/**
+	 * @param tile {@link Tile} to get the image for
+	 * @return The cached image containing the given {@link Tile} or null
+	 */
+	private Image getCachedImage (Tile tile) {
+		return getCachedImage(getImageJob(tile));
+	}
+	
+	/**
+	 * @param tile {@link Tile} to get the image for
+	 * @return The image containing the given {@link Tile} if it is in the memory cache, null otherwise
+	 */
+	private Image getMemoryImage (Tile tile) {
+		MapGeneratorJob job = getImageJob(tile);
+		
+		if (this.memoryTileCache.containsKey(job)) {
+			return ((FXBitmap) this.memoryTileCache.get(job)).image;
+		}
+		return null;
+	}
+	
+	/**
+	 * Draws the part of the given image, that shows the given {@link Tile}
+	 * 
+	 * @param image	Image containing the {@link Tile}
+	 * @param tile	{@link Tile} to draw
+	 * @param x		X coordinate on the {@link Canvas}
+	 * @param y		Y coordinate on the {@link Canvas}
+	 */
+	private void drawTile (Image image, Tile tile, double x, double y) {
+		if (imageTiles == 1 || image == emptyImage) {
+			drawImage(image, 0, 0, image.getWidth(), image.getHeight(), x, y, Tile.TILE_SIZE);
+		} else {
+			drawTilePart(image, tile, 0, 0, 1, x, y, Tile.TILE_SIZE);
+		}
+	}
+	
+	/**
+	 * Draws a part of the given {@link Tile} from the given image
+	 * 
+	 * @param image		Image containing the {@link Tile}
+	 * @param tile		{@link Tile} to draw a part of
+	 * @param partX		Left edge of the part, relative to the size of the {@link Tile}
+	 * @param partY		Top edge of the part, relative to the size of the {@link Tile}
+	 * @param partSize	Width and height of the part, relative to the size of the {@link Tile}
+	 * @param x			X coordinate on the {@link Canvas}
+	 * @param y			Y coordinate on the {@link Canvas}
+	 * @param size		Width and height on the {@link Canvas}
+	 */
+	private void drawTilePart (Image image, Tile tile, double partX, double partY, double partSize, double x, double y, double size) {
+		double tileSize = image.getWidth() / imageTiles;
+		
+		drawImage(
+				image,
+				((tile.tileX % imageTiles) + partX) * tileSize,
+				((tile.tileY % imageTiles) + partY) * tileSize,
+				partSize * tileSize,
+				partSize * tileSize,
+				x,
+				y,
+				size
+		);
+	}
+	
+	/**
+	 * Draws a part of the given image on the {@link Canvas} or the {@link TileLayer}, if set
+	 * 
+	 * @param image	Image to draw
+	 * @param sx	Left edge of the part of the image
+	 * @param sy	Top edge of the part of the image
+	 * @param sw	Width of the part of the image
+	 * @param sh	Height of the part of the image
+	 * @param x		X coordinate on the {@link Canvas}
+	 * @param y		Y coordinate on the {@link Canvas}
+	 * @param size	Width and height on the {@link Canvas}
+	 */
+	private void drawImage (Image image, double sx, double sy, double sw, double sh, double x, double y, double size) {
+		if (tileLayer != null) {
+			tileLayer.draw(image, sx, sy, sw, sh, x, y, size);
+		} else {
+			graphics.drawImage(image, sx, sy, sw, sh, x, y, size, size);
+		}
+	}
+	
+	/**
+	 * @param zoom Zoom-level of the {@link Tile}s
+	 * @return Whether the {@link Tile}s of the given zoom-level are rendered without labels and symbols
+	 */
+	private boolean isLabelFree (byte zoom) {
+		// with the overlay the labels come from rendering the tile
+		if (labelOverlay != null) {
+			return false;
+		} else if (zoom <= labelFreeZoom) {
+			return true;
+		}
+		
+		LiveRenderRule rule = getLiveRenderRule();
+		return !rule.isAllowed(Drawable.AREA_CAPTION)
+			&& !rule.isAllowed(Drawable.AREA_SYMBOL)
+			&& !rule.isAllowed(Drawable.POINT_OF_INTEREST_CAPTION)
+			&& !rule.isAllowed(Drawable.POINT_OF_INTEREST_SYMBOL)
+			&& !rule.isAllowed(Drawable.WAY_SYMBOL)
+			&& !rule.isAllowed(Drawable.WAY_TEXT);
+	}
+	
+	/**
+	 * @param zoom Zoom-level of the {@link Tile}s
+	 * @return Whether a {@link Tile} created from its children is kept instead of being rendered
+	 */
+	private boolean isSynthesisFinal (byte zoom) {
+		return synthesisFinal && isLabelFree(zoom);
+	}
+	
+	/**
+	 * Creates the image of the given missing {@link Tile} from the images of
+	 * its four children, if all of them are in the memory cache. This is done
+	 * in a separate {@link Thread}, the image is then shown until the
+	 * {@link Tile} has been rendered, or kept if it is good enough
+	 * 
+	 * @param tile {@link Tile} that is missing
+	 * @return Whether the image of the {@link Tile} is going to be created
+	 */
+	private boolean synthesize (Tile tile) {
+		if (!synthesisEnabled || tile.zoomLevel == Byte.MAX_VALUE) {
+			return false;
+		}
+		
+		MapGeneratorJob	job			= getImageJob(tile);
+		Image[]			children	= new Image[4];
+		
+		synchronized (syntheses) {
+			if (syntheses.containsKey(job)) {
+				return true;
+			}
+		}
+		
+		for (int i = 0; i < 4; ++i) {
+			children[i] = getMemoryImage(new Tile(
+					job.tile.tileX * 2 + (i % 2) * imageTiles,
+					job.tile.tileY * 2 + (i / 2) * imageTiles,
+					(byte)(tile.zoomLevel + 1)
+			));
+			
+			if (children[i] == null) {
+				return false;
+			}
+		}
+		
+		synchronized (syntheses) {
+			syntheses.put(job, children);
+			
+			if (synthesisRunnable == null) {
+				synthesisRunnable = new Runnable() {
+					@Override
+					public void run() {
+						executeSyntheses();
+					}
+				};
+				new Thread(synthesisRunnable, "ExecuteMapforge Synthesis").start();
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Creates the images of all queued parents, until there are none left
+	 */
+	private void executeSyntheses () {
+		while (true) {
+			final MapGeneratorJob	job;
+			final Image[]			children;
+			
+			synchronized (syntheses) {
+				if (syntheses.isEmpty() || isDestroyed()) {
+					syntheses.clear();
+					synthesisRunnable = null;
+					return;
+				}
+				
+				job			= syntheses.keySet().iterator().next();
+				children	= syntheses.get(job);
+			}
+			
+			final Image		parent	= TilePyramid.synthesize(children);
+			final boolean	keep	= isSynthesisFinal(job.tile.zoomLevel);
+			
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					// do not replace the rendered tile
+					if (parent != null && !memoryTileCache.containsKey(job)) {
+						memoryTileCache.put(job, new FXBitmap(parent));
+						
+						// never stored in the file cache, the tile is rendered for it,
+						// a kept one is just not replaced while it is in the memory
+						memoryTileCache.setPreview(job);
+						
+						if (!keep) {
+							previews.add(job);
+						}
+						requestRedraw(false);
+					}
+				}
+			});
+			
+			synchronized (syntheses) {
+				syntheses.remove(job);
+			}
+		}
+	}
+	
+	/**
+	 * Adds the given rendered image to the memory cache, an image rendered
+	 * in advance is stored in the file cache, if the memory cache rejects it.
+	 * A preview is kept until it is replaced by the image in full detail.
+	 * 
+	 * @param job		{@link MapGeneratorJob} of the image
+	 * @param image		Rendered image
+	 * @param prefetch	Whether the image has been rendered in advance
+	 */
+	private void cacheImage (MapGeneratorJob job, Image image, boolean prefetch) {
+		// never replace an image in full detail by a preview
+		if (job.isPreview() && memoryTileCache.containsKey(job) && !previews.contains(job)) {
+			return;
+		}
+		
+		if (!prefetch) {
+			memoryTileCache.put(job, new FXBitmap(image));
+		} else if (!memoryTileCache.putPrefetched(job, new FXBitmap(image)) && memoryTileCache.useFileTileCacheProperty().get() && !job.isPreview()) {
+			fileCache.put(job, new FXBitmap(image));
+		}
+		
+		if (job.isPreview()) {
+			memoryTileCache.setPreview(job);
+			previews.add(job);
+		} else {
+			previews.remove(job);
+		}
+	}
+	
+	/**
+	 * @return The number of zoom-levels to look for a cached ancestor of a missing {@link Tile}
+	 */
+	public synchronized int getFallbackLevels () {
+		return fallbackLevels;
+	}
+	
+	/**
+	 * Sets the number of zoom-levels to look for a cached ancestor of a
+	 * missing {@link Tile}, which is then shown scaled up until the
+	 * {@link Tile} has been rendered
+	 * 
+	 * @param fallbackLevels Number of zoom-levels, zero to only look for descendants
+	 */
+	public synchronized void setFallbackLevels (int fallbackLevels) {
+		this.fallbackLevels = Math.max(0, fallbackLevels);
+	}
+	
+	/**
+	 * Draws a replacement for the given missing {@link Tile} from the memory
+	 * cache. The four descendants on the next zoom-level are preferred, since
+	 * they show the area in more detail, they are only used if all of them are
+	 * cached. Otherwise the part of the nearest cached ancestor is scaled up.
+	 * 
+	 * @param tile	{@link Tile} that is missing
+	 * @param x		X coordinate on the {@link Canvas}
+	 * @param y		Y coordinate on the {@link Canvas}
+	 * @return Whether a replacement has been drawn
+	 */
+	private boolean drawFallback (Tile tile, double x, double y) {
+		if (tile.zoomLevel < Byte.MAX_VALUE) {
+			Tile[]	children	= new Tile[4];
+			Image[]	images		= new Image[4];
+			boolean	complete	= true;
+			
+			for (int i = 0; i < 4 && complete; ++i) {
+				children[i]	= new Tile(tile.tileX * 2 + i % 2, tile.tileY * 2 + i / 2, (byte)(tile.zoomLevel + 1));
+				images[i]	= getMemoryImage(children[i]);
+				complete	= images[i] != null;
+			}
+			
+			if (complete) {
+				double size = Tile.TILE_SIZE / 2d;
+				
+				for (int i = 0; i < 4; ++i) {
+					drawTilePart(images[i], children[i], 0, 0, 1, x + size * (i % 2), y + size * (i / 2), size);
+				}
+				return true;
+			}
+		}
+		
+		int levels = Math.min(getFallbackLevels(), tile.zoomLevel);
+		
+		for (int level = 1; level <= levels; ++level) {
+			Tile	ancestor	= new Tile(tile.tileX >> level, tile.tileY >> level, (byte)(tile.zoomLevel - level));
+			Image	image		= getMemoryImage(ancestor);
+			
+			if (image != null) {
+				// the part of the ancestor, that covers the missing tile
+				long	mask		= (1L << level) - 1;
+				double	partSize	= 1d / (1L << level);
+				
+				drawTilePart(image, ancestor, (tile.tileX & mask) * partSize, (tile.tileY & mask) * partSize, partSize, x, y, Tile.TILE_SIZE);
+				return true;
+			}
+		}
+		
+		return false;
+	}
 
+	/**
+	 * Loads the given {@link File}
+	 * 
+	 * @param file
+	 *            {@link File} to load from
+	 */
+	public void load(File file) {
+		// save the file
+		this.mapFile = file;
+
+		// open the file
+		FileOpenResult result = mapDatabase.openFile(mapFile);
+		
+		// log the result
+		logger.debug("Opened file="+file.getAbsolutePath()+", succeeded="+result.isSuccess()+", errorMessage="+result.getErrorMessage());
+		
+		// stop, if file couldn't be opened
+		if (!result.isSuccess()) {
+			throw new RuntimeException("Couldn't open file, errorMessage="+(result != null ? result.getErrorMessage() : null));
+		}
+		
+		
+
+		// redraw after load
+		requestRedraw(true);
+	}
+	
+	/**
+	 * @return Whether there is already a file loaded
+	 */
+	public boolean hasLoaded () {
+		return mapDatabase.hasOpenFile();
+	}
+
+	/**
+	 * Sets the {@link MapPosition} of the center of the canvas
+	 * 
+	 * @param latitude
+	 *            Latitude coordinate to set
+	 * @param longitude
+	 *            Longitude coordinate to set
+	 * @param zoom
+	 *            Zoom level to set
+	 */
+	public void setMapPosition(double latitude, double longitude, byte zoom) {
+		mapView.set(latitude, longitude);
+		mapView.setZoomLevel(zoom);
+	}
+
+	/**
+	 * Sets the {@link MapPosition} of the center of the canvas
+	 * 
+	 * @param latitude
+	 *            Latitude coordinate to set
+	 * @param longitude
+	 *            Longitude coordinate to set
+	 */
+	public void setMapPosition(double latitude, double longitude) {
+		setMapPosition(latitude, longitude, mapView.getZoomLevel());
+	}
+	
+	/**
+	 * Requests the image of the given {@link Tile}, whether it is visible or not.
+	 * It is rendered after the visible and predicted {@link Tile}s.
+	 * 
+	 * @param tile			{@link Tile} to get the image of
+	 * @param jobParameters	{@link JobParameters} to render it with
+	 * @return The future image of the {@link Tile}
+	 * @see #requestTile(Tile, JobParameters, double)
+	 */
+	public CompletableFuture<FXBitmap> requestTile (Tile tile, JobParameters jobParameters) {
+		return requestTile(tile, jobParameters, JobScheduler.getPriority(JobScheduler.CLASS_PREFETCH, 0, 0, 0));
+	}
+	
+	/**
+	 * Requests the image of the given {@link Tile}, whether it is visible or not.
+	 * An image in the memory cache is returned at once, one in the file cache is
+	 * read in the background, otherwise the job is scheduled with the given priority
+	 * and the requests for the same {@link Tile} share the same future. The future
+	 * is completed on the FX-Thread, exceptionally if the {@link Tile} couldn't be
+	 * rendered. The image is added to the cache like a {@link Tile} rendered in advance.
+	 * The labels are drawn on the {@link Tile}, unless the {@link JobParameters} leave them to an overlay.
+	 * 
+	 * @param tile			{@link Tile} to get the image of
+	 * @param jobParameters	{@link JobParameters} to render it with
+	 * @param priority		Priority of the job, like {@link JobScheduler#getPriority(int, int, double, double)}
+	 * @return The future image of the {@link Tile}
+	 */
+	public CompletableFuture<FXBitmap> requestTile (final Tile tile, final JobParameters jobParameters, final double priority) {
+		CompletableFuture<FXBitmap> future;
+		
+		// the caches are only accessed in the FX-Thread
+		if (!Platform.isFxApplicationThread()) {
+			final CompletableFuture<FXBitmap> marshalled = new CompletableFuture<>();
+			
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					requestTile(tile, jobParameters, priority).whenComplete(new BiConsumer<FXBitmap, Throwable>() {
+						@Override
+						public void accept(FXBitmap bitmap, Throwable throwable) {
+							if (throwable != null) {
+								marshalled.completeExceptionally(throwable);
+							} else {
+								marshalled.complete(bitmap);
+							}
+						}
+					});
+				}
+			});
+			return marshalled;
+		}
+		
+		if (mapFile == null || isDestroyed()) {
+			future = new CompletableFuture<>();
+			future.completeExceptionally(new IllegalStateException("No map file has been loaded"));
+			return future;
+		}
+		
+		// already cached?
+		Image image = getRequestedImage(tile, jobParameters);
+		if (image != null) {
+			return CompletableFuture.completedFuture(new FXBitmap(image));
+		}
+		
+		MapGeneratorJob job		= new MapGeneratorJob(getFirstTile(tile, getJobTiles()), mapFile, jobParameters, debugSettings);
+		boolean			first	= false;
+		
+		synchronized (requests) {
+			Map<Tile, CompletableFuture<FXBitmap>> futures = requests.get(job);
+			if (futures == null) {
+				requests.put(job, futures = new HashMap<>());
+			}
+			
+			future = futures.get(tile);
+			if (future == null) {
+				futures.put(tile, future = new CompletableFuture<>());
+				first = true;
+			}
+			
+			Double queued = requestPriorities.get(job);
+			if (queued == null || priority < queued) {
+				requestPriorities.put(job, priority);
+			}
+		}
+		
+		// it might be in the file cache, the job is dropped if it is read before it is rendered
+		if (first && memoryTileCache.useFileTileCacheProperty().get()) {
+			readRequestedImage(job, new MapGeneratorJob(getFirstTile(tile, imageTiles), mapFile, jobParameters, debugSettings));
+		}
+		
+		requestRedraw(true);
+		return future;
+	}
+	
+	/**
+	 * Reads the image of a requested {@link Tile} from the file cache in the background,
+	 * it is then added to the memory cache and the requests are served
+	 * 
+	 * @param job	{@link MapGeneratorJob} rendering the requested {@link Tile}
+	 * @param image	{@link MapGeneratorJob} of the image containing the requested {@link Tile}
+	 */
+	private void readRequestedImage (final MapGeneratorJob job, final MapGeneratorJob image) {
+		CompletableFuture.supplyAsync(new Supplier<FXBitmap>() {
 			@Override
-			public void run() {
-				// add it to the cache
-				memoryTileCache.put(job, new FXBitmap(canvas.snapshot(null, null)));
-				redrawTiles();
+			public FXBitmap get() {
+				return fileCache.read(image);
+			}
+		}).thenAccept(new Consumer<FXBitmap>() {
+			@Override
+			public void accept(final FXBitmap bitmap) {
+				if (bitmap == null) {
+					return;
+				}
+				
+				Platform.runLater(new Runnable() {
+					@Override
+					public void run() {
+						if (isDestroyed()) {
+							return;
+						}
+						if (!memoryTileCache.containsKey(image)) {
+							memoryTileCache.putPrefetched(image, bitmap);
+						}
+						serveRequests(job, image.tile, bitmap.image);
+					}
+				});
+			}
+		});
+	}
+	
+	/**
+	 * @param tile			{@link Tile} to get the image of
+	 * @param jobParameters	{@link JobParameters} it has been rendered with
+	 * @return The image of the {@link Tile} from the memory cache, null if it isn't cached or only a preview
+	 */
+	private Image getRequestedImage (Tile tile, JobParameters jobParameters) {
+		MapGeneratorJob	job		= new MapGeneratorJob(getFirstTile(tile, imageTiles), mapFile, jobParameters, debugSettings);
+		FXBitmap		bitmap	= null;
+		
+		if (!previews.contains(job) && memoryTileCache.containsKey(job)) {
+			bitmap = (FXBitmap) memoryTileCache.get(job);
+		}
+		
+		return bitmap != null ? cropTile(bitmap.image, job.tile, tile) : null;
+	}
+	
+	/**
+	 * @param image	Image to crop
+	 * @param first	Upper left {@link Tile} of the image
+	 * @param tile	{@link Tile} to crop
+	 * @return The part of the image showing the given {@link Tile}, null if it is not inside
+	 */
+	private Image cropTile (Image image, Tile first, Tile tile) {
+		int size	= Math.round(Tile.TILE_SIZE * deviceScale);
+		int x		= (int) (tile.tileX - first.tileX) * size;
+		int y		= (int) (tile.tileY - first.tileY) * size;
+		
+		if (x == 0 && y == 0 && image.getWidth() == size && image.getHeight() == size) {
+			return image;
+		}
+		if (x < 0 || y < 0 || x + size > image.getWidth() || y + size > image.getHeight()) {
+			return null;
+		}
+		
+		return new WritableImage(image.getPixelReader(), x, y, size, size);
+	}
+	
+	/**
+	 * Completes the requests for the {@link Tile}s of the given job, with the
+	 * given image or the cached images, and forgets the cancelled ones
+	 * 
+	 * @param job	{@link MapGeneratorJob} rendering the requested {@link Tile}s
+	 * @param image	Rendered image of the whole job, null to look into the cache
+	 */
+	private void serveRequests (MapGeneratorJob job, Image image) {
+		serveRequests(job, job.tile, image);
+	}
+	
+	/**
+	 * Completes the requests for the {@link Tile}s of the given job, that are
+	 * inside the given image or cached, and forgets the cancelled ones
+	 * 
+	 * @param job	{@link MapGeneratorJob} rendering the requested {@link Tile}s
+	 * @param first	Upper left {@link Tile} of the given image
+	 * @param image	Image containing some of the {@link Tile}s, null to look into the cache
+	 */
+	private void serveRequests (MapGeneratorJob job, Tile first, Image image) {
+		Map<CompletableFuture<FXBitmap>, Image> served = new HashMap<>();
+		
+		synchronized (requests) {
+			Map<Tile, CompletableFuture<FXBitmap>> futures = requests.get(job);
+			if (futures == null) {
+				return;
+			}
+			
+			for (Iterator<Map.Entry<Tile, CompletableFuture<FXBitmap>>> iterator = futures.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<Tile, CompletableFuture<FXBitmap>> entry = iterator.next();
+				
+				Image tileImage = image != null
+						? cropTile(image, first, entry.getKey())
+						: getRequestedImage(entry.getKey(), job.jobParameters);
+				
+				if (tileImage != null) {
+					served.put(entry.getValue(), tileImage);
+				}
+				if (tileImage != null || entry.getValue().isDone()) {
+					iterator.remove();
+				}
+			}
+			
+			if (futures.isEmpty()) {
+				requests			.remove(job);
+				requestPriorities	.remove(job);
+			}
+		}
+		
+		// complete them outside the lock, the callers may request more
+		for (Map.Entry<CompletableFuture<FXBitmap>, Image> entry : served.entrySet()) {
+			entry.getKey().complete(new FXBitmap(entry.getValue()));
+		}
+	}
+	
+	/**
+	 * Completes the requests for the {@link Tile}s of the given job exceptionally,
+	 * as it couldn't be rendered
+	 * 
+	 * @param job	{@link MapGeneratorJob} rendering the requested {@link Tile}s
+	 * @param cause	Why it couldn't be rendered
+	 */
+	private void failRequests (final MapGeneratorJob job, final Throwable cause) {
+		// be sure this is called in the FX-Thread, like serving them
+		if (!Platform.isFxApplicationThread()) {
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					failRequests(job, cause);
+				}
+			});
+			return;
+		}
+		
+		Map<Tile, CompletableFuture<FXBitmap>> futures;
+		
+		synchronized (requests) {
+			futures = requests.remove(job);
+			requestPriorities.remove(job);
+		}
+		
+		if (futures != null) {
+			for (CompletableFuture<FXBitmap> future : futures.values()) {
+				future.completeExceptionally(cause);
+			}
+		}
+	}
+	
+	/**
+	 * @return The jobs of the requested {@link Tile}s that are not cached yet, mapped to their priority
+	 */
+	private Map<MapGeneratorJob, Double> getPendingRequests () {
+		List<MapGeneratorJob> requested;
+		synchronized (requests) {
+			requested = new ArrayList<>(requests.keySet());
+		}
+		
+		// some may have been cached meanwhile
+		for (MapGeneratorJob job : requested) {
+			serveRequests(job, null);
+		}
+		
+		synchronized (requests) {
+			return new HashMap<>(requestPriorities);
+		}
+	}
+	
+	/**
+	 * @param job {@link MapGeneratorJob} to check
+	 * @return Whether the {@link Tile}s of the given job have been requested
+	 */
+	private boolean isRequested (MapGeneratorJob job) {
+		synchronized (requests) {
+			return requests.containsKey(job);
+		}
+	}
+	
+	
+	
+	/**
+	 * Requests to redraw the tiles on the next pulse, all requests until then
+	 * are merged into a single redraw, that creates new jobs if any of them
+	 * requested it and executes them afterwards
+	 * 
+	 * @param createJobs	Whether to create new jobs if possible
+	 */
+	public void requestRedraw (final boolean createJobs) {
+		// be sure this is called in the FX-Thread
+		if (!Platform.isFxApplicationThread()) {
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					requestRedraw(createJobs);
+				}
+			});
+			return;
+		}
+		
+		if (redrawRequested) {
+			mergedRedraws.incrementAndGet();
+		}
+		
+		redrawRequested		= true;
+		redrawCreateJobs	|= createJobs;
+		redrawMoveOnly		= false;
+		redrawTimer.start();
+	}
+	
+	/**
+	 * Requests to show the tiles at the current position of the {@link MapView}
+	 * on the next pulse, after it has been panned. With a {@link TileLayer}, only
+	 * the layer and the labels are moved, unless a column or row of {@link Tile}s
+	 * has entered or left the viewport or any other redraw has been requested,
+	 * then the tiles are redrawn like {@link #requestRedraw(boolean)} does.
+	 * 
+	 * @param createJobs	Whether to create new jobs, if the tiles are redrawn
+	 */
+	public void requestMove (final boolean createJobs) {
+		// be sure this is called in the FX-Thread
+		if (!Platform.isFxApplicationThread()) {
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					requestMove(createJobs);
+				}
+			});
+			return;
+		}
+		
+		boolean requested = redrawRequested;
+		requestRedraw(createJobs);
+		
+		// not merged into another redraw
+		if (!requested) {
+			redrawMoveOnly = true;
+		}
+	}
+	
+	/**
+	 * Moves the {@link TileLayer} and the labels to the current position of the
+	 * {@link MapView}, if the same {@link Tile}s are visible as on the last redraw
+	 * 
+	 * @return Whether the {@link Tile}s have been moved, false if they need to be redrawn
+	 */
+	private boolean moveTiles () {
+		TileLayer	tileLayer	= this.tileLayer;
+		byte		zoom		= mapView.getZoomLevel();
+		
+		if (tileLayer == null || zoom != tileZoom || offsetX.get() != canvas.getWidth() / 2 || offsetY.get() != canvas.getHeight() / 2) {
+			return false;
+		}
+		
+		double pixelX = mapView.getX() - offsetX.get();
+		double pixelY = mapView.getY() - offsetY.get();
+		
+		if (MercatorProjection.pixelXToTileX(pixelX,						zoom) != tileLeft
+		 || MercatorProjection.pixelYToTileY(pixelY,						zoom) != tileTop
+		 || MercatorProjection.pixelXToTileX(pixelX + canvas.getWidth(),	zoom) != tileRight
+		 || MercatorProjection.pixelYToTileY(pixelY + canvas.getHeight(),	zoom) != tileBottom) {
+			return false;
+		}
+		
+		tileLayer.move(pixelX, pixelY);
+		drawLabels(false, pixelX, pixelY, -(int) (pixelX % Tile.TILE_SIZE), -(int) (pixelY % Tile.TILE_SIZE));
+		return true;
+	}
+	
+	/**
+	 * @return The number of redraws done for the requests
+	 */
+	public long getRedrawCount () {
+		return redraws.get();
+	}
+	
+	/**
+	 * @return The number of requested redraws, that have been merged into another one
+	 */
+	public long getMergedRedrawCount () {
+		return mergedRedraws.get();
+	}
+	
+	/**
+	 * Redraws the tiles and creates new jobs if needed
+	 */
+	public void redrawTiles() {
+		redrawTiles(true);
+	}
+
+	/**
+	 * Redraws the tiles and creates new jobs to create tiles if needed and requested
+	 * 
+	 * @param createJobs
+	 *            Whether create new jobs if possible (will remove all old jobs that are not needed anymore)
+	 */
+	public void redrawTiles(boolean createJobs) {
+		// list to add the new jobs temporarily, and the ones replacing previews
+		Set<MapGeneratorJob> jobs		= new LinkedHashSet<MapGeneratorJob>();
+		Set<MapGeneratorJob> refines	= new LinkedHashSet<MapGeneratorJob>();
+		Set<MapGeneratorJob> labels		= new LinkedHashSet<MapGeneratorJob>();
+		
+		// the images on the canvas, prefetched images must not replace them
+		Set<MapGeneratorJob> visible = new HashSet<MapGeneratorJob>();
+		
+		// get the center of the canvas
+		offsetX.set(canvas.getWidth() / 2);
+		offsetY.set(canvas.getHeight() / 2);
+
+		// convert from relative to the MapView(at center of the Canvas) to
+		// relative to the Canvas (0,0)
+		double pixelX = mapView.getX() - offsetX.get();
+		double pixelY = mapView.getY() - offsetY.get();
+
+		tileLeft 	= MercatorProjection.pixelXToTileX	(pixelX, mapView.getZoomLevel());
+		tileTop 	= MercatorProjection.pixelYToTileY	(pixelY, mapView.getZoomLevel());
+		tileRight 	= MercatorProjection.pixelXToTileX	(pixelX + canvas.getWidth(), mapView.getZoomLevel());
+		tileBottom 	= MercatorProjection.pixelYToTileY	(pixelY + canvas.getHeight(), mapView.getZoomLevel());
+		tileZoom	= mapView.getZoomLevel();
+		
+		final double tileXCenter	= MercatorProjection.pixelXToTileX(pixelX+canvas.getWidth() /2, mapView.getZoomLevel());
+		final double tileYCenter	= MercatorProjection.pixelXToTileX(pixelY+canvas.getHeight()/2, mapView.getZoomLevel());
+
+		int tileWidth	= Tile.TILE_SIZE;
+		int tileHeight	= Tile.TILE_SIZE;
+
+		int offSetX = -(int) (pixelX % tileWidth);
+		int offSetY = -(int) (pixelY % tileHeight);
+		
+		// the tiles that are drawn the same way stay in the layer, it is just moved
+		TileLayer tileLayer = this.tileLayer;
+		if (tileLayer != null) {
+			tileLayer.begin(mapView.getZoomLevel(), pixelX, pixelY);
+		}
+
+		for (long tileY = tileTop; tileY <= tileBottom; tileY += 1L) {
+			for (long tileX = tileLeft; tileX <= tileRight; tileX += 1L) {
+
+				// get the tile for the current x and y coordinate and its cached image
+				Tile	tile 	= new Tile(tileX, tileY, mapView.getZoomLevel());
+				Image	image	= getCachedImage(tile);
+				
+				if (tileLayer != null) {
+					tileLayer.select(tile, offSetX + tileWidth * (tileX - tileLeft), offSetY + tileHeight * (tileY - tileTop));
+				}
+				
+				visible.add(getImageJob(tile));
+
+				// only a preview or created from the children so far?
+				boolean preview = image != null && !previews.isEmpty() && previews.contains(getImageJob(tile));
+
+				// the overlay has forgotten the labels or never had them (read from the file cache)
+				// --> collect them again, without drawing the tile
+				if (image != null && labelOverlay != null && !labelOverlay.contains(tile) && createJobs && !preview) {
+					addJob(labels, tile);
+				}
+				
+				// render it in full detail, once the map stands still
+				if (preview && createJobs && !isMoving()) {
+					addJob(refines, tile);
+				}
+
+				// no image found? --> create the job and create a new image
+				if (image == null) {
+
+					// add the job only if requested, and there isn't already a
+					// job for this tile, not needed if the parent created from
+					// the children is good enough
+					if (createJobs && !(synthesize(tile) && isSynthesisFinal(tile.zoomLevel))) {
+						addJob(jobs, tile, isMoving());
+					}
+
+					// draw a replacement from the cached tiles of other zoom-levels or the empty image
+					if (!drawFallback(tile, offSetX + tileWidth * (tileX - tileLeft), offSetY + tileHeight * (tileY - tileTop))) {
+						image = emptyImage;
+					}
+				}
+
+				// draw the image if it was found
+				if (image != null) {
+					// draw it on the canvas
+					drawTile(image, tile, offSetX + tileWidth
+							* (tileX - tileLeft), offSetY + tileHeight
+							* (tileY - tileTop));
+				}
+			}
+		}
+		
+		if (tileLayer != null) {
+			tileLayer.end();
+		}
+		
+		memoryTileCache.setVisible(visible);
+		
+		// count the predicted tiles that have been reached, forget the ones that have not in time
+		if (!predictions.isEmpty()) {
+			long now = System.nanoTime();
+			
+			for (Iterator<Map.Entry<MapGeneratorJob, Long>> iterator = predictions.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<MapGeneratorJob, Long> entry = iterator.next();
+				
+				if (visible.contains(entry.getKey())) {
+					predictionHits.incrementAndGet();
+					iterator.remove();
+				} else if (now - entry.getValue() > predictionHorizon * 4000000L) {
+					iterator.remove();
+				}
+			}
+		}
+		
+		if (createJobs) {
+			// the jobs of metatiles are for their upper left tile
+			final double metatileCenter = (getJobTiles() - 1) / 2d;
+			
+			// a job drawing the tile collects its labels anyway
+			for (MapGeneratorJob job : labels) {
+				if (!jobs.contains(job)) {
+					job	.setLabelsOnly(true);
+					jobs.add(job);
+				}
+			}
+			
+			// the previews are replaced after the missing tiles have been rendered
+			Set<MapGeneratorJob> refine = new HashSet<MapGeneratorJob>();
+			for (MapGeneratorJob job : refines) {
+				if (!jobs.contains(job)) {
+					jobs	.add(job);
+					refine	.add(job);
+				}
+			}
+			
+			// prioritise the jobs by their distance to the center, queued jobs are only moved
+			Map<MapGeneratorJob, Double> priorities = new HashMap<>();
+			for (MapGeneratorJob job : jobs) {
+				priorities.put(job, JobScheduler.getPriority(
+						refine.contains(job) ? JobScheduler.CLASS_REFINE : JobScheduler.CLASS_VISIBLE,
+						job.tile.zoomLevel - mapView.getZoomLevel(),
+						job.tile.tileX + metatileCenter - tileXCenter,
+						job.tile.tileY + metatileCenter - tileYCenter
+				));
+			}
+			
+			// the tiles to render in advance, once the visible ones are done
+			Set<MapGeneratorJob> ahead = new LinkedHashSet<MapGeneratorJob>();
+			addPredictedJobs(ahead, jobs, mapView.getZoomLevel(), pixelX, pixelY);
+			
+			// while moving, only previews of the tiles ahead
+			int predicted = ahead.size();
+			if (isMoving()) {
+				for (MapGeneratorJob job : ahead) {
+					job.setPreview(true);
+				}
+			} else {
+				addPrefetchJobs(ahead, jobs, mapView.getZoomLevel());
+			}
+			
+			List<MapGeneratorJob> prefetch = new ArrayList<MapGeneratorJob>(ahead);
+			
+			final Map<MapGeneratorJob, Double> prefetchPriorities = new HashMap<>();
+			for (int i = 0; i < prefetch.size(); ++i) {
+				MapGeneratorJob	job		= prefetch.get(i);
+				double			scale	= Math.pow(2, job.tile.zoomLevel - mapView.getZoomLevel());
+				
+				prefetchPriorities.put(job, JobScheduler.getPriority(
+						i < predicted ? JobScheduler.CLASS_PREDICTED : JobScheduler.CLASS_PREFETCH,
+						job.tile.zoomLevel - mapView.getZoomLevel(),
+						job.tile.tileX + metatileCenter - (tileXCenter + .5) * scale + .5,
+						job.tile.tileY + metatileCenter - (tileYCenter + .5) * scale + .5
+				));
+			}
+			
+			// only as many as fit into the share of the memory cache, which counts the
+			// cached images, a job renders its tiles into images of imageTiles x imageTiles tiles
+			int images	= getJobTiles() / imageTiles;
+			int limit	= memoryTileCache.getPrefetchCapacity() / (images * images);
+			if (prefetch.size() > limit) {
+				Collections.sort(prefetch, new Comparator<MapGeneratorJob>() {
+					@Override
+					public int compare(MapGeneratorJob o1, MapGeneratorJob o2) {
+						return Double.compare(prefetchPriorities.get(o1), prefetchPriorities.get(o2));
+					}
+				});
+				prefetch = prefetch.subList(0, limit);
+			}
+			
+			for (MapGeneratorJob job : prefetch) {
+				priorities.put(job, prefetchPriorities.get(job));
+			}
+			
+			// the requested tiles, in front of the prefetched ones if they are the same
+			Map<MapGeneratorJob, Double> requested = getPendingRequests();
+			for (Map.Entry<MapGeneratorJob, Double> entry : requested.entrySet()) {
+				Double queued = priorities.get(entry.getKey());
+				if (queued == null || entry.getValue() < queued) {
+					priorities.put(entry.getKey(), entry.getValue());
+				}
+			}
+			
+			// the jobs in flight are not rendered again, their images are cached once they are done
+			String layout = getLayout();
+			for (Iterator<MapGeneratorJob> iterator = priorities.keySet().iterator(); iterator.hasNext();) {
+				if (inFlight.join(iterator.next(), layout, inFlightListener)) {
+					iterator.remove();
+				}
+			}
+			
+			this.prefetchJobs.clear();
+			this.prefetchJobs.addAll(prefetch);
+			
+			// the requested tiles that aren't visible are cached like the ones rendered in advance
+			for (MapGeneratorJob job : requested.keySet()) {
+				if (!jobs.contains(job)) {
+					this.prefetchJobs.add(job);
+				}
+			}
+			
+			this.jobs.update(priorities);
+			
+			// the tile of the running job has left the viewport or it is prefetched
+			// while there are visible tiles to render --> stop it, unless another map view waits for it
+			MapGeneratorJob running = currentJob;
+			if (running != null && !jobs.contains(running) && (!currentPrefetch || !jobs.isEmpty() || !prefetch.contains(running))
+					&& inFlight.getListenerCount(running, layout) <= 1 && !isRequested(running)) {
+				running.cancel();
+			}
+		}
+		
+		drawLabels(createJobs, pixelX, pixelY, offSetX, offSetY);
+	}
+	
+	/**
+	 * Adds the jobs for the {@link Tile}s the viewport will pass, if it keeps moving
+	 * with its current velocity for the prediction horizon
+	 * 
+	 * @param predicted	{@link Set} to add the jobs to
+	 * @param visible	Jobs rendering the {@link Tile}s of the viewport
+	 * @param zoom		Current zoom-level
+	 * @param pixelX	X coordinate of the upper left corner of the {@link Canvas}
+	 * @param pixelY	Y coordinate of the upper left corner of the {@link Canvas}
+	 */
+	private void addPredictedJobs (Set<MapGeneratorJob> predicted, Set<MapGeneratorJob> visible, byte zoom, double pixelX, double pixelY) {
+		long	now	= System.nanoTime();
+		double	dx	= motion.predictX(now, predictionHorizon);
+		double	dy	= motion.predictY(now, predictionHorizon);
+		
+		if (dx == 0 && dy == 0) {
+			return;
+		}
+		
+		// the area the viewport sweeps over
+		long left	= MercatorProjection.pixelXToTileX(pixelX + Math.min(0, dx), zoom);
+		long top	= MercatorProjection.pixelYToTileY(pixelY + Math.min(0, dy), zoom);
+		long right	= MercatorProjection.pixelXToTileX(pixelX + canvas.getWidth()  + Math.max(0, dx), zoom);
+		long bottom	= MercatorProjection.pixelYToTileY(pixelY + canvas.getHeight() + Math.max(0, dy), zoom);
+		
+		for (long tileY = top; tileY <= bottom; tileY += 1L) {
+			for (long tileX = left; tileX <= right; tileX += 1L) {
+				if (tileX >= tileLeft && tileX <= tileRight && tileY >= tileTop && tileY <= tileBottom) {
+					continue;
+				}
+				
+				Tile			tile	= new Tile(tileX, tileY, zoom);
+				MapGeneratorJob	image	= getImageJob(tile);
 				
-				// notify
-				synchronized (job) {
-					job.notifyAll();
+				if (!predictions.containsKey(image)) {
+					predictions.put(image, now);
+					predictedTiles.incrementAndGet();
 				}
+				
+				addPrefetchJob(predicted, visible, tile);
 			}
-		});
+		}
+	}
+	
+	/**
+	 * Adds the jobs for the {@link Tile}s in the ring around the viewport and for the
+	 * {@link Tile}s covering the viewport on the zoom-levels above and below, if they
+	 * are neither cached nor rendered for the viewport anyway
+	 * 
+	 * @param prefetch	{@link Set} to add the jobs to
+	 * @param visible	Jobs rendering the {@link Tile}s of the viewport
+	 * @param zoom		Current zoom-level
+	 */
+	private void addPrefetchJobs (Set<MapGeneratorJob> prefetch, Set<MapGeneratorJob> visible, byte zoom) {
+		long max = (1L << zoom) - 1;
+		
+		for (long tileY = Math.max(0, tileTop - prefetchRing); tileY <= Math.min(max, tileBottom + prefetchRing); tileY += 1L) {
+			for (long tileX = Math.max(0, tileLeft - prefetchRing); tileX <= Math.min(max, tileRight + prefetchRing); tileX += 1L) {
+				if (tileX < tileLeft || tileX > tileRight || tileY < tileTop || tileY > tileBottom) {
+					addPrefetchJob(prefetch, visible, new Tile(tileX, tileY, zoom));
+				}
+			}
+		}
+		
+		if (!prefetchZoom) {
+			return;
+		}
+		
+		// the parents
+		if (zoom > 0) {
+			for (long tileY = tileTop / 2; tileY <= tileBottom / 2; tileY += 1L) {
+				for (long tileX = tileLeft / 2; tileX <= tileRight / 2; tileX += 1L) {
+					addPrefetchJob(prefetch, visible, new Tile(tileX, tileY, (byte) (zoom - 1)));
+				}
+			}
+		}
+		
+		// the children
+		if (zoom < databaseRenderer.getZoomLevelMax()) {
+			for (long tileY = tileTop * 2; tileY <= tileBottom * 2 + 1; tileY += 1L) {
+				for (long tileX = tileLeft * 2; tileX <= tileRight * 2 + 1; tileX += 1L) {
+					addPrefetchJob(prefetch, visible, new Tile(tileX, tileY, (byte) (zoom + 1)));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds the job rendering the given {@link Tile} in advance, if needed
+	 * 
+	 * @param prefetch	{@link Set} to add the job to
+	 * @param visible	Jobs rendering the {@link Tile}s of the viewport
+	 * @param tile		{@link Tile} to render in advance
+	 */
+	private void addPrefetchJob (Set<MapGeneratorJob> prefetch, Set<MapGeneratorJob> visible, Tile tile) {
+		MapGeneratorJob image = getImageJob(tile);
+		
+		// already cached, without loading it from the file, the file cache remembers its answer
+		if (memoryTileCache.containsKey(image) || (memoryTileCache.useFileTileCacheProperty().get() && fileCache.containsKey(image))) {
+			return;
+		}
+		
+		MapGeneratorJob job = new MapGeneratorJob(getFirstTile(tile, getJobTiles()), mapFile, jobParameters, debugSettings);
+		
+		if (!visible.contains(job) && !prefetch.contains(job)) {
+			prefetch.add(job);
+		}
+	}
+	
+	/**
+	 * Draws the labels on the label {@link Canvas}, they are only placed again
+	 * if the map has settled, otherwise the already placed labels are moved
+	 * 
+	 * @param place		Whether to place the labels again
+	 * @param pixelX	X coordinate of the upper left corner of the {@link Canvas}
+	 * @param pixelY	Y coordinate of the upper left corner of the {@link Canvas}
+	 * @param offSetX	X position of the left most tile on the {@link Canvas}
+	 * @param offSetY	Y position of the top most tile on the {@link Canvas}
+	 */
+	private void drawLabels (boolean place, double pixelX, double pixelY, int offSetX, int offSetY) {
+		if (labelOverlay == null) {
+			return;
+		}
+		
+		if (place || labelZoom != mapView.getZoomLevel()) {
+			labelOverlay.draw(labelCanvas, mapView.getZoomLevel(), tileLeft, tileTop, tileRight, tileBottom, offSetX, offSetY);
+			
+			labelPixelX	= pixelX;
+			labelPixelY	= pixelY;
+			labelZoom	= mapView.getZoomLevel();
+		}
+		
+		labelCanvas.setTranslateX(labelPixelX - pixelX);
+		labelCanvas.setTranslateY(labelPixelY - pixelY);
+	}
+
+	/**
+	 * @return The {@link DoubleProperty} containing the current x offset
+	 */
+	public ReadOnlyDoubleProperty offsetXProperty() {
+		return offsetX;
+	}
+
+	/**
+	 * @return The {@link DoubleProperty} containing the current y offset
+	 */
+	public ReadOnlyDoubleProperty offsetYProperty() {
+		return offsetY;
+	}
+
+	/**
+	 * @return The {@link TileCache} that caches everything in the memory
+	 */
+	public MemoryTileCache getMemoryTileCache() {
+		return memoryTileCache;
+	}
+
+	/**
+	 * @return The {@link TileCache} that caches everything in a file / files
+	 */
+	public FileTileCache getFileTileCache() {
+		return fileCache;
+	}
+	
+	/**
+	 * @return The {@link DebugSettings} for the rendering
+	 */
+	public DebugSettings getDebugSettings () {
+		return debugSettings;
+	}
+	
+	/**
+	 * @return Whether the drawing of {@link Tile}s is currently paused
+	 */
+	public synchronized boolean isPaused () {
+		return pauseTileDrawing;
+	}
+	
+	/**
+	 * @param pause Whether to pause the drawing of {@link Tile}s
+	 */
+	public synchronized void setPaused (boolean pause) {
+		this.pauseTileDrawing = pause;
+	}
+	
+	/**
+	 * @return The number of jobs that have been rendered completely
+	 */
+	public long getRenderedJobCount () {
+		return renderedJobs.get();
+	}
+	
+	/**
+	 * @return The time in milliseconds spent on jobs that have been rendered completely
+	 */
+	public long getRenderTime () {
+		return renderNanos.get() / 1000000;
+	}
+	
+	/**
+	 * @return The number of jobs that have been cancelled, because their {@link Tile}s have left the viewport
+	 */
+	public long getCancelledJobCount () {
+		return cancelledJobs.get();
+	}
+	
+	/**
+	 * @return The time in milliseconds spent on jobs, before they have been cancelled
+	 */
+	public long getWastedRenderTime () {
+		return wastedNanos.get() / 1000000;
+	}
+	
+	/**
+	 * @return The estimated memory in bytes used by the labels and symbols that cross tile borders
+	 */
+	public long getDependencyMemorySize () {
+		return databaseRenderer.getDependencyTable().getMemorySize();
+	}
+	
+	/**
+	 * @return The number of requests for jobs, that have been merged into the ones in flight
+	 */
+	public long getMergedJobCount () {
+		return inFlight.getMergedCount();
+	}
+	
+	/**
+	 * @return The number of {@link Tile}s, that a moving viewport has been expected to reach
+	 */
+	public long getPredictedTileCount () {
+		return predictedTiles.get();
+	}
+	
+	/**
+	 * @return The number of predicted {@link Tile}s, that the viewport has actually reached
+	 */
+	public long getPredictionHitCount () {
+		return predictionHits.get();
+	}
+	
+	/**
+	 * @return The share of the predicted {@link Tile}s, that the viewport has actually reached
+	 */
+	public double getPredictionHitRate () {
+		long predicted = predictedTiles.get();
+		return predicted > 0 ? predictionHits.get() / (double) predicted : 0;
+	}
+	
+	/**
+	 * @return The average time in milliseconds from starting a job until its {@link Tile}s could be seen
+	 */
+	public double getAverageFirstPixelTime () {
+		long published = publishedJobs.get();
+		return published > 0 ? firstPixelNanos.get() / 1000000d / published : 0;
+	}
+	
+	/**
+	 * @return The average time in milliseconds from starting a job until its {@link Tile}s were complete
+	 */
+	public double getAverageCompleteTime () {
+		long published = publishedJobs.get();
+		return published > 0 ? completeNanos.get() / 1000000d / published : 0;
+	}
+	
+	/**
+	 * Destroys this instance and the {@link TileCache}s
+	 */
+	public void destroy () {
+		synchronized (this) {
+			// return if already is destroyed
+			if (isDestroyed()) {
+				return;
+			}
+			
+			// set destroyed
+			isDestroyed = true;
+		}
+		
+		
+		// stop redrawing
+		setPaused(true);
+		redrawTimer.stop();
+		
+		// the requested tiles won't be rendered anymore
+		synchronized (requests) {
+			for (Map<Tile, CompletableFuture<FXBitmap>> futures : requests.values()) {
+				for (CompletableFuture<FXBitmap> future : futures.values()) {
+					future.completeExceptionally(new IllegalStateException("Destroyed"));
+				}
+			}
+			requests			.clear();
+			requestPriorities	.clear();
+		}
+		
+		// destroy the cashes / free the memory
+		fileCache		.destroy();
+		memoryTileCache	.destroy();
+	}
+	
+	/**
+	 * @return Whether this instance has been destroyed
+	 */
+	public synchronized boolean isDestroyed () {
+		return isDestroyed;
+	}
+	
+
+	/**
+	 * Just executes the given {@link MapGeneratorJob}
+	 * 
+	 * @param job {@link MapGeneratorJob} to execute
+	 */
+	private void executeJob(final MapGeneratorJob job) {
+		final int		size		= getMetatileSize();
+		final int		tiles		= size * imageTiles;
+		final int		imageSize	= Math.round(imageTiles * Tile.TILE_SIZE * deviceScale);
+		final String	layout		= getLayout();
+		
+		// only the labels for the overlay, there is nothing to cache
+		if (job.isLabelsOnly()) {
+			if (databaseRenderer.executeJob(job, tiles, null)) {
+				requestRedraw(true);
+			}
+			return;
+		}
+		
+		// already rendered by another map view --> its image is cached once it is done
+		if (!inFlight.start(job, layout, inFlightListener)) {
+			return;
+		}
+		
+		final long			start		= System.nanoTime();
+		final AtomicLong	firstPixel	= new AtomicLong();
+		boolean				published	= false;
+		
+		try {
+			// create the canvas to draw on
+			final Canvas canvas = new Canvas(imageSize * size, imageSize * size);
+			
+			currentJob		= job;
+			currentPrefetch	= prefetchJobs.contains(job);
+			
+			// show the areas and ways while the labels and symbols are drawn, a preview has none
+			Runnable waysDrawn = null;
+			
+			if (progressive && !job.isPreview()) {
+				waysDrawn = new Runnable() {
+					@Override
+					public void run() {
+						firstPixel.set(publishWays(job, size, imageSize, canvas));
+					}
+				};
+			}
+			
+			// queue all the data that needs to be drawn
+			boolean rendered = databaseRenderer.executeJob(job, tiles, canvas, waysDrawn);
+			long	duration = System.nanoTime() - start;
+			
+			// cancelled before it was rendered completely --> nothing to cache
+			if (!rendered && job.isCancelled()) {
+				cancelledJobs	.incrementAndGet();
+				wastedNanos		.addAndGet(duration);
+				return;
+			}
+			
+			renderedJobs	.incrementAndGet();
+			renderNanos		.addAndGet(duration);
+			
+			// cache the tile
+			Platform.runLater(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						// add it to the caches of all map views waiting for it
+						inFlight.complete(job, layout, new FXBitmap(canvas.snapshot(null, null)));
+						
+						// the time until the tile could be seen and until it was complete
+						long now = System.nanoTime();
+						publishedJobs	.incrementAndGet();
+						completeNanos	.addAndGet(now - start);
+						firstPixelNanos	.addAndGet((firstPixel.get() != 0 ? firstPixel.get() : now) - start);
+						
+					} catch (RuntimeException e) {
+						logger.error("Couldn't take the snapshot of "+job.tile, e);
+						failRequests(job, e);
+						
+						// the others must not wait for it forever
+						inFlight.complete(job, layout, null);
+						
+					} finally {
+						// notify
+						synchronized (job) {
+							job.notifyAll();
+						}
+					}
+				}
+			});
+			published = true;
+			
+		} catch (RuntimeException e) {
+			// the requests would fail again --> complete them
+			logger.error("Couldn't render "+job.tile, e);
+			failRequests(job, e);
+			return;
+			
+		} finally {
+			currentJob = null;
+			
+			// cancelled or failed --> the map views waiting for it render it again
+			if (!published) {
+				inFlight.complete(job, layout, null);
+			}
+		}
 
 		// block until it has been painted
 		synchronized (job) {
@@ -520,9 +1956,115 @@ public class ExecuteMapforge {
 
 	}
 
+	/**
+	 * Adds the rendered image of the given job to the cache, if it has been
+	 * rendered with the metatile and image size of this instance
+	 * 
+	 * @param job	{@link MapGeneratorJob} that has been rendered
+	 * @param image	Rendered image of the whole job
+	 * @return Whether the image has been rendered with the sizes of this instance
+	 */
+	private boolean cacheJob (MapGeneratorJob job, Image image) {
+		int size		= getMetatileSize();
+		int imageSize	= Math.round(imageTiles * Tile.TILE_SIZE * deviceScale);
+		
+		if (image.getWidth() != imageSize * size) {
+			return false;
+		}
+		
+		// still not needed for the viewport?
+		boolean prefetch = prefetchJobs.contains(job);
+		
+		if (size == 1) {
+			cacheImage(job, image, prefetch);
+		} else {
+			cacheMetatile(job, size, imageSize, image, prefetch);
+		}
+		return true;
+	}
+	
+	/**
+	 * Adds a snapshot of the given {@link Canvas} to the cache as a preview of the
+	 * given job, and blocks until it has been taken, as the job goes on drawing on it
+	 * 
+	 * @param job		{@link MapGeneratorJob} that is rendered
+	 * @param size		Number of images in each direction of the metatile
+	 * @param imageSize	Width and height in pixels of an image
+	 * @param canvas	{@link Canvas} with the areas and ways of the job
+	 * @return The time in nanoseconds the preview has been cached, like {@link System#nanoTime()}
+	 */
+	private long publishWays (MapGeneratorJob job, final int size, final int imageSize, final Canvas canvas) {
+		final MapGeneratorJob	preview	= new MapGeneratorJob(job.tile, mapFile, job.jobParameters, job.debugSettings);
+		final CountDownLatch	taken	= new CountDownLatch(1);
+		final AtomicLong		time	= new AtomicLong();
+		
+		preview.setPreview(true);
+		
+		Platform.runLater(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					boolean prefetch = prefetchJobs.contains(preview);
+					
+					if (size == 1) {
+						cacheImage(preview, canvas.snapshot(null, null), prefetch);
+					} else {
+						cacheMetatile(preview, size, imageSize, canvas.snapshot(null, null), prefetch);
+					}
+					requestRedraw(false);
+					time.set(System.nanoTime());
+					
+				} finally {
+					taken.countDown();
+				}
+			}
+		});
+		
+		try {
+			taken.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return time.get();
+	}
+
+	/**
+	 * Slices the given image of a metatile into its images and adds them to the cache
+	 * 
+	 * @param job		{@link MapGeneratorJob} of the upper left {@link Tile}
+	 * @param size		Number of images in each direction of the metatile
+	 * @param imageSize	Width and height in pixels of an image
+	 * @param image		Rendered image of the whole metatile
+	 * @param prefetch	Whether the metatile has been rendered in advance
+	 */
+	private void cacheMetatile (MapGeneratorJob job, int size, int imageSize, Image image, boolean prefetch) {
+		PixelReader	reader	= image.getPixelReader();
+		long		max		= (1L << job.tile.zoomLevel) - 1;
+		
+		for (int row = 0; row < size; ++row) {
+			for (int column = 0; column < size; ++column) {
+				long tileX = job.tile.tileX + column * imageTiles;
+				long tileY = job.tile.tileY + row * imageTiles;
+				
+				// the metatile reaches beyond the border of the world
+				if (tileX > max || tileY > max) {
+					continue;
+				}
+				
+				Tile			tile	= new Tile(tileX, tileY, job.tile.zoomLevel);
+				WritableImage	slice	= new WritableImage(reader, column * imageSize, row * imageSize, imageSize, imageSize);
+				
+				MapGeneratorJob sliceJob = new MapGeneratorJob(tile, mapFile, job.jobParameters, job.debugSettings);
+				sliceJob.setPreview(job.isPreview());
+				
+				cacheImage(sliceJob, slice, prefetch);
+			}
+		}
+	}
+
 	/**
 	 * Creates {@link Runnable}s for all available jobs, this will empty the
-	 * job-{@link Queue} but without filling the {@link TileCache} at the same
+	 * {@link JobScheduler} but without filling the {@link TileCache} at the same
 	 * time! The {@link TileCache} will be filled, if the
 	 * {@link MapGeneratorJob} was executed, be sure you don't add
 	 * {@link MapGeneratorJob} for the same {@link Tile}s in the meantime!
@@ -22,7 +22,9 @@ import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Queue;
 
 import javafx.beans.property.IntegerProperty;
@@ -42,13 +44,28 @@ public class FileTileCache implements TileCache {
 	
 	public static final String FILE_ENDING	= ".tile";
 	
+	/** The number of file names to remember whether they exist */
+	private static final int KNOWN_CAPACITY	= 4096;
+	
 	private String	directory;
 	private boolean keepRunning;
+	private int		imageTiles	= 1;
+	private float	scale		= 1;
 	
 	private Runnable completeListener;
 	private Queue<FileTileCacheEntry>	toWrite = new LinkedList<>();
 	private Queue<FileTileCacheEntry>	toRead	= new LinkedList<>();
 	
+	// whether the files exist, so the disk is not asked for them on each redraw
+	private final Map<String, Boolean>	known	= new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+			return size() > KNOWN_CAPACITY;
+		}
+	};
+	
 	private Logger			logger		= null;
 	private IntegerProperty	capacity	= new SimpleIntegerProperty(Integer.MAX_VALUE);
 	private IntegerProperty load		= new SimpleIntegerProperty(0);
@@ -128,11 +145,12 @@ public class FileTileCache implements TileCache {
 					
 					// set the variables
 					job = entry.getMapGeneratorJob();
-					dst = getFile(job.tile);
+					dst = getFile(job);
 					fos = new FileOutputStream(dst);
 					
 					// write
 					entry.write(fos);
+					setKnown(dst.getName(), true);
 					
 				} catch (Throwable t) {
 					logger.error("Couldn't read tile from frile", t);
@@ -176,7 +194,7 @@ public class FileTileCache implements TileCache {
 				
 				try {
 					job = entry.getMapGeneratorJob();
-					src = getFile(job.tile);
+					src = getFile(job);
 					fis = new FileInputStream(src);
 					
 					// read the image
@@ -204,6 +222,40 @@ public class FileTileCache implements TileCache {
 		}
 	}
 	
+	/**
+	 * @return The width and height in pixels of the cached {@link Image}s
+	 */
+	public synchronized int getImageSize () {
+		return Math.round(imageTiles * Tile.TILE_SIZE * scale);
+	}
+	
+	/**
+	 * @return The number of {@link Tile}s in each direction of the cached {@link Image}s
+	 */
+	public synchronized int getImageTiles () {
+		return imageTiles;
+	}
+	
+	/**
+	 * @return The device scale the cached {@link Image}s have been rendered with
+	 */
+	public synchronized float getScale () {
+		return scale;
+	}
+	
+	/**
+	 * Sets the number of {@link Tile}s in each direction and the device scale of
+	 * the cached {@link Image}s, the {@link Image}s of each layout are stored in
+	 * their own files, even if they have the same size in pixels
+	 * 
+	 * @param imageTiles	Number of {@link Tile}s in each direction
+	 * @param scale			Device scale
+	 */
+	public synchronized void setImageLayout (int imageTiles, float scale) {
+		this.imageTiles	= imageTiles;
+		this.scale		= scale;
+	}
+	
 	/**
 	 * The {@link Runnable} to execute (from different {@link Thread}s)
 	 * if an {@link Image} has been completely loaded
@@ -216,7 +268,58 @@ public class FileTileCache implements TileCache {
 
 	@Override
 	public boolean containsKey(MapGeneratorJob mapGeneratorJob) {
-		return getFile(mapGeneratorJob.tile).exists();
+		return exists(mapGeneratorJob) || isPending(mapGeneratorJob);
+	}
+	
+	/**
+	 * @param job {@link MapGeneratorJob} to check
+	 * @return Whether the {@link File} of the given job exists, the disk is only
+	 *         asked once for each file name while it is remembered
+	 */
+	private boolean exists (MapGeneratorJob job) {
+		String name = getFileName(job);
+		
+		synchronized (known) {
+			Boolean exists = known.get(name);
+			if (exists != null) {
+				return exists;
+			}
+		}
+		
+		boolean exists = new File(directory, name).exists();
+		
+		synchronized (known) {
+			// the writer might have written it in the meantime
+			if (!known.containsKey(name)) {
+				known.put(name, exists);
+			}
+		}
+		return exists;
+	}
+	
+	/**
+	 * @param name		Name of the {@link File}
+	 * @param exists	Whether the {@link File} exists
+	 */
+	private void setKnown (String name, boolean exists) {
+		synchronized (known) {
+			known.put(name, exists);
+		}
+	}
+	
+	/**
+	 * @param job {@link MapGeneratorJob} to check
+	 * @return Whether the {@link Image} of the given job is waiting to be written
+	 */
+	private boolean isPending (MapGeneratorJob job) {
+		synchronized (toWrite) {
+			for (FileTileCacheEntry entry : toWrite) {
+				if (entry != null && job.equals(entry.getMapGeneratorJob())) {
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 
 	@Override
@@ -242,6 +345,10 @@ public class FileTileCache implements TileCache {
 		// delete all files in the directory that ends with .tile
 		File dir = new File(directory);
 		
+		synchronized (known) {
+			known.clear();
+		}
+		
 		if (dir.exists() && dir.isDirectory()) {
 			for (File file : dir.listFiles()) {
 				if (file.getAbsolutePath().endsWith(FILE_ENDING)) {
@@ -253,7 +360,7 @@ public class FileTileCache implements TileCache {
 	
 	private FileTileCacheEntry getEntry (MapGeneratorJob job) {
 		// create a new one
-		FileTileCacheEntry entryNew = new FileTileCacheEntry(job);
+		FileTileCacheEntry entryNew = new FileTileCacheEntry(job, getImageSize());
 		
 		// check whether there is already a entry
 		synchronized (toWrite) {
@@ -295,6 +402,42 @@ public class FileTileCache implements TileCache {
 		return null;
 	}
 	
+	/**
+	 * Reads the {@link Image} of the given {@link MapGeneratorJob} on the calling
+	 * {@link Thread}, unlike {@link #get(MapGeneratorJob)} it is complete once returned
+	 * 
+	 * @param mapGeneratorJob {@link MapGeneratorJob} of the {@link Image}
+	 * @return The {@link Image} or null if it isn't cached or couldn't be read
+	 */
+	public FXBitmap read (MapGeneratorJob mapGeneratorJob) {
+		if (!containsKey(mapGeneratorJob)) {
+			return null;
+		}
+		
+		FileTileCacheEntry	entry	= getEntry(mapGeneratorJob);
+		Image				image	= entry.getImage();
+		
+		// still waiting to be written --> it is the rendered image
+		if (!entry.isWritten()) {
+			return new FXBitmap(image);
+		}
+		
+		FileInputStream fis = null;
+		
+		try {
+			fis = new FileInputStream(getFile(mapGeneratorJob));
+			entry.read(fis);
+			return new FXBitmap(image);
+			
+		} catch (Throwable t) {
+			logger.error("Couldn't read tile from file", t);
+			return null;
+			
+		} finally {
+			try { fis.close(); } catch (Throwable t) {}
+		}
+	}
+	
 	/**
 	 * @return The current load, including the pending write requests
 	 */
@@ -317,19 +460,34 @@ public class FileTileCache implements TileCache {
 	}
 	
 	/**
-	 * @param tile {@link Tile} to get the {@link File} for
-	 * @return The {@link File} for the given {@link Tile}
+	 * @param job {@link MapGeneratorJob} to get the {@link File} for
+	 * @return The {@link File} for the given {@link MapGeneratorJob}
 	 */
-	private File getFile (Tile tile) {
-		return new File(directory, getFileName(tile));
+	private File getFile (MapGeneratorJob job) {
+		return new File(directory, getFileName(job));
 	}
 	
 	/**
-	 * @param tile {@link Tile} to get the filename for
-	 * @return The filename for the given {@link Tile}
+	 * @param job {@link MapGeneratorJob} to get the filename for
+	 * @return The filename for the given {@link MapGeneratorJob}, the tiles
+	 *         of each layout and the ones without labels are stored apart
 	 */
-	private String getFileName (Tile tile) {
-		return ("x="+tile.tileX+",y="+tile.tileY+",z="+((int)tile.zoomLevel)) + FILE_ENDING;
+	private String getFileName (MapGeneratorJob job) {
+		Tile	tile		= job.tile;
+		int		imageTiles	= getImageTiles();
+		float	scale		= getScale();
+		String	name		= "x="+tile.tileX+",y="+tile.tileY+",z="+((int)tile.zoomLevel);
+		
+		if (imageTiles != 1) {
+			name += ",t="+imageTiles;
+		}
+		if (scale != 1) {
+			name += ",d="+scale;
+		}
+		if (job.jobParameters != null && job.jobParameters.overlayLabels) {
+			name += ",l=0";
+		}
+		return name + FILE_ENDING;
 	}
 
 	@Override
@@ -412,7 +570,11 @@ public class FileTileCache implements TileCache {
 		}
 		
 		// remove the oldest if found
-		return (oldestFile != null && oldestFile.delete());
+		if (oldestFile != null && oldestFile.delete()) {
+			setKnown(oldestFile.getName(), false);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -38,6 +38,7 @@ public class FileTileCacheEntry {
 
 	private Image			image;
 	private MapGeneratorJob	job;
+	private int				size	= Tile.TILE_SIZE;
 
 	private boolean			alive;
 	private boolean			written;
@@ -48,6 +49,15 @@ public class FileTileCacheEntry {
 		this.written	= true;
 	}
 	
+	/**
+	 * @param job	{@link MapGeneratorJob} of the {@link Image} to read
+	 * @param size	Width and height in pixels of the {@link Image} to read
+	 */
+	public FileTileCacheEntry(MapGeneratorJob job, int size) {
+		this(job);
+		this.size		= size;
+	}
+	
 	public FileTileCacheEntry(MapGeneratorJob job, Image image) {
 		this.job		= job;
 		this.image		= image;
@@ -75,7 +85,7 @@ public class FileTileCacheEntry {
 	public synchronized Image getImage () {
 		if (image == null) {
 			// new writable image
-			image		= new WritableImage(Tile.TILE_SIZE, Tile.TILE_SIZE);
+			image		= new WritableImage(size, size);
 
 			// write a dummy value to the image
 			for (int y = 0; y < image.getHeight(); y++) {
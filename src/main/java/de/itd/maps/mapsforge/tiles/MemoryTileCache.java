@@ -17,8 +17,11 @@
 
 package de.itd.maps.mapsforge.tiles;
  
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.Set;
 
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
@@ -43,6 +46,11 @@ import de.itd.mapsforge.javafx.maps.mapgenerator.TileCache;
  */
 public class MemoryTileCache implements TileCache {
 	
+	/**
+	 * The default share of the capacity that prefetched {@link Image}s may use
+	 */
+	public static final double DEFAULT_PREFETCH_SHARE = .25;
+	
 	private IntegerProperty	load			= new SimpleIntegerProperty();
 	private IntegerProperty	capacity		= new SimpleIntegerProperty();
 	private BooleanProperty useFileCache	= new SimpleBooleanProperty(true);
@@ -55,6 +63,12 @@ public class MemoryTileCache implements TileCache {
 	
 	private FileTileCache	fileCache	= null;
 	
+	// the images rendered in advance and the ones they must not replace
+	private Set<MapGeneratorJob>	prefetched		= new HashSet<MapGeneratorJob>();
+	private Set<MapGeneratorJob>	previews		= new HashSet<MapGeneratorJob>();
+	private Set<MapGeneratorJob>	visible			= Collections.emptySet();
+	private double					prefetchShare	= DEFAULT_PREFETCH_SHARE;
+	
 	/**
 	 * Initializes this {@link TileCache} with a capacity of 0
 	 */
@@ -123,8 +137,10 @@ public class MemoryTileCache implements TileCache {
  
 	@Override
 	public synchronized void destroy() {
-		images	.clear();
-		queue	.clear();
+		images		.clear();
+		queue		.clear();
+		prefetched	.clear();
+		previews	.clear();
 	}
  
 	@Override
@@ -133,6 +149,9 @@ public class MemoryTileCache implements TileCache {
 		queue.remove(job);
 		queue.add	(job);		
 		
+		// has been requested --> no longer in advance
+		prefetched.remove(job);
+		
 		// just return the value
 		return new FXBitmap(images.get(job));
 	}
@@ -184,23 +203,118 @@ public class MemoryTileCache implements TileCache {
 		// remove them
 		for (int i = 0; i < toRemove; i++) {
 			
-			MapGeneratorJob job		= queue.poll();
-			Image			image	= images.remove(job);
+			evict(queue.poll());
+		}
+	}
+	
+	/**
+	 * Removes the {@link Image} of the given {@link MapGeneratorJob} from the cache
+	 * and adds it to the {@link FileTileCache}, if available
+	 * 
+	 * @param job {@link MapGeneratorJob} to remove
+	 */
+	private void evict (MapGeneratorJob job) {
+		Image	image	= images.remove(job);
+		boolean	preview	= previews.remove(job);
+		prefetched.remove(job);
+		
+		// add it to the file-cache if available, but not a preview
+		if (fileCache != null && image != null && useFileCache.get() && !preview) {
+			fileCache.put(job, new FXBitmap(image));
+		}
+	}
+	
+	/**
+	 * Removes all entries
+	 */
+	public void clear () {
+		queue		.clear();
+		images		.clear();
+		prefetched	.clear();
+		previews	.clear();
+	}
+	
+	/**
+	 * Marks the cached {@link Image} of the given {@link MapGeneratorJob} as a preview,
+	 * that is not added to the {@link FileTileCache} until it has been replaced
+	 * 
+	 * @param job {@link MapGeneratorJob} of the {@link Image}
+	 */
+	public synchronized void setPreview (MapGeneratorJob job) {
+		if (images.containsKey(job)) {
+			previews.add(job);
+		}
+	}
+	
+	/**
+	 * @param share The share of the capacity that prefetched {@link Image}s may use, between zero and one
+	 */
+	public synchronized void setPrefetchShare (double share) {
+		this.prefetchShare = Math.max(0, Math.min(1, share));
+	}
+	
+	/**
+	 * @return The number of prefetched {@link Image}s that may be in the cache
+	 */
+	public synchronized int getPrefetchCapacity () {
+		return Math.max(0, Math.min((int)(getCapacity() * prefetchShare), getCapacity() - visible.size()));
+	}
+	
+	/**
+	 * @param visible {@link MapGeneratorJob}s of the {@link Image}s that are shown and must not be replaced by prefetched ones
+	 */
+	public synchronized void setVisible (Set<MapGeneratorJob> visible) {
+		this.visible = visible;
+	}
+	
+	/**
+	 * Adds an {@link Image} that has been rendered in advance. It replaces the oldest prefetched
+	 * {@link Image} if they have used up their share, otherwise the oldest one that isn't visible.
+	 * 
+	 * @param mapGeneratorJob	{@link MapGeneratorJob} of the {@link Image}
+	 * @param bitmap			Prefetched {@link Image}
+	 * @return Whether the {@link Image} has been added
+	 */
+	public synchronized boolean putPrefetched (MapGeneratorJob mapGeneratorJob, Bitmap bitmap) {
+		if (images.containsKey(mapGeneratorJob)) {
+			// replace a preview in place
+			if (previews.remove(mapGeneratorJob)) {
+				images.put(mapGeneratorJob, ((FXBitmap)bitmap).image);
+			}
+			return true;
+		}
+		
+		if (prefetched.size() >= getPrefetchCapacity() || images.size() >= getCapacity()) {
+			MapGeneratorJob replace = null;
+			boolean			share	= prefetched.size() >= getPrefetchCapacity();
 			
+			// the oldest one that may be replaced
+			for (MapGeneratorJob job : queue) {
+				if (share ? prefetched.contains(job) : !visible.contains(job)) {
+					replace = job;
+					break;
+				}
+			}
 			
-			// add it to the file-cache if available
-			if (fileCache != null && image != null && useFileCache.get()) {
-				fileCache.put(job, new FXBitmap(image));
+			if (replace == null) {
+				return false;
 			}
+			
+			queue.remove(replace);
+			evict(replace);
 		}
+		
+		queue		.add(mapGeneratorJob);
+		prefetched	.add(mapGeneratorJob);
+		images		.put(mapGeneratorJob, ((FXBitmap)bitmap).image);
+		return true;
 	}
 	
 	/**
-	 * Removes all entries
+	 * @return The number of prefetched {@link Image}s, that haven't been requested yet
 	 */
-	public void clear () {
-		queue	.clear();
-		images	.clear();
+	public synchronized int getPrefetchedCount () {
+		return prefetched.size();
 	}
 	
 	/**
@@ -230,6 +344,8 @@ public class MemoryTileCache implements TileCache {
 		
 		// do not have a job listed twice
 		queue.remove(mapGeneratorJob);
+		prefetched.remove(mapGeneratorJob);
+		previews.remove(mapGeneratorJob);
 		
 		// put the new one in the cache
 		queue .add(mapGeneratorJob);
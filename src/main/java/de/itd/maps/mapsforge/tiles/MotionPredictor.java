@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.maps.mapsforge.tiles;
+
+/**
+ * Estimates the velocity of the viewport from its positions, for example
+ * while the map is dragged or follows a moving item, to know where the
+ * viewport will be in the near future. The velocity is smoothed over the
+ * samples, fades out with the time since the last sample and is forgotten,
+ * if there has been no sample for a while or the viewport has been released.
+ */
+public class MotionPredictor {
+	
+	// samples closer than this are merged, samples further apart mean a stop (nanoseconds)
+	private static final long	MIN_INTERVAL	=   10000000L;
+	private static final long	MAX_INTERVAL	= 2000000000L;
+	
+	// the weight of a new sample for the smoothed velocity
+	private static final double	SMOOTHING		= .5;
+	
+	// the time for the velocity to fade to 1/e without a new sample (nanoseconds)
+	private static final double	DECAY			= 250000000d;
+	
+	private double	lastX;
+	private double	lastY;
+	private long	lastTime;
+	private byte	zoomLevel	= -1;
+	
+	// pixels per second
+	private double	velocityX;
+	private double	velocityY;
+	
+	/**
+	 * Adds the position of the viewport
+	 * 
+	 * @param x			X coordinate in pixels of the viewport
+	 * @param y			Y coordinate in pixels of the viewport
+	 * @param zoomLevel	Zoom-level of the coordinates
+	 * @param time		Time of the position in nanoseconds, like {@link System#nanoTime()}
+	 */
+	public synchronized void sample (double x, double y, byte zoomLevel, long time) {
+		long interval = time - lastTime;
+		
+		// the coordinates are not comparable or it has been standing still --> start over
+		if (zoomLevel != this.zoomLevel || interval > MAX_INTERVAL) {
+			this.velocityX	= 0;
+			this.velocityY	= 0;
+			
+		} else if (interval < MIN_INTERVAL) {
+			// too close to get a velocity, wait for the next one
+			return;
+			
+		} else {
+			double seconds	= interval / 1000000000d;
+			double decay	= getDecay(time);
+			
+			this.velocityX = velocityX * decay * (1 - SMOOTHING) + (x - lastX) / seconds * SMOOTHING;
+			this.velocityY = velocityY * decay * (1 - SMOOTHING) + (y - lastY) / seconds * SMOOTHING;
+		}
+		
+		this.lastX		= x;
+		this.lastY		= y;
+		this.lastTime	= time;
+		this.zoomLevel	= zoomLevel;
+	}
+	
+	/**
+	 * Forgets the velocity, for example when the viewport has been released
+	 * and will not move any further
+	 */
+	public synchronized void reset () {
+		this.velocityX	= 0;
+		this.velocityY	= 0;
+	}
+	
+	/**
+	 * @param time	Current time in nanoseconds, like {@link System#nanoTime()}
+	 * @return The share of the velocity that is left, after the time since the last sample
+	 */
+	private double getDecay (long time) {
+		return Math.exp(-Math.max(0, time - lastTime) / DECAY);
+	}
+	
+	/**
+	 * @param time	Current time in nanoseconds, like {@link System#nanoTime()}
+	 * @return Whether the viewport is moving
+	 */
+	public synchronized boolean isMoving (long time) {
+		return time - lastTime <= MAX_INTERVAL && (velocityX != 0 || velocityY != 0);
+	}
+	
+	/**
+	 * @param time		Current time in nanoseconds, like {@link System#nanoTime()}
+	 * @param horizon	Milliseconds to look ahead
+	 * @return The distance in pixels the viewport will move horizontally in the given time
+	 */
+	public synchronized double predictX (long time, long horizon) {
+		return isMoving(time) ? velocityX * getDecay(time) * horizon / 1000d : 0;
+	}
+	
+	/**
+	 * @param time		Current time in nanoseconds, like {@link System#nanoTime()}
+	 * @param horizon	Milliseconds to look ahead
+	 * @return The distance in pixels the viewport will move vertically in the given time
+	 */
+	public synchronized double predictY (long time, long horizon) {
+		return isMoving(time) ? velocityY * getDecay(time) * horizon / 1000d : 0;
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.maps.mapsforge.tiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+
+import org.mapsforge.core.model.Tile;
+
+/**
+ * Alternative to drawing the {@link Tile}s on a {@link javafx.scene.canvas.Canvas}, each
+ * {@link Tile} is shown by {@link ImageView}s in a {@link Group}, that is only moved while
+ * panning. The {@link ImageView}s of a {@link Tile} are only replaced, if it is drawn
+ * differently, and removed if it has left the viewport.
+ */
+public class TileLayer extends Pane {
+	
+	private Group					content	= new Group();
+	private Map<Tile, Slot>			slots	= new HashMap<>();
+	
+	// the tile at the origin of the content, moved on a new zoom-level
+	private long					originX;
+	private long					originY;
+	private byte					zoom	= -1;
+	
+	// the tile that is currently drawn and its position on the viewport
+	private Slot					slot;
+	private double					slotX;
+	private double					slotY;
+	
+	public TileLayer () {
+		getChildren().add(content);
+		setMouseTransparent(true);
+	}
+	
+	/**
+	 * Starts a redraw, {@link Tile}s that aren't selected until {@link #end()} are removed
+	 * 
+	 * @param zoom		Current zoom-level
+	 * @param pixelX	X coordinate of the upper left corner of the viewport
+	 * @param pixelY	Y coordinate of the upper left corner of the viewport
+	 */
+	public void begin (byte zoom, double pixelX, double pixelY) {
+		if (zoom != this.zoom) {
+			this.zoom		= zoom;
+			this.originX	= (long) (pixelX / Tile.TILE_SIZE);
+			this.originY	= (long) (pixelY / Tile.TILE_SIZE);
+			
+			slots				.clear();
+			content.getChildren().clear();
+		}
+		
+		move(pixelX, pixelY);
+		
+		for (Slot slot : slots.values()) {
+			slot.selected = false;
+		}
+	}
+	
+	/**
+	 * Moves the shown {@link Tile}s, without drawing them again
+	 * 
+	 * @param pixelX	X coordinate of the upper left corner of the viewport
+	 * @param pixelY	Y coordinate of the upper left corner of the viewport
+	 */
+	public void move (double pixelX, double pixelY) {
+		content.setTranslateX(originX * Tile.TILE_SIZE - pixelX);
+		content.setTranslateY(originY * Tile.TILE_SIZE - pixelY);
+	}
+	
+	/**
+	 * Selects the {@link Tile} to draw on with {@link #draw(Image, double, double, double, double, double, double, double)}
+	 * 
+	 * @param tile	{@link Tile} to draw
+	 * @param x		X coordinate of the {@link Tile} on the viewport
+	 * @param y		Y coordinate of the {@link Tile} on the viewport
+	 */
+	public void select (Tile tile, double x, double y) {
+		this.slot	= slots.get(tile);
+		this.slotX	= x;
+		this.slotY	= y;
+		
+		if (slot == null) {
+			slot = new Slot();
+			slot.group.setLayoutX((tile.tileX - originX) * Tile.TILE_SIZE);
+			slot.group.setLayoutY((tile.tileY - originY) * Tile.TILE_SIZE);
+			
+			slots				.put(tile, slot);
+			content.getChildren().add(slot.group);
+		}
+		
+		slot.selected = true;
+		slot.next.clear();
+	}
+	
+	/**
+	 * Draws a part of the given image on the selected {@link Tile}, like
+	 * {@link javafx.scene.canvas.GraphicsContext#drawImage(Image, double, double, double, double, double, double, double, double)}
+	 * 
+	 * @param image	Image to draw
+	 * @param sx	Left edge of the part of the image
+	 * @param sy	Top edge of the part of the image
+	 * @param sw	Width of the part of the image
+	 * @param sh	Height of the part of the image
+	 * @param x		X coordinate on the viewport
+	 * @param y		Y coordinate on the viewport
+	 * @param size	Width and height on the viewport
+	 */
+	public void draw (Image image, double sx, double sy, double sw, double sh, double x, double y, double size) {
+		slot.next.add(new Part(image, new Rectangle2D(sx, sy, sw, sh), x - slotX, y - slotY, size));
+	}
+	
+	/**
+	 * Ends the redraw, {@link Tile}s that are drawn differently are updated
+	 * and the ones that haven't been selected are removed
+	 */
+	public void end () {
+		for (Iterator<Slot> iterator = slots.values().iterator(); iterator.hasNext();) {
+			Slot entry = iterator.next();
+			
+			if (!entry.selected) {
+				content.getChildren().remove(entry.group);
+				iterator.remove();
+				
+			} else if (!entry.next.equals(entry.current)) {
+				List<ImageView> views = new ArrayList<>(entry.next.size());
+				
+				for (Part part : entry.next) {
+					ImageView view = new ImageView(part.image);
+					view.setViewport	(part.viewport);
+					view.setLayoutX		(part.x);
+					view.setLayoutY		(part.y);
+					view.setFitWidth	(part.size);
+					view.setFitHeight	(part.size);
+					views.add(view);
+				}
+				
+				entry.group.getChildren().setAll(views);
+				entry.current.clear();
+				entry.current.addAll(entry.next);
+			}
+		}
+		this.slot = null;
+	}
+	
+	/**
+	 * Removes all {@link Tile}s
+	 */
+	public void clear () {
+		slots				.clear();
+		content.getChildren().clear();
+		zoom = -1;
+	}
+	
+	/**
+	 * The {@link ImageView}s of a {@link Tile} and what they show
+	 */
+	private static class Slot {
+		private Group		group		= new Group();
+		private List<Part>	current		= new ArrayList<>();
+		private List<Part>	next		= new ArrayList<>();
+		private boolean		selected	= false;
+	}
+	
+	/**
+	 * A part of an image drawn on a {@link Tile}
+	 */
+	private static class Part {
+		private final Image			image;
+		private final Rectangle2D	viewport;
+		private final double		x;
+		private final double		y;
+		private final double		size;
+		
+		private Part (Image image, Rectangle2D viewport, double x, double y, double size) {
+			this.image		= image;
+			this.viewport	= viewport;
+			this.x			= x;
+			this.y			= y;
+			this.size		= size;
+		}
+		
+		@Override
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Part)) {
+				return false;
+			}
+			
+			Part other = (Part) obj;
+			return image == other.image
+				&& viewport.equals(other.viewport)
+				&& x == other.x
+				&& y == other.y
+				&& size == other.size;
+		}
+		
+		@Override
+		public int hashCode () {
+			return System.identityHashCode(image) * 31 + viewport.hashCode();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.itd.maps.mapsforge.tiles;
+
+import java.nio.IntBuffer;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+
+/**
+ * Creates the image of a tile from the images of its four children on the
+ * next zoom-level, by averaging each 2x2 block of pixels. This does not need
+ * the FX-Thread, so it can be done while the tile is waiting to be rendered.
+ */
+public class TilePyramid {
+	
+	private static final WritablePixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+	
+	private TilePyramid () {
+		// static helpers only
+	}
+	
+	/**
+	 * Creates the image of the parent of the given children, with the same
+	 * size as each of the children
+	 * 
+	 * @param children	Images of the upper left, upper right, lower left and lower right child
+	 * @return The image of the parent, null if the children differ in size
+	 */
+	public static WritableImage synthesize (Image[] children) {
+		int size = (int)children[0].getWidth();
+		int half = size / 2;
+		
+		for (Image child : children) {
+			if (child.getWidth() != size || child.getHeight() != size) {
+				return null;
+			}
+		}
+		
+		int[] source = new int[size * size];
+		int[] target = new int[size * size];
+		
+		for (int i = 0; i < children.length; ++i) {
+			children[i].getPixelReader().getPixels(0, 0, size, size, FORMAT, source, 0, size);
+			
+			int offsetX = (i % 2) * half;
+			int offsetY = (i / 2) * half;
+			
+			for (int y = 0; y < half; ++y) {
+				int row = y * 2 * size;
+				
+				for (int x = 0; x < half; ++x) {
+					int index = row + x * 2;
+					
+					target[(offsetY + y) * size + offsetX + x] = average(
+							source[index],
+							source[index + 1],
+							source[index + size],
+							source[index + size + 1]
+					);
+				}
+			}
+		}
+		
+		WritableImage parent = new WritableImage(size, size);
+		parent.getPixelWriter().setPixels(0, 0, size, size, FORMAT, target, 0, size);
+		return parent;
+	}
+	
+	/**
+	 * @return The average of each channel of the given premultiplied ARGB pixels
+	 */
+	private static int average (int a, int b, int c, int d) {
+		int result = 0;
+		
+		for (int shift = 0; shift < 32; shift += 8) {
+			int sum = ((a >>> shift) & 0xFF) + ((b >>> shift) & 0xFF) + ((c >>> shift) & 0xFF) + ((d >>> shift) & 0xFF);
+			result |= ((sum + 2) / 4) << shift;
+		}
+		
+		return result;
+	}
+}
@@ -18,11 +18,11 @@
 package de.itd.mapsforge.javafx.maps.graphics;
 
 import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
 import javafx.scene.shape.StrokeLineCap;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 
 import org.mapsforge.map.graphics.Align;
@@ -39,7 +39,9 @@ public class FXPaint implements org.mapsforge.map.graphics.Paint {
 	private		int				color = 0xFFFFFFFF;
 	
 	public	 	Color			fxColor;
+	public		ImagePattern	fxPattern;					// created once for the bitmap shader, null if there is none
 	public		Double[]		lineStrokeDashArray = null;	// line.getStrokeDashArray.add(lineStrokeDashArray);
+	public		double[]		lineDashes			= null;	// the same as lineStrokeDashArray, for GraphicsContext#setLineDashes
 	public		StrokeLineCap	lineCap;
 	public		double			strokeWidth;
 	public		Style			stlye;
@@ -47,8 +49,6 @@ public class FXPaint implements org.mapsforge.map.graphics.Paint {
 	public		double			textSize;
 	public		Font			font = Font.getDefault();
 	
-	private Text				text		= new Text();
-	
 	public FXPaint () {
 		setColor(java.awt.Color.BLACK.getRGB());
 	}
@@ -60,14 +60,12 @@ public class FXPaint implements org.mapsforge.map.graphics.Paint {
 	
 	@Override
 	public int getTextHeight(String text) {
-		this.text.setText(text);
-		return (int)(Math.round(this.text.getLayoutBounds().getHeight()));
+		return TextMetricsCache.INSTANCE.getHeight(font, text);
 	}
 	
 	@Override
 	public int getTextWidth(String text) {
-		this.text.setText(text);
-		return (int)Math.round(this.text.getLayoutBounds().getWidth());
+		return TextMetricsCache.INSTANCE.getWidth(font, text);
 	}
 	
 	@Override
@@ -78,7 +76,10 @@ public class FXPaint implements org.mapsforge.map.graphics.Paint {
 		
 		this.bitmap	= bitmap;
 		
-		// not implementable in JavaFX?
+		// create the pattern only once, instead of on every draw call
+		if (bitmap instanceof FXBitmap) {
+			this.fxPattern = new ImagePattern(((FXBitmap)bitmap).image, 0, 0, bitmap.getWidth(), bitmap.getHeight(), false);
+		}
 	}
 
 	@Override
@@ -107,12 +108,14 @@ public class FXPaint implements org.mapsforge.map.graphics.Paint {
 	
 	@Override
 	public void setDashPathEffect(float[] strokeDashArray) {
-		// create the new array
+		// create the new arrays
 		lineStrokeDashArray	= new Double[strokeDashArray.length];
+		lineDashes			= new double[strokeDashArray.length];
 		
 		// copy it
 		for (int i = 0; i < strokeDashArray.length; i++) {
-			lineStrokeDashArray[i] = new Double(strokeDashArray[i]);
+			lineStrokeDashArray[i]	= new Double(strokeDashArray[i]);
+			lineDashes[i]			= strokeDashArray[i];
 		}
 	}
 	
@@ -134,19 +137,11 @@ public class FXPaint implements org.mapsforge.map.graphics.Paint {
 
 	/**
 	 * Shall be called if the font has changed,
-	 * will update the font-metrics
+	 * will prepare the font-metrics
 	 */
 	public void onFontChanged () {
-		// get the current font size
-		int size = (int)font.getSize();
-		
-		// 0.X -> size of 0 -> set it to 1
-		if (size <= 0) {
-			size = 1;
-		}
-		
-		// set the new FontMetrics
-		text.setFont(font);
+		// the texts are measured per font by the cache
+		TextMetricsCache.INSTANCE.prepare(font);
 	}
 	
 	@Override
@@ -233,6 +228,13 @@ public class FXPaint implements org.mapsforge.map.graphics.Paint {
 		onFontChanged();
 	}
 	
+	/**
+	 * @return The JavaFX paint to draw with, the pattern of the bitmap shader if available
+	 */
+	public javafx.scene.paint.Paint getFxPaint () {
+		return fxPattern != null ? fxPattern : fxColor;
+	}
+	
 	@Override
 	public void destroy() {
 		if (bitmap != null) {
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.graphics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.geometry.Bounds;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import org.mapsforge.core.util.LRUCache;
+
+/**
+ * Caches the measured size of texts per {@link Font}, so the layout of a
+ * {@link Text} node is only done once for each label. The cache can be used
+ * from several threads at once, each thread measures with its own {@link Text}.
+ * 
+ * Optionally the width can be estimated by the sum of the advances of the single
+ * glyphs, which are measured once per {@link Font}. This ignores kerning, but
+ * doesn't need any text layout for texts that are not cached yet.
+ */
+public final class TextMetricsCache {
+	
+	public static final TextMetricsCache INSTANCE = new TextMetricsCache(4096);
+	
+	// the glyphs with a precomputed advance (Latin-1 and Latin Extended-A)
+	private static final int GLYPH_TABLE_SIZE = 0x180;
+	
+	
+	/**
+	 * The key of a measured text
+	 */
+	private static final class Key {
+		private final Font		font;
+		private final String	text;
+		private final int		hashCode;
+		
+		private Key (Font font, String text) {
+			this.font		= font;
+			this.text		= text;
+			this.hashCode	= 31 * font.hashCode() + text.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key)obj;
+			return font.equals(other.font) && text.equals(other.text);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+	
+	/**
+	 * The advances of the glyphs of one {@link Font}
+	 */
+	private static final class GlyphTable {
+		private final double[]	advances = new double[GLYPH_TABLE_SIZE];
+		private int				height;
+	}
+	
+	
+	private final Map<Key, int[]>			metrics;
+	private final Map<Font, GlyphTable>		glyphTables	= new ConcurrentHashMap<>();
+	private final ThreadLocal<Text>			texts		= new ThreadLocal<Text>() {
+		@Override
+		protected Text initialValue() {
+			return new Text();
+		}
+	};
+	
+	private volatile boolean	estimateWidth	= false;
+	
+	/**
+	 * @param capacity The maximum number of texts to remember
+	 */
+	public TextMetricsCache (int capacity) {
+		this.metrics = Collections.synchronizedMap(new LRUCache<Key, int[]>(capacity));
+	}
+	
+	/**
+	 * @return Whether the width is estimated by the advances of the single glyphs
+	 */
+	public boolean isEstimateWidth () {
+		return estimateWidth;
+	}
+	
+	/**
+	 * @param estimate Whether the width is estimated by the advances of the single glyphs
+	 */
+	public void setEstimateWidth (boolean estimate) {
+		this.estimateWidth = estimate;
+	}
+	
+	/**
+	 * @param font	{@link Font} of the text
+	 * @param text	Text to measure
+	 * @return The width of the given text in pixel
+	 */
+	public int getWidth (Font font, String text) {
+		if (estimateWidth) {
+			double width = estimateWidth(getGlyphTable(font), text);
+			
+			if (width >= 0) {
+				return (int)Math.round(width);
+			}
+		}
+		return getMetrics(font, text)[0];
+	}
+	
+	/**
+	 * @param font	{@link Font} of the text
+	 * @param text	Text to measure
+	 * @return The height of the given text in pixel
+	 */
+	public int getHeight (Font font, String text) {
+		if (estimateWidth && text.indexOf('\n') < 0) {
+			// the height of a single line only depends on the font
+			return getGlyphTable(font).height;
+		}
+		return getMetrics(font, text)[1];
+	}
+	
+	/**
+	 * Prepares the glyph advances for the given {@link Font},
+	 * if the width is estimated
+	 * @param font {@link Font} to prepare
+	 */
+	public void prepare (Font font) {
+		if (estimateWidth) {
+			getGlyphTable(font);
+		}
+	}
+	
+	/**
+	 * Removes all measured texts and glyph advances
+	 */
+	public void clear () {
+		metrics		.clear();
+		glyphTables	.clear();
+	}
+	
+	/**
+	 * @param font	{@link Font} of the text
+	 * @param text	Text to measure
+	 * @return The cached width and height of the given text
+	 */
+	private int[] getMetrics (Font font, String text) {
+		Key		key		= new Key(font, text);
+		int[]	result	= metrics.get(key);
+		
+		if (result == null) {
+			// measure outside of the lock, the worst case is measuring twice
+			Bounds bounds = measure(font, text);
+			
+			result = new int[] {
+					(int)Math.round(bounds.getWidth()),
+					(int)Math.round(bounds.getHeight())
+			};
+			
+			metrics.put(key, result);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @param table	{@link GlyphTable} to use
+	 * @param text	Text to estimate the width for
+	 * @return The estimated width or -1 if the text contains unknown glyphs
+	 */
+	private double estimateWidth (GlyphTable table, String text) {
+		double width = 0;
+		
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			
+			if (c >= GLYPH_TABLE_SIZE) {
+				return -1;
+			}
+			
+			width += table.advances[c];
+		}
+		
+		return width;
+	}
+	
+	private GlyphTable getGlyphTable (Font font) {
+		GlyphTable table = glyphTables.get(font);
+		
+		if (table == null) {
+			table = new GlyphTable();
+			
+			for (char c = 0; c < GLYPH_TABLE_SIZE; c++) {
+				table.advances[c] = measure(font, String.valueOf(c)).getWidth();
+			}
+			table.height = (int)Math.round(measure(font, "").getHeight());
+			
+			glyphTables.put(font, table);
+		}
+		
+		return table;
+	}
+	
+	private Bounds measure (Font font, String text) {
+		Text node = texts.get();
+		
+		node.setFont(font);
+		node.setText(text);
+		
+		return node.getLayoutBounds();
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.itd.mapsforge.javafx.maps.graphics.FXBitmap;
+
+/**
+ * InFlightJobs holds the {@link MapGeneratorJob}s that are currently executed. Requests for a job that is already
+ * executed are merged into it, so that every job is only rendered once, and all listeners are notified when it is
+ * completed. Jobs are only merged if they render the same image, that is if they are equal, both are previews or
+ * neither is, and they are rendered with an equal layout, like the image size and the device scale.
+ */
+public class InFlightJobs {
+        /**
+         * A Listener is notified when a {@link MapGeneratorJob} it has requested is completed.
+         */
+        public interface Listener {
+                /**
+                 * Called when the given job has been completed.
+                 *
+                 * @param mapGeneratorJob
+                 *            the job that has been completed.
+                 * @param bitmap
+                 *            the rendered image of the job, or null if it has been cancelled or has failed.
+                 */
+                void jobCompleted(MapGeneratorJob mapGeneratorJob, FXBitmap bitmap);
+        }
+
+        private static final InFlightJobs SHARED = new InFlightJobs();
+
+        /**
+         * Identifies the image a job renders.
+         */
+        private static final class Key {
+                private final MapGeneratorJob mapGeneratorJob;
+                private final boolean preview;
+                private final Object layout;
+
+                Key(MapGeneratorJob mapGeneratorJob, Object layout) {
+                        this.mapGeneratorJob = mapGeneratorJob;
+                        this.preview = mapGeneratorJob.isPreview();
+                        this.layout = layout;
+                }
+
+                @Override
+                public boolean equals(Object obj) {
+                        if (this == obj) {
+                                return true;
+                        }
+                        if (!(obj instanceof Key)) {
+                                return false;
+                        }
+                        Key other = (Key) obj;
+                        return this.preview == other.preview && this.mapGeneratorJob.equals(other.mapGeneratorJob)
+                                        && (this.layout == null ? other.layout == null : this.layout.equals(other.layout));
+                }
+
+                @Override
+                public int hashCode() {
+                        int result = this.mapGeneratorJob.hashCode();
+                        result = 31 * result + (this.preview ? 1231 : 1237);
+                        result = 31 * result + ((this.layout == null) ? 0 : this.layout.hashCode());
+                        return result;
+                }
+        }
+
+        private final Map<Key, List<Listener>> inFlight = new HashMap<Key, List<Listener>>();
+        private final AtomicLong merged = new AtomicLong();
+
+        /**
+         * @return the instance that is shared by all map views, so that they do not render the same job twice.
+         */
+        public static InFlightJobs getShared() {
+                return SHARED;
+        }
+
+        /**
+         * Registers the given job as executed by the caller, unless it is already executed.
+         *
+         * @param mapGeneratorJob
+         *            the job that should be executed.
+         * @param layout
+         *            how the image of the job is laid out, jobs with a different layout are not merged.
+         * @param listener
+         *            the listener to notify when the job has been completed.
+         * @return true if the caller has to execute the job, false if it has been merged into the one in flight.
+         */
+        public synchronized boolean start(MapGeneratorJob mapGeneratorJob, Object layout, Listener listener) {
+                if (join(mapGeneratorJob, layout, listener)) {
+                        return false;
+                }
+
+                List<Listener> listeners = new ArrayList<Listener>();
+                listeners.add(listener);
+                this.inFlight.put(new Key(mapGeneratorJob, layout), listeners);
+                return true;
+        }
+
+        /**
+         * Merges a request for the given job into the one in flight, if there is one.
+         *
+         * @param mapGeneratorJob
+         *            the job that is requested.
+         * @param layout
+         *            how the image of the job is laid out.
+         * @param listener
+         *            the listener to notify when the job has been completed, it is only added once.
+         * @return true if the job is in flight and the request has been merged, false otherwise.
+         */
+        public synchronized boolean join(MapGeneratorJob mapGeneratorJob, Object layout, Listener listener) {
+                List<Listener> listeners = this.inFlight.get(new Key(mapGeneratorJob, layout));
+                if (listeners == null) {
+                        return false;
+                }
+
+                if (!listeners.contains(listener)) {
+                        listeners.add(listener);
+                        this.merged.incrementAndGet();
+                }
+                return true;
+        }
+
+        /**
+         * @param mapGeneratorJob
+         *            the job to check.
+         * @param layout
+         *            how the image of the job is laid out.
+         * @return true if the given job is in flight, false otherwise.
+         */
+        public synchronized boolean contains(MapGeneratorJob mapGeneratorJob, Object layout) {
+                return this.inFlight.containsKey(new Key(mapGeneratorJob, layout));
+        }
+
+        /**
+         * @param mapGeneratorJob
+         *            the job to check.
+         * @param layout
+         *            how the image of the job is laid out.
+         * @return the number of listeners waiting for the given job, including the one executing it.
+         */
+        public synchronized int getListenerCount(MapGeneratorJob mapGeneratorJob, Object layout) {
+                List<Listener> listeners = this.inFlight.get(new Key(mapGeneratorJob, layout));
+                return listeners == null ? 0 : listeners.size();
+        }
+
+        /**
+         * Removes the given job and notifies all its listeners, on the calling thread. Nothing happens if it has
+         * already been completed.
+         *
+         * @param mapGeneratorJob
+         *            the job that has been completed.
+         * @param layout
+         *            how the image of the job is laid out, as given to {@link #start(MapGeneratorJob, Object, Listener)}.
+         * @param bitmap
+         *            the rendered image of the job, or null if it has been cancelled or has failed.
+         */
+        public void complete(MapGeneratorJob mapGeneratorJob, Object layout, FXBitmap bitmap) {
+                List<Listener> listeners;
+                synchronized (this) {
+                        listeners = this.inFlight.remove(new Key(mapGeneratorJob, layout));
+                }
+
+                if (listeners != null) {
+                        for (Listener listener : listeners) {
+                                listener.jobCompleted(mapGeneratorJob, bitmap);
+                        }
+                }
+        }
+
+        /**
+         * @return the number of listeners that have been merged into a job in flight, each counted once per job.
+         */
+        public long getMergedCount() {
+                return this.merged.get();
+        }
+}
@@ -37,6 +37,11 @@ public class JobParameters implements Serializable {
          */
         public final float textScale;
 
+        /**
+         * Whether the labels and symbols are left to an overlay, instead of being drawn on the tiles.
+         */
+        public final boolean overlayLabels;
+
         private final int hashCodeValue;
 
         /**
@@ -46,8 +51,21 @@ public class JobParameters implements Serializable {
          *            the text scale factor which should applied to the render theme.
          */
         public JobParameters(XmlRenderTheme jobTheme, float textScale) {
+                this(jobTheme, textScale, false);
+        }
+
+        /**
+         * @param jobTheme
+         *            render theme which should be used.
+         * @param textScale
+         *            the text scale factor which should applied to the render theme.
+         * @param overlayLabels
+         *            true if the labels and symbols are left to an overlay, false to draw them on the tiles.
+         */
+        public JobParameters(XmlRenderTheme jobTheme, float textScale, boolean overlayLabels) {
                 this.jobTheme = jobTheme;
                 this.textScale = textScale;
+                this.overlayLabels = overlayLabels;
                 this.hashCodeValue = calculateHashCode();
         }
 
@@ -70,6 +88,9 @@ public class JobParameters implements Serializable {
                 if (Float.floatToIntBits(this.textScale) != Float.floatToIntBits(other.textScale)) {
                         return false;
                 }
+                if (this.overlayLabels != other.overlayLabels) {
+                        return false;
+                }
                 return true;
         }
 
@@ -85,6 +106,7 @@ public class JobParameters implements Serializable {
                 int result = 7;
                 result = 31 * result + ((this.jobTheme == null) ? 0 : this.jobTheme.hashCode());
                 result = 31 * result + Float.floatToIntBits(this.textScale);
+                result = 31 * result + (this.overlayLabels ? 1231 : 1237);
                 return result;
         }
 }
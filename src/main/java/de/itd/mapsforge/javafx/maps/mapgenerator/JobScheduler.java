@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A JobScheduler holds the {@link MapGeneratorJob}s that are waiting to be executed, ordered by their priority. The
+ * priorities of the queued jobs are updated in place when the viewport moves, only the jobs whose priority has changed
+ * are moved, instead of rebuilding the queue. All access is synchronized on the scheduler.
+ */
+public class JobScheduler {
+        /**
+         * The class of jobs for tiles that are visible.
+         */
+        public static final int CLASS_VISIBLE = 0;
+
+        /**
+         * The class of jobs for visible tiles that are only shown as a preview so far.
+         */
+        public static final int CLASS_REFINE = 1;
+
+        /**
+         * The class of jobs for tiles that the moving viewport is expected to reach soon.
+         */
+        public static final int CLASS_PREDICTED = 2;
+
+        /**
+         * The class of jobs for tiles that are not visible yet.
+         */
+        public static final int CLASS_PREFETCH = 3;
+
+        private static final double WEIGHT_CLASS = 1000000;
+        private static final double WEIGHT_ZOOM = 10000;
+
+        /**
+         * Orders the jobs by their priority, the ones with the same priority in the order they have been added.
+         */
+        private static final Comparator<MapGeneratorJob> ORDER = new Comparator<MapGeneratorJob>() {
+                @Override
+                public int compare(MapGeneratorJob job1, MapGeneratorJob job2) {
+                        int result = job1.compareTo(job2);
+                        if (result != 0) {
+                                return result;
+                        }
+                        return Long.compare(job1.getSequence(), job2.getSequence());
+                }
+        };
+
+        private final TreeSet<MapGeneratorJob> queue = new TreeSet<MapGeneratorJob>(ORDER);
+        private final Map<MapGeneratorJob, MapGeneratorJob> scheduled = new HashMap<MapGeneratorJob, MapGeneratorJob>();
+        private long sequence;
+
+        /**
+         * Calculates the priority of a job, a lower value is executed earlier. The class dominates the zoom level,
+         * which dominates the distance.
+         *
+         * @param jobClass
+         *            the class of the job, {@link #CLASS_VISIBLE}, {@link #CLASS_REFINE}, {@link #CLASS_PREDICTED} or
+         *            {@link #CLASS_PREFETCH}.
+         * @param zoomLevelDifference
+         *            the number of zoom levels between the tile and the current zoom level.
+         * @param dx
+         *            the horizontal distance of the tile from the centre, in tiles.
+         * @param dy
+         *            the vertical distance of the tile from the centre, in tiles.
+         * @return the priority of the job.
+         */
+        public static double getPriority(int jobClass, int zoomLevelDifference, double dx, double dy) {
+                return jobClass * WEIGHT_CLASS + Math.abs(zoomLevelDifference) * WEIGHT_ZOOM + dx * dx + dy * dy;
+        }
+
+        /**
+         * Replaces the scheduled jobs by the given ones. Jobs that are already queued take over their new priority and
+         * whether they render a preview or only labels, jobs that are not given anymore are removed. Only the jobs
+         * whose priority has changed are moved within the queue, each in O(log n).
+         *
+         * @param priorities
+         *            the jobs to schedule, mapped to their priority.
+         */
+        public synchronized void update(Map<MapGeneratorJob, Double> priorities) {
+                // remove the jobs that are not needed anymore
+                for (Iterator<MapGeneratorJob> iterator = this.scheduled.keySet().iterator(); iterator.hasNext();) {
+                        MapGeneratorJob job = iterator.next();
+                        if (!priorities.containsKey(job)) {
+                                iterator.remove();
+                                this.queue.remove(job);
+                        }
+                }
+
+                for (Map.Entry<MapGeneratorJob, Double> entry : priorities.entrySet()) {
+                        double priority = entry.getValue().doubleValue();
+                        MapGeneratorJob job = this.scheduled.get(entry.getKey());
+
+                        if (job == null) {
+                                job = entry.getKey();
+                                job.setPriority(priority);
+                                job.setSequence(this.sequence++);
+                                this.scheduled.put(job, job);
+                                this.queue.add(job);
+                        } else {
+                                job.setPreview(entry.getKey().isPreview());
+                                job.setLabelsOnly(entry.getKey().isLabelsOnly());
+
+                                if (job.getPriority() != priority) {
+                                        // the queue does not notice a changed priority, so move the job
+                                        this.queue.remove(job);
+                                        job.setPriority(priority);
+                                        this.queue.add(job);
+                                }
+                        }
+                }
+        }
+
+        /**
+         * @return the job with the highest priority, or null if there is none.
+         */
+        public synchronized MapGeneratorJob poll() {
+                MapGeneratorJob job = this.queue.pollFirst();
+                if (job != null) {
+                        this.scheduled.remove(job);
+                }
+                return job;
+        }
+
+        /**
+         * @param job
+         *            the job to look for.
+         * @return true if the given job is waiting to be executed, false otherwise.
+         */
+        public synchronized boolean contains(MapGeneratorJob job) {
+                return this.scheduled.containsKey(job);
+        }
+
+        /**
+         * @return true if there are no jobs waiting to be executed, false otherwise.
+         */
+        public synchronized boolean isEmpty() {
+                return this.queue.isEmpty();
+        }
+
+        /**
+         * @return the number of jobs waiting to be executed.
+         */
+        public synchronized int size() {
+                return this.queue.size();
+        }
+
+        /**
+         * Removes all jobs.
+         */
+        public synchronized void clear() {
+                this.queue.clear();
+                this.scheduled.clear();
+        }
+}
@@ -48,9 +48,13 @@ public class MapGeneratorJob implements Comparable<MapGeneratorJob>, Serializabl
          */
         public final Tile tile;
 
+        private transient volatile boolean cancelled;
+        private transient volatile boolean preview;
+        private transient volatile boolean labelsOnly;
         private transient int hashCodeValue;
         private final File mapFile;
         private transient double priority;
+        private transient long sequence;
 
         /**
          * Creates a new job for a MapGenerator with the given parameters.
@@ -151,7 +155,63 @@ public class MapGeneratorJob implements Comparable<MapGeneratorJob>, Serializabl
                 calculateTransientValues();
         }
 
+        double getPriority() {
+                return this.priority;
+        }
+
         void setPriority(double priority) {
                 this.priority = priority;
         }
+
+        long getSequence() {
+                return this.sequence;
+        }
+
+        void setSequence(long sequence) {
+                this.sequence = sequence;
+        }
+
+        /**
+         * Requests this job to stop, the renderer checks this between its stages and discards the job.
+         */
+        public void cancel() {
+                this.cancelled = true;
+        }
+
+        /**
+         * @return true if this job has been cancelled, false otherwise.
+         */
+        public boolean isCancelled() {
+                return this.cancelled;
+        }
+
+        /**
+         * @return true if this job renders a quick preview without labels and symbols, false otherwise.
+         */
+        public boolean isPreview() {
+                return this.preview;
+        }
+
+        /**
+         * @param preview
+         *            true to render a quick preview without labels and symbols, false to render in full detail.
+         */
+        public void setPreview(boolean preview) {
+                this.preview = preview;
+        }
+
+        /**
+         * @return true if this job only collects the labels and symbols for an overlay, without drawing the tile.
+         */
+        public boolean isLabelsOnly() {
+                return this.labelsOnly;
+        }
+
+        /**
+         * @param labelsOnly
+         *            true to only collect the labels and symbols for an overlay, false to draw the tile.
+         */
+        public void setLabelsOnly(boolean labelsOnly) {
+                this.labelsOnly = labelsOnly;
+        }
 }
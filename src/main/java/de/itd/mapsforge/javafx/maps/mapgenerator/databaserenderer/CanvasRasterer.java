@@ -30,8 +30,8 @@ import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.ImagePattern;
 import javafx.scene.paint.Paint;
+import javafx.scene.shape.StrokeLineCap;
 
 import org.mapsforge.core.model.Point;
 import org.mapsforge.core.model.Tag;
@@ -129,11 +129,28 @@ public class CanvasRasterer {
 	}
 
 	private GraphicsContext					context;
+	private final LabelSpriteCache			labelSpriteCache = new LabelSpriteCache(LabelSpriteCache.DEFAULT_PIXEL_BUDGET);
 	private Canvas							canvas;
 	
 	private boolean							beganPath		= false;
+	private boolean							laneSeparators	= true;
 	private Map<Way, ShapePaintContainer>	wayContainers	= new WeakHashMap<>();
 	
+	// reused by drawWays, so the lists don't need to be created for each tile
+	private final Set<WayHelper>						drawnWays	= new HashSet<WayHelper>();
+	private final List<List<List<ShapePaintContainer>>>	sortedWays	= new ArrayList<>();
+	
+	// the state of the GraphicsContext while in drawWays, to only apply changes
+	private StrokeLineCap	defaultLineCap;
+	private Paint			currentFill;
+	private Paint			currentStroke;
+	private double			currentLineWidth;
+	private StrokeLineCap	currentLineCap;
+	private double[]		currentLineDashes;
+	
+	// the paint of the shapes that have been added to the current path
+	private FXPaint			batchPaint;
+	
 
 	public CanvasRasterer() {
 		// prepare a dummy canvas
@@ -142,6 +159,13 @@ public class CanvasRasterer {
 		configurePaints();
 	}
 	
+	/**
+	 * @return The {@link LabelSpriteCache} the labels are drawn from
+	 */
+	LabelSpriteCache getLabelSpriteCache () {
+		return labelSpriteCache;
+	}
+	
 	private void beginPath () {
 		if (!beganPath) {
 			beganPath = true;
@@ -194,6 +218,55 @@ public class CanvasRasterer {
 		}
 	}
 
+	/**
+	 * Draws the given text at the given position, with the given maximum width
+	 * 
+	 * @see #drawText(FXPaint, String, double, double)
+	 * @param maxWidth	Maximum width of the text
+	 */
+	private void drawText(FXPaint paint, String text, double x, double y, double maxWidth) {
+		context.setLineWidth(paint.strokeWidth);
+		context.setFont(paint.font);
+
+		if (paint.stlye == Style.FILL) {
+			context.setFill(paint.fxColor);
+			context.fillText(text, x, y, maxWidth);
+
+		} else {
+			context.setStroke(paint.fxColor);
+			context.strokeText(text, x, y, maxWidth);
+		}
+	}
+
+	/**
+	 * Draws the label from the {@link LabelSpriteCache}, if it has already been rasterised
+	 * 
+	 * @param text			Text of the label
+	 * @param paintFront	{@link FXPaint} of the front, may be null
+	 * @param paintBack		{@link FXPaint} of the back, may be null
+	 * @param rotation		Rotation bucket of the label
+	 * @param offsetX		X offset of the text to the anchor, in the rotated system
+	 * @param offsetY		Y offset of the text to the anchor, in the rotated system
+	 * @param x				X coordinate of the anchor
+	 * @param y				Y coordinate of the anchor
+	 * @return Whether the label has been drawn
+	 */
+	private boolean drawSprite(String text, FXPaint paintFront, FXPaint paintBack, int rotation, double offsetX, double offsetY, double x, double y) {
+		if (!labelSpriteCache.isEnabled()) {
+			return false;
+		}
+		
+		LabelSpriteCache.Sprite sprite = labelSpriteCache.get(new LabelSpriteCache.Key(text, paintFront, paintBack, rotation, offsetX, offsetY));
+		
+		if (sprite == null) {
+			return false;
+		}
+		
+		// pixel aligned, otherwise the sprite is blurred
+		context.drawImage(sprite.image, Math.round(x - sprite.originX), Math.round(y - sprite.originY));
+		return true;
+	}
+
 	/**
 	 * Draws the given {@link List} of {@link PointTextContainer}s
 	 * @param pointTextContainers {@link List} of {@link PointTextContainer} to draw
@@ -208,15 +281,23 @@ public class CanvasRasterer {
 			FXPaint paintBack	= (FXPaint) pointTextContainer.paintBack;
 			FXPaint paintFront	= (FXPaint) pointTextContainer.paintFront;
 			
+			// draw the pre-rendered label if possible
+			if (drawSprite(pointTextContainer.text, paintFront, paintBack, 0, 0, 0, pointTextContainer.x, pointTextContainer.y)) {
+				continue;
+			}
+			
+			// snapped like the sprite, so the label looks the same on the neighbouring tiles
+			double x = labelSpriteCache.isEnabled() ? Math.round(pointTextContainer.x) : pointTextContainer.x;
+			double y = labelSpriteCache.isEnabled() ? Math.round(pointTextContainer.y) : pointTextContainer.y;
 
 			// draw the back
 			if (paintBack != null) {
-				drawText(paintBack, pointTextContainer.text, pointTextContainer.x, pointTextContainer.y);
+				drawText(paintBack, pointTextContainer.text, x, y);
 			}
 
 			// draw the front
 			if (paintFront != null) {
-				drawText(paintFront, pointTextContainer.text, pointTextContainer.x, pointTextContainer.y);
+				drawText(paintFront, pointTextContainer.text, x, y);
 			}
 		}
 		context.restore();
@@ -285,6 +366,37 @@ public class CanvasRasterer {
 		
 		context.restore();
 	}
+	
+	/**
+	 * Draws a frame around the {@link Tile} at the given position, used for metatiles
+	 * 
+	 * @param x		X coordinate of the upper left corner of the {@link Tile}
+	 * @param y		Y coordinate of the upper left corner of the {@link Tile}
+	 * @param scale	Number of pixels per pixel of the {@link Tile}
+	 */
+	public void drawTileFrame(double x, double y, double scale) {
+		context.save();
+		context.translate(x, y);
+		context.scale(scale, scale);
+		drawTileFrame();
+		context.restore();
+	}
+	
+	/**
+	 * Draws the coordinates of the given {@link Tile} at the given position, used for metatiles
+	 * 
+	 * @param tile	{@link Tile} to draw the coordinates of
+	 * @param x		X coordinate of the upper left corner of the {@link Tile}
+	 * @param y		Y coordinate of the upper left corner of the {@link Tile}
+	 * @param scale	Number of pixels per pixel of the {@link Tile}
+	 */
+	public void drawTileCoordinates(Tile tile, double x, double y, double scale) {
+		context.save();
+		context.translate(x, y);
+		context.scale(scale, scale);
+		drawTileCoordinates(tile);
+		context.restore();
+	}
 
 	/**
 	 * Draws the given {@link List} of {@link WayTextContainer}s
@@ -310,35 +422,53 @@ public class CanvasRasterer {
 			double distance = Math.sqrt(Math.pow(deltaX, 2)
 							+ Math.pow(deltaY, 2));
 
-			FXPaint paint = (FXPaint) wayTextContainer.paint;
-
-			context.setFont(paint.font);
-			context.setLineWidth(paint.strokeWidth);
-
-			context.translate(textCoordinates[0], textCoordinates[1]);
-			context.rotate(degrees);
-
-			if (paint.stlye == Style.FILL) {
-				context.setFill(paint.fxColor);
-				context.fillText(wayTextContainer.text, OFFSET_TEXT_HORIZONTAL, OFFSET_TEXT_VERTICAL, distance);
+			FXPaint paintBack	= (FXPaint) wayTextContainer.paintBack;
+			FXPaint paintFront	= (FXPaint) wayTextContainer.paintFront;
+			
+			// a sprite can't be squeezed into the segment like the text
+			FXPaint	paintWidth	= paintBack != null ? paintBack : paintFront;
+			boolean	fits		= paintWidth == null || paintWidth.getTextWidth(wayTextContainer.text) <= distance;
+			
+			if (labelSpriteCache.isEnabled()) {
+				// draw the pre-rendered label if possible, the rotation is rounded to the bucket of the cache
+				int rotation = labelSpriteCache.getRotationBucket(degrees);
+				
+				if (fits && drawSprite(wayTextContainer.text, paintFront, paintBack, rotation, OFFSET_TEXT_HORIZONTAL, OFFSET_TEXT_VERTICAL, textCoordinates[0], textCoordinates[1])) {
+					continue;
+				}
+				
+				// snapped like the sprite, so the label looks the same on the neighbouring tiles
+				context.translate(Math.round(textCoordinates[0]), Math.round(textCoordinates[1]));
+				context.rotate(labelSpriteCache.getRotation(rotation));
 				
 			} else {
-				context.setStroke(paint.fxColor);
-				context.strokeText(wayTextContainer.text, OFFSET_TEXT_HORIZONTAL, OFFSET_TEXT_VERTICAL, distance);
+				context.translate(textCoordinates[0], textCoordinates[1]);
+				context.rotate(degrees);
+			}
+
+			if (paintBack != null) {
+				drawText(paintBack, wayTextContainer.text, OFFSET_TEXT_HORIZONTAL, OFFSET_TEXT_VERTICAL, distance);
 			}
 			
+			if (paintFront != null) {
+				drawText(paintFront, wayTextContainer.text, OFFSET_TEXT_HORIZONTAL, OFFSET_TEXT_VERTICAL, distance);
+			}
 		}
 
 		context.restore();
 	}
 
 	/**
-	 * Draws the given {@link ShapePaintContainer}s
+	 * Draws the given {@link ShapePaintContainer}s, consecutive strokes of
+	 * the same level with the same {@link FXPaint} are merged into one path
+	 * and drawn with one stroke call, areas are filled one by one, the {@link GraphicsContext}
+	 * state is only changed if it differs from the current one
 	 * @param drawWays {@link ShapePaintContainer}s to draw
 	 */
 	public void drawWays(List<List<List<ShapePaintContainer>>> drawWays) {
 		int levelsPerLayer = drawWays.get(0).size();
 		context.save();
+		resetState();
 		
 
 		/*
@@ -364,14 +494,23 @@ public class CanvasRasterer {
 		 *       
 		 *  Workaround takes ~1ms (i7-3537U)
 		 */
-		Set<WayHelper> ways = new HashSet<WayHelper>();
-		List<List<List<ShapePaintContainer>>> drawWaysNew = new ArrayList<>();
+		Set<WayHelper> ways = drawnWays;
+		List<List<List<ShapePaintContainer>>> drawWaysNew = sortedWays;
+		
+		ways.clear();
 		
 		// add one more list, where to move the wrongly containers to
-		for (int i = 0; i < drawWays.size()+1; i++) {
+		while (drawWaysNew.size() < drawWays.size()+1) {
 			drawWaysNew.add( new ArrayList<List<ShapePaintContainer>>() );
 		}
 		
+		// clear the lists of the last tile, but keep them
+		for (List<List<ShapePaintContainer>> listList : drawWaysNew) {
+			for (List<ShapePaintContainer> list : listList) {
+				list.clear();
+			}
+		}
+		
 		// iterate :D
 		for (int layer = 0, layers = drawWays.size(); layer < layers; ++layer) {
 			List<List<ShapePaintContainer>> shapePaintContainers = drawWays.get(layer);
@@ -386,7 +525,8 @@ public class CanvasRasterer {
 					boolean toList = false;
 					
 					
-					if (shapePaintContainer.shapeContainer instanceof WayContainer) {
+					if (shapePaintContainer.shapeContainer instanceof WayContainer
+							&& ((WayContainer)shapePaintContainer.shapeContainer).way != null) {
 						for (Tag tag : ((WayContainer)shapePaintContainer.shapeContainer).way.tags) {
 							if ("landuse".equalsIgnoreCase(tag.key)) {
 								toList = true;
@@ -436,7 +576,6 @@ public class CanvasRasterer {
 
 					
 					FXPaint		paint	= (FXPaint) shapePaintContainer.paint;
-					FXBitmap	bitmap	= (FXBitmap) paint.bitmap;
 					
 					WayHelper	way		= null;
 					boolean		lanes	= false;
@@ -450,32 +589,16 @@ public class CanvasRasterer {
 						continue;
 					}
 					
-					context.restore();
-					context.save();
-
-					switch (shapePaintContainer.shapeContainer.getShapeType()) {
-						case CIRCLE:
-							CircleContainer	circleContainer = (CircleContainer) shapePaintContainer.shapeContainer;
-							Point			point			= circleContainer.point;
-
-							beginPath();
-							context.arcTo(point.x, point.y,
-									point.x + 2 * circleContainer.radius,
-									point.y + 2 * circleContainer.radius,
-									circleContainer.radius);
-							break;
-	
-						case WAY:
-							WayContainer	wayContainer	= (WayContainer) shapePaintContainer.shapeContainer;
-							Point[][]		coordinates		= wayContainer.coordinates;
-							
+					if (shapePaintContainer.shapeContainer.getShapeType() == ShapeType.WAY) {
+						WayContainer wayContainer = (WayContainer) shapePaintContainer.shapeContainer;
+						
+						if (wayContainer.way != null) {
 							way = new WayHelper(wayContainer.way);
-
 							
 							if (wayContainers.containsKey(wayContainer.way)) {
 								lanes	= ways.contains(way)
-										&& paint.lineStrokeDashArray != null
-										&& paint.lineStrokeDashArray.length > 0;
+										&& paint.lineDashes != null
+										&& paint.lineDashes.length > 0;
 								
 								if (!lanes) {
 									ways.add(way);
@@ -484,52 +607,56 @@ public class CanvasRasterer {
 							} else if (hasMultipleLanes(way)) {
 								wayContainers.put(wayContainer.way, shapePaintContainer);
 							}
-	
-							// ignore lanes
-							if (!lanes) {
-								beginPath();
-								strokeLine(coordinates, paint.lineStrokeDashArray);
-							}
-							break;
+						}
 					}
 					
-					// prepare the default paint
-					Paint fxPaint = paint.fxColor;
-					
-					// use the the bitmap, if available
-					if (bitmap != null) {
-						fxPaint = new ImagePattern(bitmap.image, 0, 0, bitmap.getWidth(), bitmap.getHeight(), false);
+					// the lanes are drawn on their own
+					if (lanes) {
+						if (!laneSeparators) {
+							continue;
+						}
+						
+						flushBatch();
+						applyStroke(paint);
+						
+						// draw the lane separators if possible
+						drawLaneSeparators(way, paint.lineDashes[0]);
+						continue;
 					}
 					
-					// decide whether to stroke or fill
-					if (paint.stlye == Style.STROKE) {
-						context.setStroke	(fxPaint);
-						context.setLineWidth(paint.strokeWidth);
-
-						// set the line cap
-						if (paint.lineCap != null) {
-							context.setLineCap(paint.lineCap);
-						}
+					// another paint -> draw what has been collected so far
+					if (paint != batchPaint) {
+						flushBatch();
+						batchPaint = paint;
+						beginPath();
+					}
 
-						
-						// decide whether this is a normal stroke call or a request to draw the lanes
-						// TODO remove
-						if (lanes) {
-							// draw the lane separators if possible
-							drawLaneSeparators(way, paint.lineStrokeDashArray[0]);
-							
-						} else {
-							context.stroke();
-						}
+					switch (shapePaintContainer.shapeContainer.getShapeType()) {
+						case CIRCLE:
+							CircleContainer	circleContainer = (CircleContainer) shapePaintContainer.shapeContainer;
 
-					} else {
-						// fill the area
-						context.setFill(fxPaint);
-						context.fill();
+							// a subpath of its own, not connected to the previous shape
+							context.moveTo(circleContainer.x + circleContainer.radius, circleContainer.y);
+							context.arc(circleContainer.x, circleContainer.y,
+									circleContainer.radius, circleContainer.radius, 0, 360);
+							break;
+	
+						case WAY:
+							WayContainer	wayContainer	= (WayContainer) shapePaintContainer.shapeContainer;
+							
+							strokeLine(wayContainer.coordinates, wayContainer.rings);
+							break;
+					}
+					
+					// overlapping areas of one path would cancel out each other with the
+					// non-zero winding rule --> only strokes are merged
+					if (paint.stlye != Style.STROKE) {
+						flushBatch();
 					}
-
-					closePath();
 				}
+				
+				// never merge across levels
+				flushBatch();
 			}
 		}
 
@@ -537,49 +664,106 @@ public class CanvasRasterer {
 	}
 	
 	/**
-	 * Draws a line at the given coordinates
-	 * and for the given dash-array
-	 * @param coordinates	Coordinates to draw the line on
-	 * @param dashArray		Dash-Array to use to draw the line
+	 * Forgets the known {@link GraphicsContext} state,
+	 * so everything is applied on the next use
+	 */
+	private void resetState () {
+		defaultLineCap		= context.getLineCap();
+		currentFill			= null;
+		currentStroke		= null;
+		currentLineWidth	= Double.NaN;
+		currentLineCap		= null;
+		currentLineDashes	= null;
+		batchPaint			= null;
+	}
+	
+	/**
+	 * Applies the stroke related values of the given {@link FXPaint},
+	 * if they differ from the current {@link GraphicsContext} state
+	 * @param paint {@link FXPaint} to apply
 	 */
-	private void strokeLine (Point[][] coordinates, Double[] dashArray) {
-		// prepare the helper for the dashed line
-		DashedLineHelper	helper		= new DashedLineHelper(dashArray);
+	private void applyStroke (FXPaint paint) {
+		Paint			fxPaint	= paint.getFxPaint();
+		StrokeLineCap	lineCap	= paint.lineCap != null ? paint.lineCap : defaultLineCap;
+		
+		if (fxPaint != currentStroke) {
+			context.setStroke(fxPaint);
+			currentStroke = fxPaint;
+		}
+		
+		if (paint.strokeWidth != currentLineWidth) {
+			context.setLineWidth(paint.strokeWidth);
+			currentLineWidth = paint.strokeWidth;
+		}
+		
+		if (lineCap != currentLineCap) {
+			context.setLineCap(lineCap);
+			currentLineCap = lineCap;
+		}
+		
+		applyLineDashes(paint.lineDashes);
+	}
+	
+	/**
+	 * Sets the given dashes, if they differ from the current ones
+	 * @param lineDashes Dashes to set, null for a solid line
+	 */
+	private void applyLineDashes (double[] lineDashes) {
+		if (lineDashes != currentLineDashes) {
+			context.setLineDashes(lineDashes);
+			currentLineDashes = lineDashes;
+		}
+	}
+	
+	/**
+	 * Strokes or fills the current path with the current batch {@link FXPaint}
+	 */
+	private void flushBatch () {
+		if (batchPaint == null) {
+			return;
+		}
+		
+		// decide whether to stroke or fill
+		if (batchPaint.stlye == Style.STROKE) {
+			applyStroke(batchPaint);
+			context.stroke();
 
-		for (int i = 0; i < coordinates.length; i++) {
-			Point[] points = coordinates[i];
-			Point before = points[0];
-			Point next = null;
+		} else {
+			Paint fxPaint = batchPaint.getFxPaint();
+			
+			if (fxPaint != currentFill) {
+				context.setFill(fxPaint);
+				currentFill = fxPaint;
+			}
+			
+			// fill the area
+			context.fill();
+		}
+
+		closePath();
+		batchPaint = null;
+	}
+	
+	/**
+	 * Adds the line at the given coordinates to the current path
+	 * @param coordinates	Coordinates to draw the line on
+	 * @param rings			Number of valid rings in the coordinates
+	 */
+	private void strokeLine (CoordinateBuffer[] coordinates, int rings) {
+		for (int i = 0; i < rings; i++) {
+			CoordinateBuffer	points	= coordinates[i];
+			float[]				xy		= points.coordinates;
 
 			// there must be 2 points to draw a line
-			if (points.length < 2) {
+			if (points.size < 2) {
 				continue;
 			}
 
-			// go to the first point
-			context.moveTo(before.x, before.y);
+			// go to the first point and follow the others
+			context.moveTo(xy[0], xy[1]);
 			
-			for (int n = 1; n < points.length; n++) {
-
-				// tell the helper the two points to draw a line
-				// between
-				helper.setPoints(before, points[n]);
-
-				do {
-					// get the next point to move or line to
-					next = helper.nextPoint();
-
-					// move or line to
-					if (helper.line()) {
-						context.lineTo(next.x, next.y);
-					} else {
-						context.moveTo(next.x, next.y);
-					}
-
-				} while (!next.equals(points[n]));
-
-				// remember the current point for the next point
-				before = points[n];
+			for (int n = 1; n < points.size; n++) {
+				context.lineTo(xy[n * 2], xy[n * 2 + 1]);
 			}
 		}
 	}
@@ -607,6 +791,13 @@ public class CanvasRasterer {
 		context.restore();
 	}
 
+	/**
+	 * @param laneSeparators Whether to draw the separators between the lanes of a way
+	 */
+	public void setLaneSeparators (boolean laneSeparators) {
+		this.laneSeparators = laneSeparators;
+	}
+
 	/**
 	 * Sets the {@link Canvas} to draw on
 	 * @param canvas {@link Canvas} to set
@@ -638,7 +829,8 @@ public class CanvasRasterer {
 	private void drawLaneSeparators (WayHelper helper, double dashArrayContent) {
 		ShapePaintContainer	shapeContainer	= wayContainers.get(helper);
 		WayContainer		wayContainer	= (WayContainer)shapeContainer.shapeContainer;
-		Point[][]			coordinates		= wayContainer.coordinates;
+		CoordinateBuffer[]	coordinates		= wayContainer.coordinates;
+		int					rings			= wayContainer.rings;
 		
 		
 		FXPaint	paint 	= (FXPaint)shapeContainer.paint;
@@ -650,17 +842,17 @@ public class CanvasRasterer {
 		for (int i = 0; i < count/2; i++) {
 			
 			if (even) {
-				drawLaneSeparator(manipulate(coordinates, width*i), dashArrayContent);
+				drawLaneSeparator(manipulate(coordinates, rings, width*i), rings, dashArrayContent);
 				
 				if (i > 0) {
-					drawLaneSeparator(manipulate(coordinates, width*i*-1), dashArrayContent);
+					drawLaneSeparator(manipulate(coordinates, rings, width*i*-1), rings, dashArrayContent);
 				}
 			}
 			
 			
 			else {
-				drawLaneSeparator(manipulate(coordinates, (width/2d + width*i)),	dashArrayContent);
-				drawLaneSeparator(manipulate(coordinates, (width/2d + width*i)*-1), dashArrayContent);
+				drawLaneSeparator(manipulate(coordinates, rings, (width/2d + width*i)),		rings, dashArrayContent);
+				drawLaneSeparator(manipulate(coordinates, rings, (width/2d + width*i)*-1),	rings, dashArrayContent);
 			}
 		}
 	}
@@ -670,14 +862,16 @@ public class CanvasRasterer {
 	 * Draws a lane separator on the given coordinates
 	 * and the given dash-array value
 	 * @param coordinates		Coordinates to draw the lane on
+	 * @param rings				Number of valid rings in the coordinates
 	 * @param dashArrayContent	Dash-Array content to use
 	 */
-	private void drawLaneSeparator (Point[][] coordinates, double dashArrayContent) {
+	private void drawLaneSeparator (CoordinateBuffer[] coordinates, int rings, double dashArrayContent) {
 		closePath();
 		beginPath();
 		
-		strokeLine(coordinates, new Double[]{dashArrayContent, dashArrayContent});
+		strokeLine(coordinates, rings);
 
+		applyLineDashes(new double[]{dashArrayContent, dashArrayContent});
 		context.stroke();
 	}
 
@@ -689,19 +883,20 @@ public class CanvasRasterer {
 	 * Will return the given points,
 	 * if the requested move amount is 0
 	 * @param points	Points to move
+	 * @param rings		Number of valid rings in the points
 	 * @param by		Move amount / Amount to move the points with
 	 * @return A new array with the moved points or the given points
 	 */
-	private Point[][] manipulate (Point[][] points, double by) {
+	private CoordinateBuffer[] manipulate (CoordinateBuffer[] points, int rings, double by) {
 		// nothing to do?
 		if (by == 0) {
 			return points;
 		}
 		
 		// prepare
-		Point[][] manipulated = new Point[points.length][];
+		CoordinateBuffer[] manipulated = new CoordinateBuffer[rings];
 		
-		for (int i = 0; i < points.length; i++) {
+		for (int i = 0; i < rings; i++) {
 			manipulated[i] = manipulate(points[i], by);
 		}
 		
@@ -712,51 +907,32 @@ public class CanvasRasterer {
 	 * Manipulates / moves all given points
 	 * The points are moved away from the given points
 	 * and let them act like a center
-	 * Will return the given points,
-	 * if the requested move amount is 0
 	 * @param points	Points to move
 	 * @param by		Move amount / Amount to move the points with
-	 * @return A new array with the moved points or the given points
+	 * @return A new {@link CoordinateBuffer} with the moved points
 	 */
-	private Point[] manipulate (Point[] points, double by) {
-		Point[] manipulated = new Point[points.length];
-		Point	last		= points[0];
-		boolean	first		= true;
+	private CoordinateBuffer manipulate (CoordinateBuffer points, double by) {
+		CoordinateBuffer manipulated = new CoordinateBuffer(points.size);
 		
-		for (int i = 1; i < points.length; i++) {
+		for (int i = 1; i < points.size; i++) {
 			
-			double dx 	= points[i].x - last.x;
-			double dy 	= points[i].y - last.y;
+			double dx 	= points.getX(i) - points.getX(i - 1);
+			double dy 	= points.getY(i) - points.getY(i - 1);
 			
 			double rad	= Math.atan2(dx, dy);
+			double nx	= by * Math.cos(rad);
+			double ny	= by * Math.sin(rad);
 			
-			if (first) {
-				manipulated[0]	= manipulate(last, rad, by);
-				first			= false;
+			if (i == 1) {
+				manipulated.add((float)(points.getX(0) + nx), (float)(points.getY(0) + ny));
 			}
 			
-			manipulated[i]	= manipulate(points[i], rad, by);
-			last			= points[i];
+			manipulated.add((float)(points.getX(i) + nx), (float)(points.getY(i) + ny));
 		}
 		
 		
 		return manipulated;
 	}
-	
-	/**
-	 * Moves the given point for the given
-	 * angle and width
-	 * @param point	{@link Point} to move
-	 * @param rad	Angle
-	 * @param by	Width
-	 * @return The new / moved {@link Point}
-	 */
-	private Point manipulate (Point point, double rad, double by) {
-		double nx = point.x + (by * Math.cos(rad));
-		double ny = point.y + (by * Math.sin(rad));
-		
-		return new Point(nx, ny);
-	}
 
 	
 	/**
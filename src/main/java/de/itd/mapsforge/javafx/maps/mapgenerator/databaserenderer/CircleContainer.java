@@ -17,16 +17,24 @@
 
 package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
 
-
-import org.mapsforge.core.model.Point;
-
+/**
+ * modified by mwatzko, the container is reused through an {@link ObjectPool}
+ * and keeps its center as plain coordinates
+ */
 class CircleContainer implements ShapeContainer {
-    final Point point;
-    final float radius;
+    float radius;
+    double x;
+    double y;
+
+    CircleContainer() {
+            // set by the renderer
+    }
 
-    CircleContainer(Point point, float radius) {
-            this.point = point;
+    CircleContainer set(double x, double y, float radius) {
+            this.x = x;
+            this.y = y;
             this.radius = radius;
+            return this;
     }
 
     @Override
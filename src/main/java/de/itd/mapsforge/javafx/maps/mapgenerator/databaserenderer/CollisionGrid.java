@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid of rectangles to find collisions of labels and symbols without comparing every pair. Rectangles are
+ * stored in primitive arrays that are reused after {@link #clear()}, so adding and testing does not allocate once the
+ * arrays are large enough. Rectangles outside of the grid are stored in the nearest border cells.
+ */
+final class CollisionGrid {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final int cellSize;
+        private final int columns;
+        private final int rows;
+        private final int[] cellHeads;
+        private int entries;
+        private int[] entryNext;
+        private int[] entryRectangle;
+        private double[] rectangles;
+        private int size;
+
+        /**
+         * @param width
+         *            the width of the area covered by the grid.
+         * @param height
+         *            the height of the area covered by the grid.
+         * @param cellSize
+         *            the width and height of a single cell.
+         */
+        CollisionGrid(int width, int height, int cellSize) {
+                this.cellSize = cellSize;
+                this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+                this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+                this.cellHeads = new int[this.columns * this.rows];
+                this.entryNext = new int[INITIAL_CAPACITY];
+                this.entryRectangle = new int[INITIAL_CAPACITY];
+                this.rectangles = new double[INITIAL_CAPACITY * 4];
+                clear();
+        }
+
+        /**
+         * Adds the given rectangle to the grid.
+         */
+        void add(double left, double top, double right, double bottom) {
+                if (this.size * 4 == this.rectangles.length) {
+                        this.rectangles = Arrays.copyOf(this.rectangles, this.rectangles.length * 2);
+                }
+
+                int index = this.size++;
+                this.rectangles[index * 4] = left;
+                this.rectangles[index * 4 + 1] = top;
+                this.rectangles[index * 4 + 2] = right;
+                this.rectangles[index * 4 + 3] = bottom;
+
+                int maxColumn = getColumn(right);
+                int maxRow = getRow(bottom);
+                for (int row = getRow(top); row <= maxRow; ++row) {
+                        for (int column = getColumn(left); column <= maxColumn; ++column) {
+                                if (this.entries == this.entryNext.length) {
+                                        this.entryNext = Arrays.copyOf(this.entryNext, this.entries * 2);
+                                        this.entryRectangle = Arrays.copyOf(this.entryRectangle, this.entries * 2);
+                                }
+
+                                int cell = row * this.columns + column;
+                                this.entryRectangle[this.entries] = index;
+                                this.entryNext[this.entries] = this.cellHeads[cell];
+                                this.cellHeads[cell] = this.entries++;
+                        }
+                }
+        }
+
+        /**
+         * Removes all rectangles from the grid.
+         */
+        void clear() {
+                Arrays.fill(this.cellHeads, -1);
+                this.entries = 0;
+                this.size = 0;
+        }
+
+        /**
+         * @return true if the given rectangle intersects with at least one rectangle of the grid, touching edges do not
+         *         intersect.
+         */
+        boolean intersects(double left, double top, double right, double bottom) {
+                int maxColumn = getColumn(right);
+                int maxRow = getRow(bottom);
+                for (int row = getRow(top); row <= maxRow; ++row) {
+                        for (int column = getColumn(left); column <= maxColumn; ++column) {
+                                for (int entry = this.cellHeads[row * this.columns + column]; entry >= 0; entry = this.entryNext[entry]) {
+                                        int index = this.entryRectangle[entry] * 4;
+                                        if (left < this.rectangles[index + 2] && this.rectangles[index] < right
+                                                        && top < this.rectangles[index + 3] && this.rectangles[index + 1] < bottom) {
+                                                return true;
+                                        }
+                                }
+                        }
+                }
+                return false;
+        }
+
+        /**
+         * @return the number of rectangles in the grid.
+         */
+        int size() {
+                return this.size;
+        }
+
+        private int getColumn(double x) {
+                return Math.min(this.columns - 1, Math.max(0, (int) Math.floor(x / this.cellSize)));
+        }
+
+        private int getRow(double y) {
+                return Math.min(this.rows - 1, Math.max(0, (int) Math.floor(y / this.cellSize)));
+        }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer holding the projected pixel coordinates of one ring of a way,
+ * stored interleaved as x0, y0, x1, y1, ... to avoid a {@link org.mapsforge.core.model.Point}
+ * per node. The buffer keeps its capacity when cleared, so it can be reused for every tile.
+ */
+final class CoordinateBuffer {
+        private static final int DEFAULT_CAPACITY = 16;
+
+        /**
+         * The interleaved x/y coordinates, only the first 2 * size values are valid.
+         */
+        float[] coordinates;
+
+        /**
+         * The number of points in this buffer.
+         */
+        int size;
+
+        CoordinateBuffer() {
+                this(DEFAULT_CAPACITY);
+        }
+
+        CoordinateBuffer(int capacity) {
+                this.coordinates = new float[Math.max(capacity, 1) * 2];
+        }
+
+        void add(float x, float y) {
+                ensureCapacity(this.size + 1);
+                this.coordinates[this.size * 2] = x;
+                this.coordinates[this.size * 2 + 1] = y;
+                ++this.size;
+        }
+
+        void clear() {
+                this.size = 0;
+        }
+
+        /**
+         * Grows the buffer, so it is able to hold at least the given amount of points.
+         *
+         * @param points
+         *            the number of points to hold.
+         */
+        void ensureCapacity(int points) {
+                if (this.coordinates.length < points * 2) {
+                        this.coordinates = Arrays.copyOf(this.coordinates, Math.max(points * 2, this.coordinates.length * 2));
+                }
+        }
+
+        float getX(int index) {
+                return this.coordinates[index * 2];
+        }
+
+        float getY(int index) {
+                return this.coordinates[index * 2 + 1];
+        }
+}
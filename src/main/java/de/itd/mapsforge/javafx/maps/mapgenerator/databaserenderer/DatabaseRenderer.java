@@ -20,11 +20,16 @@ package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import de.itd.mapsforge.javafx.maps.graphics.FXGraphics;
+import de.itd.mapsforge.javafx.maps.graphics.FXPaint;
 import javafx.scene.canvas.Canvas;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -33,7 +38,6 @@ import org.mapsforge.core.model.GeoPoint;
 import org.mapsforge.core.model.Point;
 import org.mapsforge.core.model.Tag;
 import org.mapsforge.core.model.Tile;
-import org.mapsforge.core.util.MercatorProjection;
 import org.mapsforge.map.graphics.Bitmap;
 import org.mapsforge.map.graphics.Paint;
 import org.mapsforge.map.graphics.Style;
@@ -59,14 +63,23 @@ import de.itd.mapsforge.javafx.maps.mapgenerator.MapGeneratorJob;
 public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCallback {
 	
 	private static final Byte DEFAULT_START_ZOOM_LEVEL = Byte.valueOf((byte) 12);
+	
+	/**
+	 * Default tolerance in pixels for the simplification of ways.
+	 */
+	public static final float DEFAULT_SIMPLIFICATION_TOLERANCE = 0.5f;
     private static final byte LAYERS = 11;
+    /**
+     * Pixels added to the stroke width around the tile, where ways are clipped.
+     */
+    private static final float CLIP_MARGIN = 2;
     private static final Logger LOGGER = Logger.getLogger(DatabaseRenderer.class.getName());
     private static final Paint PAINT_WATER_TILE_HIGHTLIGHT = FXGraphics.INSTANCE.getPaint();
     private static final double STROKE_INCREASE = 1.5;
     private static final byte STROKE_MIN_ZOOM_LEVEL = 12;
     private static final Tag TAG_NATURAL_WATER = new Tag("natural", "water");
-    private static final Point[][] WATER_TILE_COORDINATES = getTilePixelCoordinates();
     private static final byte ZOOM_MAX = 22;
+    private static final int RENDER_THEMES = 2;
     
     private static RenderTheme getRenderTheme(XmlRenderTheme jobTheme) {
         try {
@@ -81,12 +94,15 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
         return null;
 	}
 	
-	private static Point[][] getTilePixelCoordinates() {
-	        Point point1 = new Point(0, 0);
-	        Point point2 = new Point(Tile.TILE_SIZE, 0);
-	        Point point3 = new Point(Tile.TILE_SIZE, Tile.TILE_SIZE);
-	        Point point4 = new Point(0, Tile.TILE_SIZE);
-	        return new Point[][] { { point1, point2, point3, point4, point1 } };
+	private static WayContainer getTilePixelCoordinates(WayContainer wayContainer, float left, float top, float size) {
+	        wayContainer.set(null, 1);
+	        CoordinateBuffer coordinates = wayContainer.coordinates[0];
+	        coordinates.add(left, top);
+	        coordinates.add(left + size, top);
+	        coordinates.add(left + size, top + size);
+	        coordinates.add(left, top + size);
+	        coordinates.add(left, top);
+	        return wayContainer;
 	}
 	
 	private static byte getValidLayer(byte layer) {
@@ -101,19 +117,36 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
 	
 	private final List<PointTextContainer> areaLabels;
 	private final CanvasRasterer canvasRasterer;
-	private Point[][] coordinates;
+	private final ObjectPool<CircleContainer> circleContainers;
+	private WayContainer clippedShapeContainer;
+	private float clippedShapeMargin;
 	private Tile currentTile;
+	private int currentTileSize;
+	private final DependencyTable dependencyTable;
+	private Tile dependencyTile;
 	private List<List<ShapePaintContainer>> drawingLayers;
+	private LabelOverlay labelOverlay;
 	private final LabelPlacement labelPlacement;
 	private final MapDatabase mapDatabase;
+	private final MetatileReader metatileReader;
+	private final PoiDensityFilter poiDensityFilter;
+	private int poiPriority;
 	private List<PointTextContainer> nodes;
 	private final List<SymbolContainer> pointSymbols;
-	private Point poiPosition;
+	private double poiX;
+	private double poiY;
 	private XmlRenderTheme previousJobTheme;
 	private float previousTextScale;
 	private byte previousZoomLevel;
 	private RenderTheme renderTheme;
-	private ShapeContainer shapeContainer;
+	private final Map<XmlRenderTheme, RenderTheme> renderThemes;
+	private float scaleFactor = 1;
+	private WayContainer shapeContainer;
+	private final ObjectPool<ShapePaintContainer> shapePaintContainers;
+	private final TileClipper tileClipper;
+	private final TileProjector tileProjector;
+	private final ObjectPool<WayContainer> wayContainers;
+	private final WaySimplifier waySimplifier;
 	private final List<WayTextContainer> wayNames;
 	private final List<List<List<ShapePaintContainer>>> ways;
 	private final List<SymbolContainer> waySymbols;
@@ -121,6 +154,18 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
 	// render rule to render based on
 	private LiveRenderRule renderRule = new LiveRenderRule();
 	
+	// what a preview leaves out, and whether the current job renders one
+	private static final Set<Drawable> PREVIEW_EXCLUDED = EnumSet.of(
+			Drawable.AREA_CAPTION,
+			Drawable.AREA_SYMBOL,
+			Drawable.POINT_OF_INTEREST_CAPTION,
+			Drawable.POINT_OF_INTEREST_SYMBOL,
+			Drawable.WAY_SYMBOL,
+			Drawable.WAY_TEXT,
+			Drawable.WAY_SEPARATOR
+	);
+	private boolean preview;
+	
 
 	/**
      * Constructs a new DatabaseRenderer.
@@ -129,9 +174,26 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
      *            the MapDatabase from which the map data will be read.
      */
     public DatabaseRenderer(MapDatabase mapDatabase) {
+            this(mapDatabase, new DependencyTable());
+    }
+
+	/**
+     * Constructs a new DatabaseRenderer, that shares the label dependencies
+     * between tiles with other DatabaseRenderers of the same map.
+     *
+     * @param mapDatabase
+     *            the MapDatabase from which the map data will be read.
+     * @param dependencyTable
+     *            the DependencyTable for labels and symbols that cross tile borders.
+     */
+    public DatabaseRenderer(MapDatabase mapDatabase, DependencyTable dependencyTable) {
             this.mapDatabase = mapDatabase;
+            this.metatileReader = new MetatileReader(mapDatabase);
             this.canvasRasterer = new CanvasRasterer();
-            this.labelPlacement = new LabelPlacement();
+            this.dependencyTable = dependencyTable;
+            this.labelPlacement = new LabelPlacement(dependencyTable);
+            this.poiDensityFilter = new PoiDensityFilter();
+            this.labelPlacement.poiDensityFilter = this.poiDensityFilter;
 
             this.ways = new ArrayList<List<List<ShapePaintContainer>>>(LAYERS);
             this.wayNames = new ArrayList<WayTextContainer>(64);
@@ -140,6 +202,41 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
             this.waySymbols = new ArrayList<SymbolContainer>(64);
             this.pointSymbols = new ArrayList<SymbolContainer>(64);
 
+            this.tileClipper = new TileClipper();
+            this.tileProjector = new TileProjector();
+            this.waySimplifier = new WaySimplifier();
+            this.waySimplifier.setTolerance(DEFAULT_SIMPLIFICATION_TOLERANCE);
+            this.renderThemes = new LinkedHashMap<XmlRenderTheme, RenderTheme>(4, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<XmlRenderTheme, RenderTheme> eldest) {
+                            if (size() > RENDER_THEMES) {
+                                    eldest.getValue().destroy();
+                                    return true;
+                            }
+                            return false;
+                    }
+            };
+            this.circleContainers = new ObjectPool<CircleContainer>() {
+                    @Override
+                    protected CircleContainer create() {
+                            return new CircleContainer();
+                    }
+            };
+            this.shapePaintContainers = new ObjectPool<ShapePaintContainer>() {
+                    @Override
+                    protected ShapePaintContainer create() {
+                            return new ShapePaintContainer();
+                    }
+            };
+            this.wayContainers = new ObjectPool<WayContainer>() {
+                    @Override
+                    protected WayContainer create() {
+                            return new WayContainer();
+                    }
+            };
+
             PAINT_WATER_TILE_HIGHTLIGHT.setStyle(Style.FILL);
             PAINT_WATER_TILE_HIGHTLIGHT.setColor(FXGraphics.INSTANCE.getColor(Color.CYAN));
     }
@@ -159,6 +256,85 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
 //    	return labelPlacement;
 //    }
     
+    /**
+     * @return The {@link DependencyTable} for labels and symbols that cross tile borders
+     */
+    public DependencyTable getDependencyTable () {
+    	return dependencyTable;
+    }
+    
+    /**
+     * @return The {@link LabelOverlay} that places the labels and symbols, null if they are drawn on the tiles
+     */
+    public LabelOverlay getLabelOverlay () {
+    	return labelOverlay;
+    }
+    
+    /**
+     * Sets the {@link LabelOverlay} that collects the labels and symbols of
+     * the rendered tiles, instead of drawing them on the tiles.
+     * 
+     * @param labelOverlay The {@link LabelOverlay} to use, null to draw them on the tiles
+     */
+    public void setLabelOverlay (LabelOverlay labelOverlay) {
+    	this.labelOverlay = labelOverlay;
+    }
+    
+    /**
+     * @return The {@link LabelSpriteCache} the labels on the tiles are drawn from
+     */
+    public LabelSpriteCache getLabelSpriteCache () {
+    	return canvasRasterer.getLabelSpriteCache();
+    }
+    
+    /**
+     * @return The {@link PoiDensityFilter} that reduces the labels of points of interest before they are placed
+     */
+    public PoiDensityFilter getPoiDensityFilter () {
+    	return poiDensityFilter;
+    }
+    
+    /**
+     * @return The tolerance in pixels, in which points of a way are removed after the projection, zero if disabled
+     */
+    public float getSimplificationTolerance () {
+    	return waySimplifier.getTolerance();
+    }
+    
+    /**
+     * Sets the tolerance in pixels, in which points of a way are removed after
+     * the projection. Since it is applied in pixels, ways are simplified the
+     * most on low zoom levels, where many nodes are projected to the same pixel.
+     * 
+     * @param tolerance The tolerance in pixels, zero to disable the simplification
+     */
+    public void setSimplificationTolerance (float tolerance) {
+    	waySimplifier.setTolerance(tolerance);
+    }
+    
+    /**
+     * @return The number of pixels a tile is rendered with per pixel of the map
+     */
+    public float getScaleFactor () {
+    	return scaleFactor;
+    }
+    
+    /**
+     * Sets the number of pixels a tile is rendered with per pixel of the map,
+     * for screens with a high resolution. The canvas of a job has to be
+     * larger by this factor, stroke widths and text sizes of the render theme
+     * are scaled with it.
+     * 
+     * @param scaleFactor The factor to scale the tiles with, one by default
+     */
+    public void setScaleFactor (float scaleFactor) {
+    	this.scaleFactor = scaleFactor;
+    	
+    	// the render theme is scaled again on the next job
+    	this.previousZoomLevel = Byte.MIN_VALUE;
+    	this.previousTextScale = -1;
+    }
+    
     /**
      * @return The {@link LiveRenderRule}
      */
@@ -177,17 +353,74 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
      * @return true if the job was executed successfully, false otherwise.
      */
     public boolean executeJob(MapGeneratorJob mapGeneratorJob, Canvas canvas) {
+            return executeJob(mapGeneratorJob, 1, canvas);
+    }
+
+    /**
+     * Called when a job for a metatile needs to be executed. The map data of all its tiles is rendered at once on
+     * the canvas, so labels and symbols are placed across the borders of the tiles without being cut.
+     *
+     * @param mapGeneratorJob
+     *            the job for the upper left tile of the metatile.
+     * @param metatileSize
+     *            the number of tiles in each direction of the metatile.
+     * @param canvas
+     *            the canvas for the generated metatile, metatileSize * Tile.TILE_SIZE * scaleFactor pixels wide and high.
+     * @return true if the job was executed successfully, false otherwise.
+     */
+    public boolean executeJob(MapGeneratorJob mapGeneratorJob, int metatileSize, Canvas canvas) {
+            return executeJob(mapGeneratorJob, metatileSize, canvas, null);
+    }
+
+    /**
+     * Called when a job for a metatile needs to be executed. The given listener is called once the areas and ways
+     * have been drawn and before the labels and symbols are, so the canvas can be shown in the meantime.
+     *
+     * @param mapGeneratorJob
+     *            the job for the upper left tile of the metatile.
+     * @param metatileSize
+     *            the number of tiles in each direction of the metatile.
+     * @param canvas
+     *            the canvas for the generated metatile, metatileSize * Tile.TILE_SIZE * scaleFactor pixels wide and high,
+     *            may be null if the job {@link MapGeneratorJob#isLabelsOnly() only collects labels}.
+     * @param waysDrawn
+     *            called after the areas and ways have been drawn, it must not return before it is done with the
+     *            canvas, may be null.
+     * @return true if the job was executed successfully, false otherwise.
+     */
+    public boolean executeJob(MapGeneratorJob mapGeneratorJob, int metatileSize, Canvas canvas, Runnable waysDrawn) {
+            // neighbours that are rendered at the same time place their labels after this tile, see DependencyTable
+            if (!mapGeneratorJob.jobParameters.overlayLabels && !mapGeneratorJob.isPreview()
+                            && !mapGeneratorJob.isLabelsOnly()) {
+                    this.dependencyTile = getDependencyTile(mapGeneratorJob.tile, metatileSize);
+                    this.dependencyTable.begin(this.dependencyTile);
+            }
+
+            try {
+                    return executeJobInProgress(mapGeneratorJob, metatileSize, canvas, waysDrawn);
+            } finally {
+                    endDependencyTile();
+            }
+    }
+
+    private boolean executeJobInProgress(MapGeneratorJob mapGeneratorJob, int metatileSize, Canvas canvas,
+                    Runnable waysDrawn) {
             this.currentTile = mapGeneratorJob.tile;
+            this.currentTileSize = Math.round(metatileSize * Tile.TILE_SIZE * this.scaleFactor);
+            this.preview = mapGeneratorJob.isPreview();
+            this.tileProjector.setTile(this.currentTile, this.scaleFactor);
 
             XmlRenderTheme jobTheme = mapGeneratorJob.jobParameters.jobTheme;
             if (!jobTheme.equals(this.previousJobTheme)) {
-                    if (this.renderTheme != null) {
-                            this.renderTheme.destroy();
-                    }
-                    this.renderTheme = getRenderTheme(jobTheme);
+                    // the themes of jobs with other parameters are kept, so they are not parsed again for each job
+                    this.renderTheme = this.renderThemes.get(jobTheme);
                     if (this.renderTheme == null) {
-                            this.previousJobTheme = null;
-                            return false;
+                            this.renderTheme = getRenderTheme(jobTheme);
+                            if (this.renderTheme == null) {
+                                    this.previousJobTheme = null;
+                                    return false;
+                            }
+                            this.renderThemes.put(jobTheme, this.renderTheme);
                     }
                     createWayLists();
                     this.previousJobTheme = jobTheme;
@@ -205,39 +438,108 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
 
             float textScale = mapGeneratorJob.jobParameters.textScale;
             if (Float.compare(textScale, this.previousTextScale) != 0) {
-                    this.renderTheme.scaleTextSize(textScale);
+                    this.renderTheme.scaleTextSize(textScale * this.scaleFactor);
                     this.previousTextScale = textScale;
             }
 
             if (this.mapDatabase != null) {
-                    MapReadResult mapReadResult = this.mapDatabase.readMapData(this.currentTile);
-                    processReadMapData(mapReadResult);
+                    if (cancel(mapGeneratorJob)) {
+                            return false;
+                    }
+
+                    if (metatileSize == 1) {
+                            MapReadResult mapReadResult = this.mapDatabase.readMapData(this.currentTile);
+                            if (cancel(mapGeneratorJob)) {
+                                    return false;
+                            }
+                            processReadMapData(mapReadResult);
+                    } else {
+                            this.metatileReader.read(this.currentTile, metatileSize);
+                            if (cancel(mapGeneratorJob)) {
+                                    return false;
+                            }
+                            processMetatileData(metatileSize);
+                    }
             }
 
-            this.nodes = this.labelPlacement.placeLabels(this.nodes, this.pointSymbols, this.areaLabels, this.currentTile);
+            // the label placement marks the labels as drawn for the neighbours, so this is the last checkpoint
+            if (cancel(mapGeneratorJob)) {
+                    return false;
+            }
+
+            // with an overlay, labels and symbols are placed for the whole viewport instead, a preview has none
+            LabelOverlay labelOverlay = this.labelOverlay;
+            boolean drawLabels = !mapGeneratorJob.jobParameters.overlayLabels && !this.preview;
+
+            // the tile has already been drawn, only the overlay misses its labels
+            if (mapGeneratorJob.isLabelsOnly()) {
+                    if (!drawLabels && !this.preview && labelOverlay != null) {
+                            putLabels(labelOverlay, metatileSize);
+                    }
+                    clearLists();
+                    this.metatileReader.clear();
+                    return true;
+            }
 
             this.canvasRasterer.setCanvas(canvas);
+            this.canvasRasterer.setLaneSeparators(isAllowed(Drawable.WAY_SEPARATOR));
             this.canvasRasterer.fill(this.renderTheme.getMapBackground());
         	this.canvasRasterer.drawWays(this.ways);
+
+            if (waysDrawn != null) {
+                    waysDrawn.run();
+            }
+
+            if (drawLabels) {
+                    Tile labelTile = getDependencyTile(this.currentTile, metatileSize);
+                    this.labelPlacement.setTileSize(this.currentTileSize);
+                    this.nodes = this.labelPlacement.placeLabels(this.nodes, this.pointSymbols, this.areaLabels, labelTile);
+                    endDependencyTile();
+            } else if (!this.preview && labelOverlay != null) {
+                    putLabels(labelOverlay, metatileSize);
+            }
+
             this.canvasRasterer.drawSymbols(this.waySymbols);
-            this.canvasRasterer.drawSymbols(this.pointSymbols);
+            if (drawLabels) {
+                    this.canvasRasterer.drawSymbols(this.pointSymbols);
+            }
             this.canvasRasterer.drawWayNames(this.wayNames);
-            this.canvasRasterer.drawNodes(this.nodes);
-            this.canvasRasterer.drawNodes(this.areaLabels);
-
-            if (mapGeneratorJob.debugSettings.drawTileFrames) {
-                    this.canvasRasterer.drawTileFrame();
+            if (drawLabels) {
+                    this.canvasRasterer.drawNodes(this.nodes);
+                    this.canvasRasterer.drawNodes(this.areaLabels);
             }
 
-            if (mapGeneratorJob.debugSettings.drawTileCoordinates) {
-                    this.canvasRasterer.drawTileCoordinates(this.currentTile);
+            for (int row = 0; row < metatileSize; ++row) {
+                    for (int column = 0; column < metatileSize; ++column) {
+                            double x = column * Tile.TILE_SIZE * this.scaleFactor;
+                            double y = row * Tile.TILE_SIZE * this.scaleFactor;
+
+                            if (mapGeneratorJob.debugSettings.drawTileFrames) {
+                                    this.canvasRasterer.drawTileFrame(x, y, this.scaleFactor);
+                            }
+
+                            if (mapGeneratorJob.debugSettings.drawTileCoordinates) {
+                                    this.canvasRasterer.drawTileCoordinates(new Tile(this.currentTile.tileX + column,
+                                                    this.currentTile.tileY + row, this.currentTile.zoomLevel), x, y, this.scaleFactor);
+                            }
+                    }
             }
 
             clearLists();
+            this.metatileReader.clear();
 
             return true;
     }
 
+    /**
+     * Adds the labels and symbols of the current tile to the given overlay, the labels of points of interest are
+     * culled like on the tiles.
+     */
+    private void putLabels(LabelOverlay labelOverlay, int metatileSize) {
+            this.poiDensityFilter.filter(this.nodes, this.currentTile.zoomLevel, this.currentTileSize);
+            labelOverlay.put(this.currentTile, metatileSize, this.nodes, this.areaLabels, this.pointSymbols);
+    }
+
     /**
      * @return the start point (may be null).
      */
@@ -276,25 +578,26 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
 
     @Override
     public void renderArea(Paint fill, Paint stroke, int level) {
-    	if (renderRule.isAllowed(Drawable.AREA)) {
+    	if (isAllowed(Drawable.AREA)) {
             List<ShapePaintContainer> list = this.drawingLayers.get(level);
-            list.add(new ShapePaintContainer(this.shapeContainer, fill));
-            list.add(new ShapePaintContainer(this.shapeContainer, stroke));
+            WayContainer shape = getClippedShapeContainer(stroke);
+            list.add(this.shapePaintContainers.acquire().set(shape, fill));
+            list.add(this.shapePaintContainers.acquire().set(shape, stroke));
     	}
     }
 
     @Override
     public void renderAreaCaption(String caption, float verticalOffset, Paint fill, Paint stroke) {
-    	if (renderRule.isAllowed(Drawable.AREA_CAPTION)) {
-            Point centerPosition = GeometryUtils.calculateCenterOfBoundingBox(this.coordinates[0]);
+    	if (isAllowed(Drawable.AREA_CAPTION)) {
+            Point centerPosition = GeometryUtils.calculateCenterOfBoundingBox(this.shapeContainer.coordinates[0]);
             this.areaLabels.add(new PointTextContainer(caption, centerPosition.x, centerPosition.y, fill, stroke));
     	}
     }
 
     @Override
     public void renderAreaSymbol(Bitmap symbol) {
-    	if (renderRule.isAllowed(Drawable.AREA_SYMBOL)) {
-            Point centerPosition = GeometryUtils.calculateCenterOfBoundingBox(this.coordinates[0]);
+    	if (isAllowed(Drawable.AREA_SYMBOL)) {
+            Point centerPosition = GeometryUtils.calculateCenterOfBoundingBox(this.shapeContainer.coordinates[0]);
             int halfSymbolWidth = symbol.getWidth() / 2;
             int halfSymbolHeight = symbol.getHeight() / 2;
             double pointX = centerPosition.x - halfSymbolWidth;
@@ -306,28 +609,30 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
 
     @Override
     public void renderPointOfInterestCaption(String caption, float verticalOffset, Paint fill, Paint stroke) {
-    	if (renderRule.isAllowed(Drawable.POINT_OF_INTEREST_CAPTION)) {
-            this.nodes.add(new PointTextContainer(caption, this.poiPosition.x, this.poiPosition.y + verticalOffset, fill,
-                            stroke));
+    	if (isAllowed(Drawable.POINT_OF_INTEREST_CAPTION)) {
+            PointTextContainer label = new PointTextContainer(caption, this.poiX, this.poiY + verticalOffset, fill, stroke);
+            label.priority = this.poiPriority;
+            this.nodes.add(label);
     	}
     }
 
     @Override
     public void renderPointOfInterestCircle(float radius, Paint fill, Paint stroke, int level) {
-    	if (renderRule.isAllowed(Drawable.POINT_OF_INTEREST_CIRCLE)) {
+    	if (isAllowed(Drawable.POINT_OF_INTEREST_CIRCLE)) {
             List<ShapePaintContainer> list = this.drawingLayers.get(level);
-            list.add(new ShapePaintContainer(new CircleContainer(this.poiPosition, radius), fill));
-            list.add(new ShapePaintContainer(new CircleContainer(this.poiPosition, radius), stroke));
+            CircleContainer circleContainer = this.circleContainers.acquire().set(this.poiX, this.poiY, radius);
+            list.add(this.shapePaintContainers.acquire().set(circleContainer, fill));
+            list.add(this.shapePaintContainers.acquire().set(circleContainer, stroke));
     	}
     }
 
     @Override
     public void renderPointOfInterestSymbol(Bitmap symbol) {
-    	if (renderRule.isAllowed(Drawable.POINT_OF_INTEREST_SYMBOL)) {
+    	if (isAllowed(Drawable.POINT_OF_INTEREST_SYMBOL)) {
             int halfSymbolWidth = symbol.getWidth() / 2;
             int halfSymbolHeight = symbol.getHeight() / 2;
-            double pointX = this.poiPosition.x - halfSymbolWidth;
-            double pointY = this.poiPosition.y - halfSymbolHeight;
+            double pointX = this.poiX - halfSymbolWidth;
+            double pointY = this.poiY - halfSymbolHeight;
             Point shiftedCenterPosition = new Point(pointX, pointY);
             this.pointSymbols.add(new SymbolContainer(symbol, shiftedCenterPosition));
     	}
@@ -335,25 +640,73 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
 
     @Override
     public void renderWay(Paint stroke, int level) {
-    	if (renderRule.isAllowed(Drawable.WAY)) {
-            this.drawingLayers.get(level).add(new ShapePaintContainer(this.shapeContainer, stroke));
+    	if (isAllowed(Drawable.WAY)) {
+            WayContainer shape = getClippedShapeContainer(stroke);
+            this.drawingLayers.get(level).add(this.shapePaintContainers.acquire().set(shape, stroke));
     	}
     }
 
     @Override
     public void renderWaySymbol(Bitmap symbolBitmap, boolean alignCenter, boolean repeatSymbol) {
-    	if (renderRule.isAllowed(Drawable.WAY_SYMBOL)) {
-            WayDecorator.renderSymbol(symbolBitmap, alignCenter, repeatSymbol, this.coordinates, this.waySymbols);
+    	if (isAllowed(Drawable.WAY_SYMBOL)) {
+            WayDecorator.renderSymbol(symbolBitmap, alignCenter, repeatSymbol, this.shapeContainer.coordinates[0],
+                            this.waySymbols);
     	}
     }
 
     @Override
     public void renderWayText(String textKey, Paint fill, Paint stroke) {
-    	if (renderRule.isAllowed(Drawable.WAY_TEXT)) {
-            WayDecorator.renderText(textKey, fill, stroke, this.coordinates, this.wayNames);
+    	if (isAllowed(Drawable.WAY_TEXT)) {
+            WayDecorator.renderText(textKey, fill, stroke, this.shapeContainer.coordinates[0], this.wayNames);
     	}
     }
 
+    /**
+     * @param drawable
+     *            the kind of element to render.
+     * @return true if the render rule allows the given element and the current job renders it, false otherwise.
+     */
+    private boolean isAllowed(Drawable drawable) {
+            return this.renderRule.isAllowed(drawable) && !(this.preview && PREVIEW_EXCLUDED.contains(drawable));
+    }
+
+    /**
+     * Lets the neighbours of the tile, that has been registered at the start of the job, place their labels.
+     */
+    private void endDependencyTile() {
+            if (this.dependencyTile != null) {
+                    this.dependencyTable.end(this.dependencyTile);
+                    this.dependencyTile = null;
+            }
+    }
+
+    /**
+     * @return the tile under which the dependencies of the given tile are kept, in units of metatiles.
+     */
+    private static Tile getDependencyTile(Tile tile, int metatileSize) {
+            if (metatileSize == 1) {
+                    return tile;
+            }
+            return new Tile(tile.tileX / metatileSize, tile.tileY / metatileSize, tile.zoomLevel);
+    }
+
+    /**
+     * Checks whether the given job has been cancelled, and discards everything that has been collected for it if so.
+     *
+     * @param mapGeneratorJob
+     *            the job that is executed.
+     * @return true if the job has been cancelled, false otherwise.
+     */
+    private boolean cancel(MapGeneratorJob mapGeneratorJob) {
+            if (!mapGeneratorJob.isCancelled()) {
+                    return false;
+            }
+
+            clearLists();
+            this.metatileReader.clear();
+            return true;
+    }
+
     private void clearLists() {
             for (int i = this.ways.size() - 1; i >= 0; --i) {
                     List<List<ShapePaintContainer>> innerWayList = this.ways.get(i);
@@ -367,6 +720,10 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
             this.pointSymbols.clear();
             this.wayNames.clear();
             this.waySymbols.clear();
+
+            this.circleContainers.releaseAll();
+            this.shapePaintContainers.releaseAll();
+            this.wayContainers.releaseAll();
     }
 
     private void createWayLists() {
@@ -387,35 +744,60 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
                     return;
             }
 
-            if (renderRule.isAllowed(Drawable.POINT_OF_INTEREST)) {
+            if (isAllowed(Drawable.POINT_OF_INTEREST)) {
 	            for (PointOfInterest pointOfInterest : mapReadResult.pointOfInterests) {
 	                    renderPointOfInterest(pointOfInterest);
 	            }
             }
 
-            if (renderRule.isAllowed(Drawable.WAY)) {
+            if (isAllowed(Drawable.WAY)) {
 	            for (Way way : mapReadResult.ways) {
                     renderWay(way);
 	            }
             }
 
-            if (renderRule.isAllowed(Drawable.BACKGROUND_WATER)) {
+            if (isAllowed(Drawable.BACKGROUND_WATER)) {
 	            if (mapReadResult.isWater) {
-	                    renderWaterBackground();
+	                    renderWaterBackground(0, 0);
+	            }
+            }
+    }
+
+    private void processMetatileData(int metatileSize) {
+            if (isAllowed(Drawable.POINT_OF_INTEREST)) {
+	            for (PointOfInterest pointOfInterest : this.metatileReader.pointOfInterests) {
+	                    renderPointOfInterest(pointOfInterest);
+	            }
+            }
+
+            if (isAllowed(Drawable.WAY)) {
+	            for (Way way : this.metatileReader.ways) {
+                    renderWay(way);
+	            }
+            }
+
+            if (isAllowed(Drawable.BACKGROUND_WATER)) {
+	            for (int i = 0; i < metatileSize * metatileSize; ++i) {
+	                    if (this.metatileReader.water[i]) {
+	                            float size = Tile.TILE_SIZE * this.scaleFactor;
+	                            renderWaterBackground((i % metatileSize) * size, (i / metatileSize) * size);
+	                    }
 	            }
             }
     }
 
     private void renderPointOfInterest(PointOfInterest pointOfInterest) {
         this.drawingLayers = this.ways.get(getValidLayer(pointOfInterest.layer));
-        this.poiPosition = scaleGeoPoint(pointOfInterest.position);
+        this.poiX = this.tileProjector.projectX(pointOfInterest.position.longitude);
+        this.poiY = this.tileProjector.projectY(pointOfInterest.position.latitude);
+        this.poiPriority = this.poiDensityFilter.getTagPriority(pointOfInterest.tags);
         this.renderTheme.matchNode(this, pointOfInterest.tags, this.currentTile.zoomLevel);
     }
 
-    private void renderWaterBackground() {
+    private void renderWaterBackground(float left, float top) {
         this.drawingLayers = this.ways.get(0);
-        this.coordinates = WATER_TILE_COORDINATES;
-        this.shapeContainer = new WayContainer(this.coordinates);
+        this.shapeContainer = getTilePixelCoordinates(this.wayContainers.acquire(), left, top, Tile.TILE_SIZE * this.scaleFactor);
+        this.clippedShapeContainer = null;
         this.renderTheme.matchClosedWay(this, Arrays.asList(TAG_NATURAL_WATER), this.currentTile.zoomLevel);
     }
 
@@ -424,18 +806,14 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
             // TODO what about the label position?
 
             GeoPoint[][] geoPoints = way.geoPoints;
-            this.coordinates = new Point[geoPoints.length][];
-            for (int i = 0; i < this.coordinates.length; ++i) {
-                    this.coordinates[i] = new Point[geoPoints[i].length];
-
-                    for (int j = 0; j < this.coordinates[i].length; ++j) {
-                            this.coordinates[i][j] = scaleGeoPoint(geoPoints[i][j]);
-                    }
+            this.shapeContainer = this.wayContainers.acquire().set(way, geoPoints.length);
+            this.clippedShapeContainer = null;
+            for (int i = 0; i < geoPoints.length; ++i) {
+                    this.tileProjector.project(geoPoints[i], this.shapeContainer.coordinates[i]);
             }
+            this.waySimplifier.simplify(this.shapeContainer);
             
-            this.shapeContainer = new WayContainer(way, this.coordinates);
-            
-            if (GeometryUtils.isClosedWay(this.coordinates[0])) {
+            if (GeometryUtils.isClosedWay(this.shapeContainer.coordinates[0])) {
                     this.renderTheme.matchClosedWay(this, way.tags, this.currentTile.zoomLevel);
             } else {
                     this.renderTheme.matchLinearWay(this, way.tags, this.currentTile.zoomLevel);
@@ -445,19 +823,38 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
     }
 
     /**
-     * Converts the given GeoPoint into XY coordinates on the current tile.
+     * Returns the current way clipped to the tile plus a margin for the given stroke, so only the visible part is
+     * rasterised. The unclipped way is kept in {@link #shapeContainer} for labels and symbols. The clipped way is
+     * reused for all render instructions of the way, as long as their stroke fits into its margin.
      *
-     * @param geoPoint
-     *            the GeoPoint to convert.
-     * @return the XY coordinates on the current tile.
+     * @param stroke
+     *            the stroke the way is going to be drawn with (may be null).
+     * @return the clipped way, or the way itself if it doesn't need to be clipped.
      */
-    private Point scaleGeoPoint(GeoPoint geoPoint) {
-            double pixelX = MercatorProjection.longitudeToPixelX(geoPoint.longitude, this.currentTile.zoomLevel)
-                            - this.currentTile.getPixelX();
-            double pixelY = MercatorProjection.latitudeToPixelY(geoPoint.latitude, this.currentTile.zoomLevel)
-                            - this.currentTile.getPixelY();
+    private WayContainer getClippedShapeContainer(Paint stroke) {
+            FXPaint paint = (FXPaint) stroke;
+
+            // dashes would restart at the clipped ends and not fit to the neighbour tiles
+            if (this.shapeContainer.way == null || (paint != null && paint.lineDashes != null)) {
+                    return this.shapeContainer;
+            }
+
+            float margin = CLIP_MARGIN + (paint != null ? (float) paint.strokeWidth : 0);
+            if (this.clippedShapeContainer != null && margin <= this.clippedShapeMargin) {
+                    return this.clippedShapeContainer;
+            }
+
+            this.tileClipper.setClip(-margin, -margin, this.currentTileSize + margin, this.currentTileSize + margin);
+            if (this.tileClipper.contains(this.shapeContainer)) {
+                    this.clippedShapeContainer = this.shapeContainer;
+            } else {
+                    this.clippedShapeContainer = this.wayContainers.acquire().set(this.shapeContainer.way, 0);
+                    this.tileClipper.clip(this.shapeContainer, GeometryUtils.isClosedWay(this.shapeContainer.coordinates[0]),
+                                    this.clippedShapeContainer);
+            }
+            this.clippedShapeMargin = margin;
 
-            return new Point((float) pixelX, (float) pixelY);
+            return this.clippedShapeContainer;
     }
 
     /**
@@ -468,14 +865,16 @@ public class DatabaseRenderer implements org.mapsforge.map.rendertheme.RenderCal
      */
     private void setScaleStrokeWidth(byte zoomLevel) {
             int zoomLevelDiff = Math.max(zoomLevel - STROKE_MIN_ZOOM_LEVEL, 0);
-            this.renderTheme.scaleStrokeWidth((float) Math.pow(STROKE_INCREASE, zoomLevelDiff));
+            this.renderTheme.scaleStrokeWidth((float) Math.pow(STROKE_INCREASE, zoomLevelDiff) * this.scaleFactor);
     }
 
     public void destroy() {
-            if (this.renderTheme != null) {
-                    this.renderTheme.destroy();
-                    this.renderTheme = null;
+            for (RenderTheme theme : this.renderThemes.values()) {
+                    theme.destroy();
             }
+            this.renderThemes.clear();
+            this.renderTheme = null;
+            this.previousJobTheme = null;
     }
 
 
@@ -18,10 +18,7 @@
 package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import javafx.scene.shape.Rectangle;
 
@@ -55,7 +52,7 @@ class DependencyCache {
         /**
          * This class holds all the information off the possible dependencies on a tile.
          */
-        private static class DependencyOnTile {
+        static class DependencyOnTile {
                 boolean drawn;
                 List<Dependency<DependencyText>> labels;
                 List<Dependency<DependencySymbol>> symbols;
@@ -90,6 +87,22 @@ class DependencyCache {
                         }
                         this.labels.add(toAdd);
                 }
+
+                /**
+                 * @return the number of dependency labels.
+                 */
+                int getLabelCount() {
+                        List<Dependency<DependencyText>> labels = this.labels;
+                        return labels == null ? 0 : labels.size();
+                }
+
+                /**
+                 * @return the number of dependency symbols.
+                 */
+                int getSymbolCount() {
+                        List<Dependency<DependencySymbol>> symbols = this.symbols;
+                        return symbols == null ? 0 : symbols.size();
+                }
         }
 
         /**
@@ -109,7 +122,7 @@ class DependencyCache {
                  */
                 DependencySymbol(Bitmap symbol, Tile tile) {
                         this.symbol = symbol;
-                        this.tiles = new LinkedList<Tile>();
+                        this.tiles = new ArrayList<Tile>(4);
                         this.tiles.add(tile);
                 }
 
@@ -152,7 +165,7 @@ class DependencyCache {
                         this.paintFront = paintFront;
                         this.paintBack = paintBack;
                         this.text = text;
-                        this.tiles = new LinkedList<Tile>();
+                        this.tiles = new ArrayList<Tile>(4);
                         this.tiles.add(tile);
                         this.boundary = boundary;
                 }
@@ -166,20 +179,39 @@ class DependencyCache {
         private Tile currentTile;
 
         /**
-         * Hash table, that connects the Tiles with their entries in the dependency cache.
+         * Table, that connects the Tiles with their entries in the dependency cache.
          */
-        final Map<Tile, DependencyOnTile> dependencyTable;
+        final DependencyTable dependencyTable;
         Dependency<DependencyText> depLabel;
+        private int[] lockedStripes;
         Rectangle rect1;
         Rectangle rect2;
         SymbolContainer smb;
+        /**
+         * Width and height of the current tile in pixels, larger than a single tile when a metatile is rendered.
+         */
+        private int tileSize = Tile.TILE_SIZE;
         DependencyOnTile tmp;
 
         /**
-         * Constructor for this class, that creates a hashtable for the dependencies.
+         * Constructor for this class.
+         *
+         * @param dependencyTable
+         *            the table for the dependencies, may be shared with other renderers.
+         */
+        DependencyCache(DependencyTable dependencyTable) {
+                this.dependencyTable = dependencyTable;
+        }
+
+        /**
+         * Sets the width and height in pixels of the tiles that are passed to
+         * {@link #generateTileAndDependencyOnTile(Tile)}, neighbours are expected at this distance.
+         *
+         * @param tileSize
+         *            the width and height of a tile.
          */
-        DependencyCache() {
-                this.dependencyTable = new Hashtable<Tile, DependencyOnTile>(60);
+        void setTileSize(int tileSize) {
+                this.tileSize = tileSize;
         }
 
         private void addLabelsFromDependencyOnTile(List<PointTextContainer> labels) {
@@ -239,31 +271,31 @@ class DependencyCache {
                                 this.currentDependencyOnTile
                                                 .addText(new Dependency<DependencyText>(toAdd, new Point(label.x, label.y)));
 
-                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x, label.y + Tile.TILE_SIZE)));
+                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x, label.y + this.tileSize)));
 
                                 toAdd.addTile(up);
 
                                 if ((label.x < 0.0f) && (!this.dependencyTable.get(leftup).drawn)) {
                                         linkedDep = this.dependencyTable.get(leftup);
 
-                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + Tile.TILE_SIZE, label.y
-                                                        + Tile.TILE_SIZE)));
+                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + this.tileSize, label.y
+                                                        + this.tileSize)));
 
                                         toAdd.addTile(leftup);
                                 }
 
-                                if ((label.x + label.boundary.getWidth() > Tile.TILE_SIZE) && (!this.dependencyTable.get(rightup).drawn)) {
+                                if ((label.x + label.boundary.getWidth() > this.tileSize) && (!this.dependencyTable.get(rightup).drawn)) {
                                         linkedDep = this.dependencyTable.get(rightup);
 
-                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - Tile.TILE_SIZE, label.y
-                                                        + Tile.TILE_SIZE)));
+                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - this.tileSize, label.y
+                                                        + this.tileSize)));
 
                                         toAdd.addTile(rightup);
                                 }
                         }
 
                         // down
-                        if ((label.y > Tile.TILE_SIZE) && (!this.dependencyTable.get(down).drawn)) {
+                        if ((label.y > this.tileSize) && (!this.dependencyTable.get(down).drawn)) {
                                 linkedDep = this.dependencyTable.get(down);
 
                                 if (toAdd == null) {
@@ -275,24 +307,24 @@ class DependencyCache {
 
                                 }
 
-                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x, label.y - Tile.TILE_SIZE)));
+                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x, label.y - this.tileSize)));
 
                                 toAdd.addTile(down);
 
                                 if ((label.x < 0.0f) && (!this.dependencyTable.get(leftdown).drawn)) {
                                         linkedDep = this.dependencyTable.get(leftdown);
 
-                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + Tile.TILE_SIZE, label.y
-                                                        - Tile.TILE_SIZE)));
+                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + this.tileSize, label.y
+                                                        - this.tileSize)));
 
                                         toAdd.addTile(leftdown);
                                 }
 
-                                if ((label.x + label.boundary.getWidth() > Tile.TILE_SIZE) && (!this.dependencyTable.get(rightdown).drawn)) {
+                                if ((label.x + label.boundary.getWidth() > this.tileSize) && (!this.dependencyTable.get(rightdown).drawn)) {
                                         linkedDep = this.dependencyTable.get(rightdown);
 
-                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - Tile.TILE_SIZE, label.y
-                                                        - Tile.TILE_SIZE)));
+                                        linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - this.tileSize, label.y
+                                                        - this.tileSize)));
 
                                         toAdd.addTile(rightdown);
                                 }
@@ -310,12 +342,12 @@ class DependencyCache {
                                                         label.y)));
                                 }
 
-                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + Tile.TILE_SIZE, label.y)));
+                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + this.tileSize, label.y)));
 
                                 toAdd.addTile(left);
                         }
                         // right
-                        if ((label.x + label.boundary.getWidth() > Tile.TILE_SIZE) && (!this.dependencyTable.get(right).drawn)) {
+                        if ((label.x + label.boundary.getWidth() > this.tileSize) && (!this.dependencyTable.get(right).drawn)) {
                                 linkedDep = this.dependencyTable.get(right);
 
                                 if (toAdd == null) {
@@ -326,7 +358,7 @@ class DependencyCache {
                                                         label.y)));
                                 }
 
-                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - Tile.TILE_SIZE, label.y)));
+                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - this.tileSize, label.y)));
 
                                 toAdd.addTile(right);
                         }
@@ -344,31 +376,31 @@ class DependencyCache {
                                                         label.y)));
 
                                         linkedDep.addText(new Dependency<DependencyText>(toAdd,
-                                                        new Point(label.x, label.y + Tile.TILE_SIZE)));
+                                                        new Point(label.x, label.y + this.tileSize)));
 
                                         toAdd.addTile(up);
 
                                         if ((label.symbol.point.x < 0.0f) && (!this.dependencyTable.get(leftup).drawn)) {
                                                 linkedDep = this.dependencyTable.get(leftup);
 
-                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + Tile.TILE_SIZE,
-                                                                label.y + Tile.TILE_SIZE)));
+                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + this.tileSize,
+                                                                label.y + this.tileSize)));
 
                                                 toAdd.addTile(leftup);
                                         }
 
-                                        if ((label.symbol.point.x + label.symbol.symbol.getWidth() > Tile.TILE_SIZE)
+                                        if ((label.symbol.point.x + label.symbol.symbol.getWidth() > this.tileSize)
                                                         && (!this.dependencyTable.get(rightup).drawn)) {
                                                 linkedDep = this.dependencyTable.get(rightup);
 
-                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - Tile.TILE_SIZE,
-                                                                label.y + Tile.TILE_SIZE)));
+                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - this.tileSize,
+                                                                label.y + this.tileSize)));
 
                                                 toAdd.addTile(rightup);
                                         }
                                 }
 
-                                if ((label.symbol.point.y + label.symbol.symbol.getHeight() >= Tile.TILE_SIZE)
+                                if ((label.symbol.point.y + label.symbol.symbol.getHeight() >= this.tileSize)
                                                 && (!this.dependencyTable.get(down).drawn)) {
                                         linkedDep = this.dependencyTable.get(down);
 
@@ -381,25 +413,25 @@ class DependencyCache {
                                         }
 
                                         linkedDep.addText(new Dependency<DependencyText>(toAdd,
-                                                        new Point(label.x, label.y + Tile.TILE_SIZE)));
+                                                        new Point(label.x, label.y + this.tileSize)));
 
                                         toAdd.addTile(up);
 
                                         if ((label.symbol.point.x < 0.0f) && (!this.dependencyTable.get(leftdown).drawn)) {
                                                 linkedDep = this.dependencyTable.get(leftdown);
 
-                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + Tile.TILE_SIZE,
-                                                                label.y - Tile.TILE_SIZE)));
+                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x + this.tileSize,
+                                                                label.y - this.tileSize)));
 
                                                 toAdd.addTile(leftdown);
                                         }
 
-                                        if ((label.symbol.point.x + label.symbol.symbol.getWidth() > Tile.TILE_SIZE)
+                                        if ((label.symbol.point.x + label.symbol.symbol.getWidth() > this.tileSize)
                                                         && (!this.dependencyTable.get(rightdown).drawn)) {
                                                 linkedDep = this.dependencyTable.get(rightdown);
 
-                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - Tile.TILE_SIZE,
-                                                                label.y - Tile.TILE_SIZE)));
+                                                linkedDep.addText(new Dependency<DependencyText>(toAdd, new Point(label.x - this.tileSize,
+                                                                label.y - this.tileSize)));
 
                                                 toAdd.addTile(rightdown);
                                         }
@@ -417,12 +449,12 @@ class DependencyCache {
                                         }
 
                                         linkedDep.addText(new Dependency<DependencyText>(toAdd,
-                                                        new Point(label.x - Tile.TILE_SIZE, label.y)));
+                                                        new Point(label.x - this.tileSize, label.y)));
 
                                         toAdd.addTile(left);
                                 }
 
-                                if ((label.symbol.point.x + label.symbol.symbol.getWidth() >= Tile.TILE_SIZE)
+                                if ((label.symbol.point.x + label.symbol.symbol.getWidth() >= this.tileSize)
                                                 && (!this.dependencyTable.get(right).drawn)) {
                                         linkedDep = this.dependencyTable.get(right);
 
@@ -435,7 +467,7 @@ class DependencyCache {
                                         }
 
                                         linkedDep.addText(new Dependency<DependencyText>(toAdd,
-                                                        new Point(label.x + Tile.TILE_SIZE, label.y)));
+                                                        new Point(label.x + this.tileSize, label.y)));
 
                                         toAdd.addTile(right);
                                 }
@@ -455,30 +487,14 @@ class DependencyCache {
                 Tile rightup = new Tile(this.currentTile.tileX + 1, this.currentTile.tileY - 1, this.currentTile.zoomLevel);
                 Tile rightdown = new Tile(this.currentTile.tileX + 1, this.currentTile.tileY + 1, this.currentTile.zoomLevel);
 
-                if (this.dependencyTable.get(up) == null) {
-                        this.dependencyTable.put(up, new DependencyOnTile());
-                }
-                if (this.dependencyTable.get(down) == null) {
-                        this.dependencyTable.put(down, new DependencyOnTile());
-                }
-                if (this.dependencyTable.get(left) == null) {
-                        this.dependencyTable.put(left, new DependencyOnTile());
-                }
-                if (this.dependencyTable.get(right) == null) {
-                        this.dependencyTable.put(right, new DependencyOnTile());
-                }
-                if (this.dependencyTable.get(leftdown) == null) {
-                        this.dependencyTable.put(leftdown, new DependencyOnTile());
-                }
-                if (this.dependencyTable.get(rightup) == null) {
-                        this.dependencyTable.put(rightup, new DependencyOnTile());
-                }
-                if (this.dependencyTable.get(leftup) == null) {
-                        this.dependencyTable.put(leftup, new DependencyOnTile());
-                }
-                if (this.dependencyTable.get(rightdown) == null) {
-                        this.dependencyTable.put(rightdown, new DependencyOnTile());
-                }
+                this.dependencyTable.getOrCreate(up);
+                this.dependencyTable.getOrCreate(down);
+                this.dependencyTable.getOrCreate(left);
+                this.dependencyTable.getOrCreate(right);
+                this.dependencyTable.getOrCreate(leftdown);
+                this.dependencyTable.getOrCreate(rightup);
+                this.dependencyTable.getOrCreate(leftup);
+                this.dependencyTable.getOrCreate(rightdown);
 
                 fillDependencyLabels(labels);
                 fillDependencyLabels(areaLabels);
@@ -498,29 +514,29 @@ class DependencyCache {
                                                 symbol.point.x, symbol.point.y)));
 
                                 linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x, symbol.point.y
-                                                + Tile.TILE_SIZE)));
+                                                + this.tileSize)));
                                 addSmb.addTile(up);
 
                                 if ((symbol.point.x < 0.0f) && (!this.dependencyTable.get(leftup).drawn)) {
                                         linkedDep = this.dependencyTable.get(leftup);
 
                                         linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x
-                                                        + Tile.TILE_SIZE, symbol.point.y + Tile.TILE_SIZE)));
+                                                        + this.tileSize, symbol.point.y + this.tileSize)));
                                         addSmb.addTile(leftup);
                                 }
 
-                                if ((symbol.point.x + symbol.symbol.getWidth() > Tile.TILE_SIZE)
+                                if ((symbol.point.x + symbol.symbol.getWidth() > this.tileSize)
                                                 && (!this.dependencyTable.get(rightup).drawn)) {
                                         linkedDep = this.dependencyTable.get(rightup);
 
                                         linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x
-                                                        - Tile.TILE_SIZE, symbol.point.y + Tile.TILE_SIZE)));
+                                                        - this.tileSize, symbol.point.y + this.tileSize)));
                                         addSmb.addTile(rightup);
                                 }
                         }
 
                         // down
-                        if ((symbol.point.y + symbol.symbol.getHeight() > Tile.TILE_SIZE)
+                        if ((symbol.point.y + symbol.symbol.getHeight() > this.tileSize)
                                         && (!this.dependencyTable.get(down).drawn)) {
                                 linkedDep = this.dependencyTable.get(down);
 
@@ -531,23 +547,23 @@ class DependencyCache {
                                 }
 
                                 linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x, symbol.point.y
-                                                - Tile.TILE_SIZE)));
+                                                - this.tileSize)));
                                 addSmb.addTile(down);
 
                                 if ((symbol.point.x < 0.0f) && (!this.dependencyTable.get(leftdown).drawn)) {
                                         linkedDep = this.dependencyTable.get(leftdown);
 
                                         linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x
-                                                        + Tile.TILE_SIZE, symbol.point.y - Tile.TILE_SIZE)));
+                                                        + this.tileSize, symbol.point.y - this.tileSize)));
                                         addSmb.addTile(leftdown);
                                 }
 
-                                if ((symbol.point.x + symbol.symbol.getWidth() > Tile.TILE_SIZE)
+                                if ((symbol.point.x + symbol.symbol.getWidth() > this.tileSize)
                                                 && (!this.dependencyTable.get(rightdown).drawn)) {
                                         linkedDep = this.dependencyTable.get(rightdown);
 
                                         linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x
-                                                        - Tile.TILE_SIZE, symbol.point.y - Tile.TILE_SIZE)));
+                                                        - this.tileSize, symbol.point.y - this.tileSize)));
                                         addSmb.addTile(rightdown);
                                 }
                         }
@@ -562,13 +578,13 @@ class DependencyCache {
                                                         symbol.point.x, symbol.point.y)));
                                 }
 
-                                linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x + Tile.TILE_SIZE,
+                                linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x + this.tileSize,
                                                 symbol.point.y)));
                                 addSmb.addTile(left);
                         }
 
                         // right
-                        if ((symbol.point.x + symbol.symbol.getWidth() > Tile.TILE_SIZE)
+                        if ((symbol.point.x + symbol.symbol.getWidth() > this.tileSize)
                                         && (!this.dependencyTable.get(right).drawn)) {
                                 linkedDep = this.dependencyTable.get(right);
                                 if (addSmb == null) {
@@ -577,7 +593,7 @@ class DependencyCache {
                                                         symbol.point.x, symbol.point.y)));
                                 }
 
-                                linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x - Tile.TILE_SIZE,
+                                linkedDep.addSymbol(new Dependency<DependencySymbol>(addSmb, new Point(symbol.point.x - this.tileSize,
                                                 symbol.point.y)));
                                 addSmb.addTile(right);
                         }
@@ -722,11 +738,29 @@ class DependencyCache {
          */
         void generateTileAndDependencyOnTile(Tile tile) {
                 this.currentTile = new Tile(tile.tileX, tile.tileY, tile.zoomLevel);
-                this.currentDependencyOnTile = this.dependencyTable.get(this.currentTile);
+                this.dependencyTable.evict(this.currentTile);
+                this.currentDependencyOnTile = this.dependencyTable.getOrCreate(this.currentTile);
+        }
 
-                if (this.currentDependencyOnTile == null) {
-                        this.dependencyTable.put(this.currentTile, new DependencyOnTile());
-                        this.currentDependencyOnTile = this.dependencyTable.get(this.currentTile);
+        /**
+         * Locks the entries of the given tile and its neighbours in the dependency table, must be called before
+         * {@link #generateTileAndDependencyOnTile(Tile)} and released with {@link #unlock()} after
+         * {@link #fillDependencyOnTile(List, List, List)}.
+         *
+         * @param tile
+         *            the current Tile
+         */
+        void lock(Tile tile) {
+                this.lockedStripes = this.dependencyTable.lock(tile);
+        }
+
+        /**
+         * Releases the entries locked by {@link #lock(Tile)}.
+         */
+        void unlock() {
+                if (this.lockedStripes != null) {
+                        this.dependencyTable.unlock(this.lockedStripes);
+                        this.lockedStripes = null;
                 }
         }
 
@@ -770,7 +804,7 @@ class DependencyCache {
                                 continue;
                         }
 
-                        if (down && label.y > Tile.TILE_SIZE) {
+                        if (down && label.y > this.tileSize) {
                                 areaLabels.remove(i);
                                 i--;
                                 continue;
@@ -780,7 +814,7 @@ class DependencyCache {
                                 i--;
                                 continue;
                         }
-                        if (right && label.x + label.boundary.getWidth() > Tile.TILE_SIZE) {
+                        if (right && label.x + label.boundary.getWidth() > this.tileSize) {
                                 areaLabels.remove(i);
                                 i--;
                                 continue;
@@ -857,7 +891,7 @@ class DependencyCache {
                                 continue;
                         }
 
-                        if (down && ref.y >= Tile.TILE_SIZE) {
+                        if (down && ref.y >= this.tileSize) {
                                 refPos[i] = null;
                                 continue;
                         }
@@ -867,7 +901,7 @@ class DependencyCache {
                                 continue;
                         }
 
-                        if (right && ref.x + ref.width > Tile.TILE_SIZE) {
+                        if (right && ref.x + ref.width > this.tileSize) {
                                 refPos[i] = null;
                         }
                 }
@@ -951,7 +985,7 @@ class DependencyCache {
                                 continue;
                         }
 
-                        if (down && ref.point.y + ref.symbol.getHeight() > Tile.TILE_SIZE) {
+                        if (down && ref.point.y + ref.symbol.getHeight() > this.tileSize) {
                                 symbols.remove(i);
                                 i--;
                                 continue;
@@ -961,7 +995,7 @@ class DependencyCache {
                                 i--;
                                 continue;
                         }
-                        if (right && ref.point.x + ref.symbol.getWidth() > Tile.TILE_SIZE) {
+                        if (right && ref.point.x + ref.symbol.getWidth() > this.tileSize) {
                                 symbols.remove(i);
                                 i--;
                                 continue;
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.mapsforge.core.model.Tile;
+
+/**
+ * Holds the entries of the {@link DependencyCache} per tile, so labels and symbols that cross tile borders are drawn
+ * completely on both tiles. The table can be shared by several {@link DatabaseRenderer}s that render in parallel.
+ * <p>
+ * A tile depends on its eight neighbours, therefore a renderer locks the stripes of all nine tiles (in ascending
+ * order, so renderers can't deadlock) while it places the labels. Neighbouring tiles are thereby processed one after
+ * the other and never see half placed labels of each other.
+ * <p>
+ * The labels of a tile depend on which of its neighbours have been placed before. So that this doesn't depend on
+ * which renderer is faster, the tiles are placed in a fixed order (row by row, from left to right): a renderer
+ * registers its tile with {@link #begin(Tile)} before it reads the map data, and before placing the labels it waits
+ * until the neighbours, that come earlier in this order and are still in progress, are done with {@link #end(Tile)}.
+ * Tiles that are rendered one after the other are placed in that order, as with a single renderer.
+ * <p>
+ * Entries of tiles that are more than {@link #getRadius()} tiles away from the tile that is rendered, or whose
+ * zoom-level differs by more than {@link #getZoomWindow()}, are removed.
+ */
+public final class DependencyTable {
+        /**
+         * The default radius in tiles, in which entries are kept.
+         */
+        public static final int DEFAULT_RADIUS = 16;
+
+        /**
+         * The default number of zoom-levels above and below the rendered tile, in which entries are kept.
+         */
+        public static final int DEFAULT_ZOOM_WINDOW = 1;
+
+        // rough estimation of the memory usage in bytes
+        private static final int SIZE_ENTRY = 96;
+        private static final int SIZE_LABEL = 96;
+        private static final int SIZE_SYMBOL = 72;
+
+        private static final int STRIPES = 64;
+
+        private final Map<Tile, Integer> inProgress;
+        private final ReentrantLock[] locks;
+        private final ConcurrentMap<Tile, DependencyCache.DependencyOnTile> table;
+        private volatile int radius;
+        private volatile int zoomWindow;
+
+        /**
+         * Creates an empty table with the default radius and zoom window.
+         */
+        public DependencyTable() {
+                this.inProgress = new HashMap<Tile, Integer>();
+                this.locks = new ReentrantLock[STRIPES];
+                for (int i = 0; i < STRIPES; ++i) {
+                        this.locks[i] = new ReentrantLock();
+                }
+                this.table = new ConcurrentHashMap<Tile, DependencyCache.DependencyOnTile>(64);
+                this.radius = DEFAULT_RADIUS;
+                this.zoomWindow = DEFAULT_ZOOM_WINDOW;
+        }
+
+        /**
+         * Registers the given tile as in progress, its neighbours that come later in the order wait for it before they
+         * place their labels. Each call must be followed by a call of {@link #end(Tile)}.
+         *
+         * @param tile
+         *            the tile whose labels will be placed.
+         */
+        public void begin(Tile tile) {
+                synchronized (this.inProgress) {
+                        Integer count = this.inProgress.get(tile);
+                        this.inProgress.put(tile, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+                }
+        }
+
+        /**
+         * Removes the given tile from the tiles in progress, after its labels have been placed or its rendering has been
+         * cancelled.
+         *
+         * @param tile
+         *            the tile that has been passed to {@link #begin(Tile)}.
+         */
+        public void end(Tile tile) {
+                synchronized (this.inProgress) {
+                        Integer count = this.inProgress.get(tile);
+                        if (count == null) {
+                                return;
+                        } else if (count.intValue() > 1) {
+                                this.inProgress.put(tile, Integer.valueOf(count.intValue() - 1));
+                        } else {
+                                this.inProgress.remove(tile);
+                        }
+                        this.inProgress.notifyAll();
+                }
+        }
+
+        /**
+         * Removes all entries.
+         */
+        public void clear() {
+                this.table.clear();
+        }
+
+        /**
+         * @return an estimation of the memory used by the entries, in bytes.
+         */
+        public long getMemorySize() {
+                long size = 0;
+                for (DependencyCache.DependencyOnTile dependencyOnTile : this.table.values()) {
+                        size += SIZE_ENTRY + dependencyOnTile.getLabelCount() * SIZE_LABEL + dependencyOnTile.getSymbolCount()
+                                        * SIZE_SYMBOL;
+                }
+                return size;
+        }
+
+        /**
+         * @return the radius in tiles around the rendered tile, in which entries are kept.
+         */
+        public int getRadius() {
+                return this.radius;
+        }
+
+        /**
+         * @return the number of zoom-levels above and below the rendered tile, in which entries are kept.
+         */
+        public int getZoomWindow() {
+                return this.zoomWindow;
+        }
+
+        /**
+         * @param radius
+         *            the radius in tiles around the rendered tile, in which entries are kept, at least one.
+         */
+        public void setRadius(int radius) {
+                if (radius < 1) {
+                        throw new IllegalArgumentException("radius must be at least one: " + radius);
+                }
+                this.radius = radius;
+        }
+
+        /**
+         * @param zoomWindow
+         *            the number of zoom-levels above and below the rendered tile, in which entries are kept.
+         */
+        public void setZoomWindow(int zoomWindow) {
+                if (zoomWindow < 0) {
+                        throw new IllegalArgumentException("zoomWindow must not be negative: " + zoomWindow);
+                }
+                this.zoomWindow = zoomWindow;
+        }
+
+        /**
+         * @return the number of tiles with an entry.
+         */
+        public int size() {
+                return this.table.size();
+        }
+
+        /**
+         * Removes the entries of the tiles outside of the radius and zoom window around the given tile. Entries that are
+         * locked by another renderer are skipped.
+         */
+        void evict(Tile center) {
+                int radius = this.radius;
+                int zoomWindow = this.zoomWindow;
+
+                for (Iterator<Tile> iterator = this.table.keySet().iterator(); iterator.hasNext();) {
+                        Tile tile = iterator.next();
+                        int zoomDifference = center.zoomLevel - tile.zoomLevel;
+
+                        if (Math.abs(zoomDifference) <= zoomWindow) {
+                                // compare the positions on the zoom-level of the given tile
+                                double scale = Math.pow(2, zoomDifference);
+                                double distanceX = Math.abs(tile.tileX * scale - center.tileX);
+                                double distanceY = Math.abs(tile.tileY * scale - center.tileY);
+
+                                if (distanceX <= radius && distanceY <= radius) {
+                                        continue;
+                                }
+                        }
+
+                        ReentrantLock lock = getLock(tile);
+                        if (lock.tryLock()) {
+                                try {
+                                        iterator.remove();
+                                } finally {
+                                        lock.unlock();
+                                }
+                        }
+                }
+        }
+
+        /**
+         * @return the entry for the given tile or null if there is none.
+         */
+        DependencyCache.DependencyOnTile get(Tile tile) {
+                return this.table.get(tile);
+        }
+
+        /**
+         * @return the entry for the given tile, a new entry is created if there is none.
+         */
+        DependencyCache.DependencyOnTile getOrCreate(Tile tile) {
+                DependencyCache.DependencyOnTile dependencyOnTile = this.table.get(tile);
+                if (dependencyOnTile == null) {
+                        dependencyOnTile = new DependencyCache.DependencyOnTile();
+                        DependencyCache.DependencyOnTile previous = this.table.putIfAbsent(tile, dependencyOnTile);
+                        if (previous != null) {
+                                dependencyOnTile = previous;
+                        }
+                }
+                return dependencyOnTile;
+        }
+
+        /**
+         * Waits until the neighbours of the given tile, that come earlier in the order, are no longer in progress and
+         * locks the given tile and its eight neighbours.
+         *
+         * @return the indices of the locked stripes, to be passed to {@link #unlock(int[])}.
+         */
+        int[] lock(Tile tile) {
+                awaitEarlierNeighbours(tile);
+
+                int[] stripes = new int[9];
+                int count = 0;
+
+                for (long y = tile.tileY - 1; y <= tile.tileY + 1; ++y) {
+                        for (long x = tile.tileX - 1; x <= tile.tileX + 1; ++x) {
+                                int stripe = getStripe(x, y, tile.zoomLevel);
+                                boolean contained = false;
+                                for (int i = 0; i < count; ++i) {
+                                        contained |= stripes[i] == stripe;
+                                }
+                                if (!contained) {
+                                        stripes[count++] = stripe;
+                                }
+                        }
+                }
+
+                stripes = Arrays.copyOf(stripes, count);
+                Arrays.sort(stripes);
+
+                for (int stripe : stripes) {
+                        this.locks[stripe].lock();
+                }
+                return stripes;
+        }
+
+        /**
+         * Unlocks the stripes that have been locked by {@link #lock(Tile)}.
+         */
+        void unlock(int[] stripes) {
+                for (int i = stripes.length - 1; i >= 0; --i) {
+                        this.locks[stripes[i]].unlock();
+                }
+        }
+
+        /**
+         * Waits until no neighbour in the rows above and left of the given tile is in progress. The waiting tiles only
+         * wait for tiles that come earlier in the order, so they can't wait for each other.
+         */
+        private void awaitEarlierNeighbours(Tile tile) {
+                synchronized (this.inProgress) {
+                        while (isEarlierNeighbourInProgress(tile)) {
+                                try {
+                                        this.inProgress.wait();
+                                } catch (InterruptedException e) {
+                                        // place the labels in any order rather than not at all
+                                        Thread.currentThread().interrupt();
+                                        return;
+                                }
+                        }
+                }
+        }
+
+        private boolean isEarlierNeighbourInProgress(Tile tile) {
+                if (this.inProgress.isEmpty()) {
+                        return false;
+                }
+                for (long x = tile.tileX - 1; x <= tile.tileX + 1; ++x) {
+                        if (this.inProgress.containsKey(new Tile(x, tile.tileY - 1, tile.zoomLevel))) {
+                                return true;
+                        }
+                }
+                return this.inProgress.containsKey(new Tile(tile.tileX - 1, tile.tileY, tile.zoomLevel));
+        }
+
+        private ReentrantLock getLock(Tile tile) {
+                return this.locks[getStripe(tile.tileX, tile.tileY, tile.zoomLevel)];
+        }
+
+        private static int getStripe(long tileX, long tileY, byte zoomLevel) {
+                int hash = 31 * (31 * (int) (tileX ^ (tileX >>> 32)) + (int) (tileY ^ (tileY >>> 32))) + zoomLevel;
+                hash ^= (hash >>> 16);
+                return hash & (STRIPES - 1);
+        }
+}
@@ -27,24 +27,25 @@ final class GeometryUtils {
          *            the coordinates for which calculation should be done.
          * @return the center coordinates of the minimum bounding rectangle.
          */
-        static Point calculateCenterOfBoundingBox(Point[] coordinates) {
-                double pointXMin = coordinates[0].x;
-                double pointXMax = coordinates[0].x;
-                double pointYMin = coordinates[0].y;
-                double pointYMax = coordinates[0].y;
+        static Point calculateCenterOfBoundingBox(CoordinateBuffer coordinates) {
+                double pointXMin = coordinates.getX(0);
+                double pointXMax = coordinates.getX(0);
+                double pointYMin = coordinates.getY(0);
+                double pointYMax = coordinates.getY(0);
 
-                for (int i = 1; i < coordinates.length; ++i) {
-                        Point immutablePoint = coordinates[i];
-                        if (immutablePoint.x < pointXMin) {
-                                pointXMin = immutablePoint.x;
-                        } else if (immutablePoint.x > pointXMax) {
-                                pointXMax = immutablePoint.x;
+                for (int i = 1; i < coordinates.size; ++i) {
+                        float x = coordinates.getX(i);
+                        float y = coordinates.getY(i);
+                        if (x < pointXMin) {
+                                pointXMin = x;
+                        } else if (x > pointXMax) {
+                                pointXMax = x;
                         }
 
-                        if (immutablePoint.y < pointYMin) {
-                                pointYMin = immutablePoint.y;
-                        } else if (immutablePoint.y > pointYMax) {
-                                pointYMax = immutablePoint.y;
+                        if (y < pointYMin) {
+                                pointYMin = y;
+                        } else if (y > pointYMax) {
+                                pointYMax = y;
                         }
                 }
 
@@ -56,8 +57,9 @@ final class GeometryUtils {
          *            the coordinates of the way.
          * @return true if the given way is closed, false otherwise.
          */
-        static boolean isClosedWay(Point[] way) {
-                return way[0].equals(way[way.length - 1]);
+        static boolean isClosedWay(CoordinateBuffer way) {
+                int last = way.size - 1;
+                return way.getX(0) == way.getX(last) && way.getY(0) == way.getY(last);
         }
 
         private GeometryUtils() {
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+import org.mapsforge.core.model.Point;
+import org.mapsforge.core.model.Tile;
+
+/**
+ * Collects the labels and symbols of the rendered tiles and places them once
+ * for the whole viewport on a separate {@link Canvas} above the tiles. The
+ * tiles are rendered without them in this mode, so the order in which tiles
+ * are rendered does not matter and labels are not cut at the tile borders.
+ *
+ * The candidates of the least recently used tiles are removed, if more than
+ * the given capacity of tiles is stored.
+ */
+public class LabelOverlay {
+
+        public static final int DEFAULT_CAPACITY = 256;
+
+        private static final int CELL_SIZE = 32;
+        private static final int LABEL_DISTANCE_TO_LABEL = 2;
+        private static final int SYMBOL_DISTANCE_TO_SYMBOL = 2;
+
+
+        /**
+         * The candidates of a single tile, relative to the tile
+         */
+        private static final class TileLabels {
+                final List<PointTextContainer> nodes;
+                final List<PointTextContainer> areaLabels;
+                final List<SymbolContainer> symbols;
+
+                TileLabels (List<PointTextContainer> nodes, List<PointTextContainer> areaLabels, List<SymbolContainer> symbols) {
+                        this.nodes = nodes;
+                        this.areaLabels = areaLabels;
+                        this.symbols = symbols;
+                }
+        }
+
+
+        private final Map<Tile, TileLabels> tiles;
+        private final CanvasRasterer canvasRasterer = new CanvasRasterer();
+        private final List<PointTextContainer> placedLabels = new ArrayList<>();
+        private final List<SymbolContainer> placedSymbols = new ArrayList<>();
+        private CollisionGrid collisionGrid = null;
+        private int gridWidth = -1;
+        private int gridHeight = -1;
+        private long placements = 0;
+        private volatile float scale = 1;
+
+        /**
+         * @param capacity The maximum number of tiles to keep the candidates of
+         */
+        public LabelOverlay (final int capacity) {
+                this.tiles = new LinkedHashMap<Tile, TileLabels>(capacity, 0.75f, true) {
+                        private static final long serialVersionUID = 1L;
+
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<Tile, TileLabels> eldest) {
+                                return size() > capacity;
+                        }
+                };
+        }
+
+        /**
+         * Stores copies of the given lists as candidates of the given {@link Tile}
+         *
+         * @param tile {@link Tile} the candidates belong to
+         * @param nodes Labels of points of interest
+         * @param areaLabels Labels of areas
+         * @param symbols Symbols of points of interest and areas
+         */
+        void put (Tile tile, List<PointTextContainer> nodes, List<PointTextContainer> areaLabels, List<SymbolContainer> symbols) {
+                TileLabels labels = new TileLabels(
+                                new ArrayList<>(nodes),
+                                new ArrayList<>(areaLabels),
+                                new ArrayList<>(symbols)
+                );
+
+                synchronized (tiles) {
+                        tiles.put(tile, labels);
+                }
+        }
+
+        /**
+         * Stores the candidates of a metatile, they are assigned to the {@link Tile}
+         * their position is in and moved to be relative to it
+         *
+         * @param tile Upper left {@link Tile} of the metatile
+         * @param size Number of {@link Tile}s in each direction of the metatile
+         * @param nodes Labels of points of interest, relative to the metatile
+         * @param areaLabels Labels of areas, relative to the metatile
+         * @param symbols Symbols of points of interest and areas, relative to the metatile
+         */
+        void put (Tile tile, int size, List<PointTextContainer> nodes, List<PointTextContainer> areaLabels, List<SymbolContainer> symbols) {
+                if (size == 1) {
+                        put(tile, nodes, areaLabels, symbols);
+                        return;
+                }
+
+                TileLabels[] labels = new TileLabels[size * size];
+                for (int i = 0; i < labels.length; ++i) {
+                        labels[i] = new TileLabels(
+                                        new ArrayList<PointTextContainer>(),
+                                        new ArrayList<PointTextContainer>(),
+                                        new ArrayList<SymbolContainer>()
+                        );
+                }
+
+                double tileSize = Tile.TILE_SIZE * scale;
+
+                for (PointTextContainer label : nodes) {
+                        int index = getIndex(label.x, label.y, size, tileSize);
+                        labels[index].nodes.add(move(label, index, size, tileSize));
+                }
+
+                for (PointTextContainer label : areaLabels) {
+                        int index = getIndex(label.x, label.y, size, tileSize);
+                        labels[index].areaLabels.add(move(label, index, size, tileSize));
+                }
+
+                for (SymbolContainer symbol : symbols) {
+                        int index = getIndex(symbol.point.x, symbol.point.y, size, tileSize);
+                        double x = symbol.point.x - tileSize * (index % size);
+                        double y = symbol.point.y - tileSize * (index / size);
+                        labels[index].symbols.add(new SymbolContainer(symbol.symbol, new Point(x, y), symbol.alignCenter, symbol.rotation));
+                }
+
+                synchronized (tiles) {
+                        for (int i = 0; i < labels.length; ++i) {
+                                tiles.put(new Tile(tile.tileX + i % size, tile.tileY + i / size, tile.zoomLevel), labels[i]);
+                        }
+                }
+        }
+
+        /**
+         * @return The index of the {@link Tile} of a metatile, the given position is in
+         */
+        private static int getIndex (double x, double y, int size, double tileSize) {
+                int column = Math.min(size - 1, Math.max(0, (int)Math.floor(x / tileSize)));
+                int row = Math.min(size - 1, Math.max(0, (int)Math.floor(y / tileSize)));
+                return row * size + column;
+        }
+
+        /**
+         * @return A copy of the given label, moved to be relative to the {@link Tile} with the given index
+         */
+        private static PointTextContainer move (PointTextContainer label, int index, int size, double tileSize) {
+                PointTextContainer moved = new PointTextContainer(
+                                label.text,
+                                label.x - tileSize * (index % size),
+                                label.y - tileSize * (index / size),
+                                label.paintFront,
+                                label.paintBack
+                );
+                moved.priority = label.priority;
+                return moved;
+        }
+
+        /**
+         * @param tile {@link Tile} to check
+         * @return Whether the candidates of the given {@link Tile} are available
+         */
+        public boolean contains (Tile tile) {
+                synchronized (tiles) {
+                        return tiles.containsKey(tile);
+                }
+        }
+
+        /**
+         * Removes the candidates of all {@link Tile}s
+         */
+        public void clear () {
+                synchronized (tiles) {
+                        tiles.clear();
+                }
+        }
+
+        /**
+         * @return The number of {@link Tile}s with candidates
+         */
+        public int getSize () {
+                synchronized (tiles) {
+                        return tiles.size();
+                }
+        }
+
+        /**
+         * @return The number of pixels of the candidates per pixel of the {@link Canvas}
+         */
+        public float getScale () {
+                return scale;
+        }
+
+        /**
+         * Sets the number of pixels of the candidates per pixel of the {@link Canvas},
+         * this has to be the scale factor the tiles are rendered with
+         *
+         * @param scale The scale factor of the rendered tiles
+         */
+        public void setScale (float scale) {
+                this.scale = scale;
+        }
+
+        /**
+         * @return How often the labels have been placed for the viewport
+         */
+        public long getPlacementCount () {
+                return placements;
+        }
+
+        /**
+         * Places the labels and symbols of the given {@link Tile}s without any overlaps
+         * and draws them on the given {@link Canvas}, must be called in the FX-Thread
+         *
+         * @param canvas {@link Canvas} to draw on, it is cleared before
+         * @param zoom Zoom-level of the {@link Tile}s
+         * @param tileLeft X coordinate of the left most {@link Tile}
+         * @param tileTop Y coordinate of the top most {@link Tile}
+         * @param tileRight X coordinate of the right most {@link Tile}
+         * @param tileBottom Y coordinate of the bottom most {@link Tile}
+         * @param offsetX X position of the left most {@link Tile} on the {@link Canvas}
+         * @param offsetY Y position of the top most {@link Tile} on the {@link Canvas}
+         */
+        public void draw (Canvas canvas, byte zoom, long tileLeft, long tileTop, long tileRight, long tileBottom, double offsetX, double offsetY) {
+                // placed in the pixels of the candidates, drawn scaled down to the canvas
+                float scale = this.scale;
+                int width = (int)Math.ceil(canvas.getWidth() * scale);
+                int height = (int)Math.ceil(canvas.getHeight() * scale);
+
+                if (collisionGrid == null || width != gridWidth || height != gridHeight) {
+                        collisionGrid = new CollisionGrid(width, height, CELL_SIZE);
+                        gridWidth = width;
+                        gridHeight = height;
+                }
+
+                List<TileLabels> visible = new ArrayList<>();
+                List<double[]> positions = new ArrayList<>();
+
+                synchronized (tiles) {
+                        for (long tileY = tileTop; tileY <= tileBottom; ++tileY) {
+                                for (long tileX = tileLeft; tileX <= tileRight; ++tileX) {
+                                        TileLabels labels = tiles.get(new Tile(tileX, tileY, zoom));
+
+                                        if (labels != null) {
+                                                visible .add(labels);
+                                                positions .add(new double[] {
+                                                                (offsetX + Tile.TILE_SIZE * (tileX - tileLeft)) * scale,
+                                                                (offsetY + Tile.TILE_SIZE * (tileY - tileTop)) * scale
+                                                });
+                                        }
+                                }
+                        }
+                }
+
+                placedLabels .clear();
+                placedSymbols .clear();
+
+                // symbols first, the labels have to avoid them
+                collisionGrid.clear();
+                for (int i = 0; i < visible.size(); ++i) {
+                        placeSymbols(visible.get(i).symbols, positions.get(i)[0], positions.get(i)[1], width, height);
+                }
+
+                for (int i = 0; i < visible.size(); ++i) {
+                        placeLabels(visible.get(i).areaLabels, positions.get(i)[0], positions.get(i)[1], width, height);
+                }
+
+                for (int i = 0; i < visible.size(); ++i) {
+                        placeLabels(visible.get(i).nodes, positions.get(i)[0], positions.get(i)[1], width, height);
+                }
+
+                GraphicsContext context = canvas.getGraphicsContext2D();
+                context.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+                context.save();
+                context.scale(1 / scale, 1 / scale);
+
+                canvasRasterer.setCanvas (canvas);
+                canvasRasterer.drawSymbols (placedSymbols);
+                canvasRasterer.drawNodes (placedLabels);
+
+                context.restore();
+
+                placedLabels .clear();
+                placedSymbols .clear();
+                ++placements;
+        }
+
+        private void placeSymbols (List<SymbolContainer> symbols, double offsetX, double offsetY, int width, int height) {
+                int distance = SYMBOL_DISTANCE_TO_SYMBOL;
+
+                for (SymbolContainer symbol : symbols) {
+                        double left = symbol.point.x + offsetX;
+                        double top = symbol.point.y + offsetY;
+                        double right = left + symbol.symbol.getWidth();
+                        double bottom = top + symbol.symbol.getHeight();
+
+                        if (right < 0 || bottom < 0 || left > width || top > height) {
+                                continue;
+                        }
+
+                        if (!collisionGrid.intersects(left, top, right, bottom)) {
+                                collisionGrid.add(left - distance, top - distance, right + distance, bottom + distance);
+                                placedSymbols.add(new SymbolContainer(symbol.symbol, new Point(left, top), symbol.alignCenter, symbol.rotation));
+                        }
+                }
+        }
+
+        private void placeLabels (List<PointTextContainer> labels, double offsetX, double offsetY, int width, int height) {
+                int distance = LABEL_DISTANCE_TO_LABEL;
+
+                for (PointTextContainer label : labels) {
+                        // the labels are centered horizontally, y is the baseline
+                        double left = label.x + offsetX - label.boundary.getWidth() / 2;
+                        double bottom = label.y + offsetY;
+                        double right = left + label.boundary.getWidth();
+                        double top = bottom - label.boundary.getHeight();
+
+                        if (right < 0 || bottom < 0 || left > width || top > height) {
+                                continue;
+                        }
+
+                        if (!collisionGrid.intersects(left, top, right, bottom)) {
+                                collisionGrid.add(left - distance, top - distance, right + distance, bottom + distance);
+                                placedLabels.add(new PointTextContainer(label.text, left, bottom, label.paintFront, label.paintBack));
+                        }
+                }
+        }
+}
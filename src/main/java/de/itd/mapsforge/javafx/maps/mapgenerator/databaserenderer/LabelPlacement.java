@@ -18,13 +18,12 @@
 package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
 
 
-import java.awt.Rectangle;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 
 import org.mapsforge.core.model.Tile;
 
@@ -55,27 +54,6 @@ class LabelPlacement {
                 }
         }
 
-        static final class ReferencePositionHeightComparator implements Comparator<ReferencePosition>, Serializable {
-                private static final long serialVersionUID = 1L;
-                static final ReferencePositionHeightComparator INSTANCE = new ReferencePositionHeightComparator();
-
-                private ReferencePositionHeightComparator() {
-                        // do nothing
-                }
-
-                @Override
-                public int compare(ReferencePosition x, ReferencePosition y) {
-                        if (x.y - x.height < y.y - y.height) {
-                                return -1;
-                        }
-
-                        if (x.y - x.height > y.y - y.height) {
-                                return 1;
-                        }
-                        return 0;
-                }
-        }
-
         static final class ReferencePositionWidthComparator implements Comparator<ReferencePosition>, Serializable {
                 private static final long serialVersionUID = 1L;
                 static final ReferencePositionWidthComparator INSTANCE = new ReferencePositionWidthComparator();
@@ -98,28 +76,6 @@ class LabelPlacement {
                 }
         }
 
-        static final class ReferencePositionXComparator implements Comparator<ReferencePosition>, Serializable {
-                private static final long serialVersionUID = 1L;
-                static final ReferencePositionXComparator INSTANCE = new ReferencePositionXComparator();
-
-                private ReferencePositionXComparator() {
-                        // do nothing
-                }
-
-                @Override
-                public int compare(ReferencePosition x, ReferencePosition y) {
-                        if (x.x < y.x) {
-                                return -1;
-                        }
-
-                        if (x.x > y.x) {
-                                return 1;
-                        }
-
-                        return 0;
-                }
-        }
-
         static final class ReferencePositionYComparator implements Comparator<ReferencePosition>, Serializable {
                 private static final long serialVersionUID = 1L;
                 static final ReferencePositionYComparator INSTANCE = new ReferencePositionYComparator();
@@ -142,21 +98,43 @@ class LabelPlacement {
                 }
         }
 
+        private static final int COLLISION_GRID_CELL_SIZE = 32;
         private static final int LABEL_DISTANCE_TO_LABEL = 2;
         private static final int LABEL_DISTANCE_TO_SYMBOL = 2;
         private static final int PLACEMENT_MODEL = 1;
         private static final int START_DISTANCE_TO_SYMBOLS = 4;
         private static final int SYMBOL_DISTANCE_TO_SYMBOL = 2;
 
+        CollisionGrid collisionGrid;
         final DependencyCache dependencyCache;
         PointTextContainer label;
-        Rectangle rect1;
-        Rectangle rect2;
+        PoiDensityFilter poiDensityFilter;
+        boolean[] placedNodes;
         ReferencePosition referencePosition;
+        final List<ReferencePosition> sortedReferencePositions;
         SymbolContainer symbolContainer;
+        private int tileSize = Tile.TILE_SIZE;
+
+        LabelPlacement(DependencyTable dependencyTable) {
+                this.collisionGrid = new CollisionGrid(Tile.TILE_SIZE, Tile.TILE_SIZE, COLLISION_GRID_CELL_SIZE);
+                this.dependencyCache = new DependencyCache(dependencyTable);
+                this.placedNodes = new boolean[64];
+                this.sortedReferencePositions = new ArrayList<ReferencePosition>(256);
+        }
 
-        LabelPlacement() {
-                this.dependencyCache = new DependencyCache();
+        /**
+         * Sets the width and height in pixels of the tiles passed to
+         * {@link #placeLabels(List, List, List, Tile)}, larger than a single tile when a metatile is rendered.
+         *
+         * @param tileSize
+         *            the width and height of a tile.
+         */
+        void setTileSize(int tileSize) {
+                if (tileSize != this.tileSize) {
+                        this.collisionGrid = new CollisionGrid(tileSize, tileSize, COLLISION_GRID_CELL_SIZE);
+                        this.dependencyCache.setTileSize(tileSize);
+                        this.tileSize = tileSize;
+                }
         }
 
         /**
@@ -195,11 +173,10 @@ class LabelPlacement {
         }
 
         /**
-         * This method uses an adapted greedy strategy for the fixed four position model, above, under left and right form
-         * the point of interest. It uses no priority search tree, because it will not function with symbols only with
-         * points. Instead it uses two minimum heaps. They work similar to a sweep line algorithm but have not a O(n log n
-         * +k) runtime. To find the rectangle that has the top edge, I use also a minimum Heap. The rectangles are sorted by
-         * their y coordinates.
+         * This method uses a greedy strategy for the fixed four position model, above, under left and right form the
+         * point of interest. The reference positions are visited sorted by their y coordinates and a position is taken if
+         * no other position of its point of interest has been taken yet and it does not overlap with an already placed
+         * label. Placed labels are stored in the collision grid, so each test only looks at the labels nearby.
          *
          * @param labels
          *            label positions and text
@@ -211,18 +188,9 @@ class LabelPlacement {
          */
         private List<PointTextContainer> processFourPointGreedy(List<PointTextContainer> labels,
                         List<SymbolContainer> symbols, List<PointTextContainer> areaLabels) {
-                List<PointTextContainer> resolutionSet = new ArrayList<PointTextContainer>();
-
                 // Array for the generated reference positions around the points of interests
                 ReferencePosition[] refPos = new ReferencePosition[(labels.size()) * 4];
 
-                // lists that sorts the reference points after the minimum top edge y position
-                PriorityQueue<ReferencePosition> priorUp = new PriorityQueue<ReferencePosition>(labels.size() * 4 * 2
-                                + labels.size() / 10 * 2, ReferencePositionYComparator.INSTANCE);
-                // lists that sorts the reference points after the minimum bottom edge y position
-                PriorityQueue<ReferencePosition> priorDown = new PriorityQueue<ReferencePosition>(labels.size() * 4 * 2
-                                + labels.size() / 10 * 2, ReferencePositionHeightComparator.INSTANCE);
-
                 PointTextContainer tmp;
                 int dis = START_DISTANCE_TO_SYMBOLS;
 
@@ -260,68 +228,74 @@ class LabelPlacement {
 
                 removeNonValidateReferencePosition(refPos, symbols, areaLabels);
 
-                // do while it gives reference positions
+                return processGreedy(labels, refPos, ReferencePositionYComparator.INSTANCE, false);
+        }
+
+        /**
+         * Takes the valid reference positions in the order of the given comparator, as long as the label of the point of
+         * interest has not been placed yet and the position does not overlap with an already placed label.
+         *
+         * @param labels
+         *            label positions and text
+         * @param refPos
+         *            the validated reference positions
+         * @param comparator
+         *            the order to visit the reference positions in
+         * @param referenceSymbol
+         *            whether the placed label gets the symbol of the reference position instead of the one of the label
+         * @return list of labels without overlaps
+         */
+        private List<PointTextContainer> processGreedy(List<PointTextContainer> labels, ReferencePosition[] refPos,
+                        Comparator<ReferencePosition> comparator, boolean referenceSymbol) {
+                List<PointTextContainer> resolutionSet = new ArrayList<PointTextContainer>();
+
+                this.sortedReferencePositions.clear();
                 for (int i = 0; i < refPos.length; i++) {
-                        this.referencePosition = refPos[i];
-                        if (this.referencePosition != null) {
-                                priorUp.add(this.referencePosition);
-                                priorDown.add(this.referencePosition);
+                        if (refPos[i] != null) {
+                                this.sortedReferencePositions.add(refPos[i]);
                         }
                 }
+                Collections.sort(this.sortedReferencePositions, comparator);
 
-                while (priorUp.size() != 0) {
-                        this.referencePosition = priorUp.remove();
+                if (this.placedNodes.length < labels.size()) {
+                        this.placedNodes = new boolean[labels.size()];
+                } else {
+                        Arrays.fill(this.placedNodes, 0, labels.size(), false);
+                }
+                this.collisionGrid.clear();
 
-                        this.label = labels.get(this.referencePosition.nodeNumber);
+                for (int i = 0; i < this.sortedReferencePositions.size(); i++) {
+                        this.referencePosition = this.sortedReferencePositions.get(i);
 
-                        resolutionSet.add(new PointTextContainer(this.label.text, this.referencePosition.x,
-                                        this.referencePosition.y, this.label.paintFront, this.label.paintBack, this.label.symbol));
-
-                        if (priorUp.size() == 0) {
-                                return resolutionSet;
+                        if (this.placedNodes[this.referencePosition.nodeNumber]) {
+                                continue;
                         }
 
-                        priorUp.remove(refPos[this.referencePosition.nodeNumber * 4 + 0]);
-                        priorUp.remove(refPos[this.referencePosition.nodeNumber * 4 + 1]);
-                        priorUp.remove(refPos[this.referencePosition.nodeNumber * 4 + 2]);
-                        priorUp.remove(refPos[this.referencePosition.nodeNumber * 4 + 3]);
+                        double left = this.referencePosition.x;
+                        double top = this.referencePosition.y - this.referencePosition.height;
+                        double right = this.referencePosition.x + this.referencePosition.width;
+                        double bottom = this.referencePosition.y;
 
-                        priorDown.remove(refPos[this.referencePosition.nodeNumber * 4 + 0]);
-                        priorDown.remove(refPos[this.referencePosition.nodeNumber * 4 + 1]);
-                        priorDown.remove(refPos[this.referencePosition.nodeNumber * 4 + 2]);
-                        priorDown.remove(refPos[this.referencePosition.nodeNumber * 4 + 3]);
+                        if (this.collisionGrid.intersects(left, top, right, bottom)) {
+                                continue;
+                        }
 
-                        LinkedList<ReferencePosition> linkedRef = new LinkedList<ReferencePosition>();
+                        this.label = labels.get(this.referencePosition.nodeNumber);
+                        resolutionSet.add(new PointTextContainer(this.label.text, this.referencePosition.x,
+                                        this.referencePosition.y, this.label.paintFront, this.label.paintBack,
+                                        referenceSymbol ? this.referencePosition.symbol : this.label.symbol));
 
-                        while (priorDown.size() != 0) {
-                                if (priorDown.peek().x < this.referencePosition.x + this.referencePosition.width) {
-                                        linkedRef.add(priorDown.remove());
-                                } else {
-                                        break;
-                                }
-                        }
-                        // brute Force collision test (faster then sweep line for a small amount of
-                        // objects)
-                        for (int i = 0; i < linkedRef.size(); i++) {
-                                if ((linkedRef.get(i).x <= this.referencePosition.x + this.referencePosition.width)
-                                                && (linkedRef.get(i).y >= this.referencePosition.y - linkedRef.get(i).height)
-                                                && (linkedRef.get(i).y <= this.referencePosition.y + linkedRef.get(i).height)) {
-                                        priorUp.remove(linkedRef.get(i));
-                                        linkedRef.remove(i);
-                                        i--;
-                                }
-                        }
-                        priorDown.addAll(linkedRef);
+                        this.placedNodes[this.referencePosition.nodeNumber] = true;
+                        this.collisionGrid.add(left, top, right, bottom);
                 }
 
+                this.sortedReferencePositions.clear();
                 return resolutionSet;
         }
 
         /**
-         * This method uses an adapted greedy strategy for the fixed two position model, above and under. It uses no
-         * priority search tree, because it will not function with symbols only with points. Instead it uses two minimum
-         * heaps. They work similar to a sweep line algorithm but have not a O(n log n +k) runtime. To find the rectangle
-         * that has the leftest edge, I use also a minimum Heap. The rectangles are sorted by their x coordinates.
+         * This method uses a greedy strategy for the fixed two position model, above and under. The reference positions
+         * are visited sorted by their right edge, see {@link #processGreedy(List, ReferencePosition[], Comparator, boolean)}.
          *
          * @param labels
          *            label positions and text
@@ -333,17 +307,9 @@ class LabelPlacement {
          */
         private List<PointTextContainer> processTwoPointGreedy(List<PointTextContainer> labels,
                         List<SymbolContainer> symbols, List<PointTextContainer> areaLabels) {
-                List<PointTextContainer> resolutionSet = new ArrayList<PointTextContainer>();
                 // Array for the generated reference positions around the points of interests
                 ReferencePosition[] refPos = new ReferencePosition[labels.size() * 2];
 
-                // lists that sorts the reference points after the minimum right edge x position
-                PriorityQueue<ReferencePosition> priorRight = new PriorityQueue<ReferencePosition>(labels.size() * 2
-                                + labels.size() / 10 * 2, ReferencePositionWidthComparator.INSTANCE);
-                // lists that sorts the reference points after the minimum left edge x position
-                PriorityQueue<ReferencePosition> priorLeft = new PriorityQueue<ReferencePosition>(labels.size() * 2
-                                + labels.size() / 10 * 2, ReferencePositionXComparator.INSTANCE);
-
                 // creates the reference positions
                 for (int z = 0; z < labels.size(); z++) {
                         this.label = labels.get(z);
@@ -365,61 +331,7 @@ class LabelPlacement {
                 // removes reference positions that overlaps with other symbols or dependency objects
                 removeNonValidateReferencePosition(refPos, symbols, areaLabels);
 
-                for (int i = 0; i < refPos.length; i++) {
-                        this.referencePosition = refPos[i];
-                        if (this.referencePosition != null) {
-                                priorLeft.add(this.referencePosition);
-                                priorRight.add(this.referencePosition);
-                        }
-                }
-
-                while (priorRight.size() != 0) {
-                        this.referencePosition = priorRight.remove();
-
-                        this.label = labels.get(this.referencePosition.nodeNumber);
-
-                        resolutionSet.add(new PointTextContainer(this.label.text, this.referencePosition.x,
-                                        this.referencePosition.y, this.label.paintFront, this.label.paintBack,
-                                        this.referencePosition.symbol));
-
-                        // Removes the other position that is a possible position for the label of one point
-                        // of interest
-
-                        priorRight.remove(refPos[this.referencePosition.nodeNumber * 2 + 1]);
-
-                        if (priorRight.size() == 0) {
-                                return resolutionSet;
-                        }
-
-                        priorLeft.remove(this.referencePosition);
-                        priorLeft.remove(refPos[this.referencePosition.nodeNumber * 2 + 1]);
-
-                        // find overlapping labels and deletes the reference points and delete them
-                        LinkedList<ReferencePosition> linkedRef = new LinkedList<ReferencePosition>();
-
-                        while (priorLeft.size() != 0) {
-                                if (priorLeft.peek().x < this.referencePosition.x + this.referencePosition.width) {
-                                        linkedRef.add(priorLeft.remove());
-                                } else {
-                                        break;
-                                }
-                        }
-
-                        // brute Force collision test (faster then sweep line for a small amount of
-                        // objects)
-                        for (int i = 0; i < linkedRef.size(); i++) {
-                                if ((linkedRef.get(i).x <= this.referencePosition.x + this.referencePosition.width)
-                                                && (linkedRef.get(i).y >= this.referencePosition.y - linkedRef.get(i).height)
-                                                && (linkedRef.get(i).y <= this.referencePosition.y + linkedRef.get(i).height)) {
-                                        priorRight.remove(linkedRef.get(i));
-                                        linkedRef.remove(i);
-                                        i--;
-                                }
-                        }
-                        priorLeft.addAll(linkedRef);
-                }
-
-                return resolutionSet;
+                return processGreedy(labels, refPos, ReferencePositionWidthComparator.INSTANCE, true);
         }
 
         private void removeEmptySymbolReferences(List<PointTextContainer> nodes, List<SymbolContainer> symbols) {
@@ -447,38 +359,28 @@ class LabelPlacement {
                         List<PointTextContainer> areaLabels) {
                 int distance = LABEL_DISTANCE_TO_SYMBOL;
 
+                this.collisionGrid.clear();
+
                 for (int i = 0; i < symbols.size(); i++) {
                         this.symbolContainer = symbols.get(i);
-                        this.rect1 = new Rectangle((int) this.symbolContainer.point.x - distance, (int) this.symbolContainer.point.y
-                                        - distance, (int) this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth() + distance,
-                                        (int) this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight() + distance);
-
-                        for (int y = 0; y < refPos.length; y++) {
-                                if (refPos[y] != null) {
-                                        this.rect2 = new Rectangle((int) refPos[y].x, (int) (refPos[y].y - refPos[y].height),
-                                                        (int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y));
-
-                                        if (rect1.intersects(rect2)) {
-                                                refPos[y] = null;
-                                        }
-                                }
-                        }
+                        this.collisionGrid.add(this.symbolContainer.point.x - distance, this.symbolContainer.point.y - distance,
+                                        this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth() + distance,
+                                        this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight() + distance);
                 }
 
                 distance = LABEL_DISTANCE_TO_LABEL;
 
                 for (PointTextContainer areaLabel : areaLabels) {
-                        this.rect1 = new Rectangle((int) areaLabel.x - distance, (int) (areaLabel.y - areaLabel.boundary.getHeight()
-                                        - distance), (int) (areaLabel.x + areaLabel.boundary.getWidth() + distance), (int) areaLabel.y + distance);
+                        this.collisionGrid.add(areaLabel.x - distance, areaLabel.y - areaLabel.boundary.getHeight() - distance,
+                                        areaLabel.x + areaLabel.boundary.getWidth() + distance, areaLabel.y + distance);
+                }
 
+                if (this.collisionGrid.size() > 0) {
                         for (int y = 0; y < refPos.length; y++) {
-                                if (refPos[y] != null) {
-                                        this.rect2 = new Rectangle((int) refPos[y].x, (int) (refPos[y].y - refPos[y].height),
-                                                        (int) (refPos[y].x + refPos[y].width), (int) (refPos[y].y));
-
-                                        if (rect1.intersects(rect2)) {
-                                                refPos[y] = null;
-                                        }
+                                if (refPos[y] != null
+                                                && this.collisionGrid.intersects(refPos[y].x, refPos[y].y - refPos[y].height, refPos[y].x
+                                                                + refPos[y].width, refPos[y].y)) {
+                                        refPos[y] = null;
                                 }
                         }
                 }
@@ -496,11 +398,11 @@ class LabelPlacement {
                 for (int i = 0; i < areaLabels.size(); i++) {
                         this.label = areaLabels.get(i);
 
-                        if (this.label.x > Tile.TILE_SIZE) {
+                        if (this.label.x > this.tileSize) {
                                 areaLabels.remove(i);
 
                                 i--;
-                        } else if (this.label.y - this.label.boundary.getHeight() > Tile.TILE_SIZE) {
+                        } else if (this.label.y - this.label.boundary.getHeight() > this.tileSize) {
                                 areaLabels.remove(i);
 
                                 i--;
@@ -526,10 +428,10 @@ class LabelPlacement {
                 for (int i = 0; i < labels.size();) {
                         this.label = labels.get(i);
 
-                        if (this.label.x - this.label.boundary.getWidth() / 2 > Tile.TILE_SIZE) {
+                        if (this.label.x - this.label.boundary.getWidth() / 2 > this.tileSize) {
                                 labels.remove(i);
                                 this.label = null;
-                        } else if (this.label.y - this.label.boundary.getHeight() > Tile.TILE_SIZE) {
+                        } else if (this.label.y - this.label.boundary.getHeight() > this.tileSize) {
                                 labels.remove(i);
                                 this.label = null;
                         } else if ((this.label.x - this.label.boundary.getWidth() / 2 + this.label.boundary.getWidth()) < 0.0f) {
@@ -554,9 +456,9 @@ class LabelPlacement {
                 for (int i = 0; i < symbols.size();) {
                         this.symbolContainer = symbols.get(i);
 
-                        if (this.symbolContainer.point.x > Tile.TILE_SIZE) {
+                        if (this.symbolContainer.point.x > this.tileSize) {
                                 symbols.remove(i);
-                        } else if (this.symbolContainer.point.y > Tile.TILE_SIZE) {
+                        } else if (this.symbolContainer.point.y > this.tileSize) {
                                 symbols.remove(i);
                         } else if (this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth() < 0.0f) {
                                 symbols.remove(i);
@@ -577,25 +479,18 @@ class LabelPlacement {
         private void removeOverlappingAreaLabels(List<PointTextContainer> areaLabels) {
                 int dis = LABEL_DISTANCE_TO_LABEL;
 
+                this.collisionGrid.clear();
+
                 for (int x = 0; x < areaLabels.size(); x++) {
                         this.label = areaLabels.get(x);
-                        this.rect1 = new Rectangle((int) this.label.x - dis, (int) this.label.y - dis,
-                                        (int) (this.label.x + this.label.boundary.getWidth()) + dis, (int) (this.label.y
-                                                        + this.label.boundary.getHeight() + dis));
-
-                        for (int y = x + 1; y < areaLabels.size(); y++) {
-                                if (y != x) {
-                                        this.label = areaLabels.get(y);
-                                        this.rect2 = new Rectangle((int) this.label.x, (int) this.label.y,
-                                                        (int) (this.label.x + this.label.boundary.getWidth()),
-                                                        (int) (this.label.y + this.label.boundary.getHeight()));
-
-                                        if (rect1.intersects(rect2)) {
-                                                areaLabels.remove(y);
-
-                                                y--;
-                                        }
-                                }
+
+                        if (this.collisionGrid.intersects(this.label.x, this.label.y, this.label.x + this.label.boundary.getWidth(),
+                                        this.label.y + this.label.boundary.getHeight())) {
+                                areaLabels.remove(x);
+                                x--;
+                        } else {
+                                this.collisionGrid.add(this.label.x - dis, this.label.y - dis, this.label.x
+                                                + this.label.boundary.getWidth() + dis, this.label.y + this.label.boundary.getHeight() + dis);
                         }
                 }
         }
@@ -611,23 +506,26 @@ class LabelPlacement {
         private void removeOverlappingSymbolsWithAreaLabels(List<SymbolContainer> symbols, List<PointTextContainer> pTC) {
                 int dis = LABEL_DISTANCE_TO_SYMBOL;
 
-                for (int x = 0; x < pTC.size(); x++) {
-                        this.label = pTC.get(x);
+                if (pTC.isEmpty()) {
+                        return;
+                }
 
-                        this.rect1 = new Rectangle((int) this.label.x - dis, (int) (this.label.y - this.label.boundary.getHeight()) - dis,
-                                        (int) (this.label.x + this.label.boundary.getWidth() + dis), (int) (this.label.y + dis));
+                this.collisionGrid.clear();
 
-                        for (int y = 0; y < symbols.size(); y++) {
-                                this.symbolContainer = symbols.get(y);
+                for (int x = 0; x < pTC.size(); x++) {
+                        this.label = pTC.get(x);
+                        this.collisionGrid.add(this.label.x - dis, this.label.y - this.label.boundary.getHeight() - dis,
+                                        this.label.x + this.label.boundary.getWidth() + dis, this.label.y + dis);
+                }
 
-                                this.rect2 = new Rectangle((int) this.symbolContainer.point.x, (int) this.symbolContainer.point.y,
-                                                (int) (this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth()),
-                                                (int) (this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight()));
+                for (int y = 0; y < symbols.size(); y++) {
+                        this.symbolContainer = symbols.get(y);
 
-                                if (rect1.intersects(rect2)) {
-                                        symbols.remove(y);
-                                        y--;
-                                }
+                        if (this.collisionGrid.intersects(this.symbolContainer.point.x, this.symbolContainer.point.y,
+                                        this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth(),
+                                        this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight())) {
+                                symbols.remove(y);
+                                y--;
                         }
                 }
         }
@@ -649,6 +547,17 @@ class LabelPlacement {
          */
         List<PointTextContainer> placeLabels(List<PointTextContainer> labels, List<SymbolContainer> symbols,
                         List<PointTextContainer> areaLabels, Tile cT) {
+                // neighbouring tiles rendered by other renderers have to wait
+                this.dependencyCache.lock(cT);
+                try {
+                        return placeLabelsLocked(labels, symbols, areaLabels, cT);
+                } finally {
+                        this.dependencyCache.unlock();
+                }
+        }
+
+        private List<PointTextContainer> placeLabelsLocked(List<PointTextContainer> labels, List<SymbolContainer> symbols,
+                        List<PointTextContainer> areaLabels, Tile cT) {
                 List<PointTextContainer> returnLabels = labels;
                 this.dependencyCache.generateTileAndDependencyOnTile(cT);
 
@@ -664,6 +573,10 @@ class LabelPlacement {
 
                 this.dependencyCache.removeOverlappingObjectsWithDependencyOnTile(returnLabels, areaLabels, symbols);
 
+                if (this.poiDensityFilter != null) {
+                        this.poiDensityFilter.filter(returnLabels, cT.zoomLevel, this.tileSize);
+                }
+
                 if (!returnLabels.isEmpty()) {
                         switch (PLACEMENT_MODEL) {
                                 case 0:
@@ -691,25 +604,21 @@ class LabelPlacement {
         void removeOverlappingSymbols(List<SymbolContainer> symbols) {
                 int dis = SYMBOL_DISTANCE_TO_SYMBOL;
 
+                this.collisionGrid.clear();
+
                 for (int x = 0; x < symbols.size(); x++) {
                         this.symbolContainer = symbols.get(x);
-                        this.rect1 = new Rectangle((int) this.symbolContainer.point.x - dis, (int) this.symbolContainer.point.y - dis,
-                                        (int) this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth() + dis,
-                                        (int) this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight() + dis);
-
-                        for (int y = x + 1; y < symbols.size(); y++) {
-                                if (y != x) {
-                                        this.symbolContainer = symbols.get(y);
-                                        this.rect2 = new Rectangle((int) this.symbolContainer.point.x, (int) this.symbolContainer.point.y,
-                                                        (int) this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth(),
-                                                        (int) this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight());
-
-                                        if (rect1.intersects(rect2)) {
-                                                symbols.remove(y);
-                                                y--;
-                                        }
-                                }
+
+                        if (this.collisionGrid.intersects(this.symbolContainer.point.x, this.symbolContainer.point.y,
+                                        this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth(),
+                                        this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight())) {
+                                symbols.remove(x);
+                                x--;
+                        } else {
+                                this.collisionGrid.add(this.symbolContainer.point.x - dis, this.symbolContainer.point.y - dis,
+                                                this.symbolContainer.point.x + this.symbolContainer.symbol.getWidth() + dis,
+                                                this.symbolContainer.point.y + this.symbolContainer.symbol.getHeight() + dis);
                         }
                 }
         }
-}
\ No newline at end of file
+}
@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import org.mapsforge.map.graphics.Style;
+
+import de.itd.mapsforge.javafx.maps.graphics.FXPaint;
+
+/**
+ * Caches labels (halo and text) that have been rasterised into an {@link Image},
+ * so they can be drawn with a single drawImage call on the following tiles
+ * instead of rendering the text twice. Labels along ways are rasterised for
+ * their rotation rounded to {@link #getRotationStep()}, so they are drawn without
+ * any transformation.
+ * 
+ * Snapshots are only possible in the FX-Thread, therefore a missing sprite is
+ * created there asynchronously and the label is drawn as text in the meantime.
+ * The cache is limited by the sum of the pixels of all sprites, the least
+ * recently used sprites are evicted first. Each {@link DatabaseRenderer} has
+ * its own cache, so map views with different settings do not interfere.
+ */
+public class LabelSpriteCache {
+	
+	public static final int DEFAULT_PIXEL_BUDGET = 4 * 1024 * 1024;
+	
+	// the space around the text for anti-aliasing
+	private static final int PADDING = 2;
+	
+	
+	/**
+	 * A rasterised label
+	 */
+	static final class Sprite {
+		final Image		image;
+		final double	originX;
+		final double	originY;
+		
+		Sprite (Image image, double originX, double originY) {
+			this.image		= image;
+			this.originX	= originX;
+			this.originY	= originY;
+		}
+		
+		long getPixels () {
+			return (long)image.getWidth() * (long)image.getHeight();
+		}
+	}
+	
+	/**
+	 * Describes everything that is needed to rasterise a label
+	 */
+	static final class Key {
+		final String	text;
+		final int		rotation;
+		final double	offsetX;
+		final double	offsetY;
+		
+		final Font		frontFont;
+		final Color		frontColor;
+		final Style		frontStyle;
+		final double	frontWidth;
+		
+		final Font		backFont;
+		final Color		backColor;
+		final Style		backStyle;
+		final double	backWidth;
+		
+		private final int hashCode;
+		
+		Key (String text, FXPaint front, FXPaint back, int rotation, double offsetX, double offsetY) {
+			this.text		= text;
+			this.rotation	= rotation;
+			this.offsetX	= offsetX;
+			this.offsetY	= offsetY;
+			
+			this.frontFont	= front != null ? front.font		: null;
+			this.frontColor	= front != null ? front.fxColor		: null;
+			this.frontStyle	= front != null ? front.stlye		: null;
+			this.frontWidth	= front != null ? front.strokeWidth	: 0;
+			
+			this.backFont	= back != null ? back.font			: null;
+			this.backColor	= back != null ? back.fxColor		: null;
+			this.backStyle	= back != null ? back.stlye			: null;
+			this.backWidth	= back != null ? back.strokeWidth	: 0;
+			
+			int result = text.hashCode();
+			result = 31 * result + rotation;
+			result = 31 * result + Double.valueOf(offsetX).hashCode();
+			result = 31 * result + Double.valueOf(offsetY).hashCode();
+			result = 31 * result + (frontFont	!= null ? frontFont	.hashCode() : 0);
+			result = 31 * result + (frontColor	!= null ? frontColor.hashCode() : 0);
+			result = 31 * result + (frontStyle	!= null ? frontStyle.hashCode() : 0);
+			result = 31 * result + Double.valueOf(frontWidth).hashCode();
+			result = 31 * result + (backFont	!= null ? backFont	.hashCode() : 0);
+			result = 31 * result + (backColor	!= null ? backColor	.hashCode() : 0);
+			result = 31 * result + (backStyle	!= null ? backStyle	.hashCode() : 0);
+			result = 31 * result + Double.valueOf(backWidth).hashCode();
+			this.hashCode = result;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key)obj;
+			return hashCode == other.hashCode
+					&& rotation == other.rotation
+					&& offsetX == other.offsetX
+					&& offsetY == other.offsetY
+					&& text.equals(other.text)
+					&& equals(frontFont,	other.frontFont)
+					&& equals(frontColor,	other.frontColor)
+					&& frontStyle == other.frontStyle
+					&& frontWidth == other.frontWidth
+					&& equals(backFont,		other.backFont)
+					&& equals(backColor,	other.backColor)
+					&& backStyle == other.backStyle
+					&& backWidth == other.backWidth;
+		}
+		
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+		
+		private static boolean equals (Object a, Object b) {
+			return a == null ? b == null : a.equals(b);
+		}
+	}
+	
+	
+	private final LinkedHashMap<Key, Sprite>	sprites		= new LinkedHashMap<>(256, 0.75f, true);
+	private final Set<Key>						requested	= new HashSet<>();
+	private final ConcurrentLinkedQueue<Key>	pending		= new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean					scheduled	= new AtomicBoolean(false);
+	
+	private volatile boolean	enabled			= true;
+	private long				pixelBudget;
+	private long				pixels			= 0;
+	private double				rotationStep	= 2;
+	
+	// statistics
+	private long				hits			= 0;
+	private long				misses			= 0;
+	private long				evictions		= 0;
+	
+	
+	/**
+	 * @param pixelBudget The maximum sum of the pixels of all cached sprites
+	 */
+	public LabelSpriteCache (long pixelBudget) {
+		this.pixelBudget = pixelBudget;
+	}
+	
+	/**
+	 * @return Whether labels are drawn from the cache
+	 */
+	public boolean isEnabled () {
+		return enabled;
+	}
+	
+	/**
+	 * @param enabled Whether labels are drawn from the cache
+	 */
+	public void setEnabled (boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	/**
+	 * @return The maximum sum of the pixels of all cached sprites
+	 */
+	public synchronized long getPixelBudget () {
+		return pixelBudget;
+	}
+	
+	/**
+	 * @param pixelBudget The maximum sum of the pixels of all cached sprites
+	 */
+	public synchronized void setPixelBudget (long pixelBudget) {
+		this.pixelBudget = pixelBudget;
+		evict();
+	}
+	
+	/**
+	 * @return The step in degrees the rotation of labels along ways is rounded to
+	 */
+	public synchronized double getRotationStep () {
+		return rotationStep;
+	}
+	
+	/**
+	 * @param rotationStep The step in degrees the rotation of labels along ways is rounded to
+	 */
+	public synchronized void setRotationStep (double rotationStep) {
+		if (rotationStep <= 0) {
+			throw new IllegalArgumentException("rotationStep must be positive: "+rotationStep);
+		}
+		this.rotationStep = rotationStep;
+		clear();
+	}
+	
+	/**
+	 * @return The number of cached sprites
+	 */
+	public synchronized int getSize () {
+		return sprites.size();
+	}
+	
+	/**
+	 * @return The sum of the pixels of all cached sprites
+	 */
+	public synchronized long getPixels () {
+		return pixels;
+	}
+	
+	/**
+	 * @return How often a label could be drawn from the cache
+	 */
+	public synchronized long getHits () {
+		return hits;
+	}
+	
+	/**
+	 * @return How often a label had to be drawn as text
+	 */
+	public synchronized long getMisses () {
+		return misses;
+	}
+	
+	/**
+	 * @return How many sprites have been evicted to stay within the pixel budget
+	 */
+	public synchronized long getEvictions () {
+		return evictions;
+	}
+	
+	/**
+	 * @return The ratio of hits to all lookups, 0 if there was no lookup yet
+	 */
+	public synchronized double getHitRate () {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : hits / (double)lookups;
+	}
+	
+	/**
+	 * Removes all sprites and resets the statistics
+	 */
+	public synchronized void clear () {
+		sprites		.clear();
+		requested	.clear();
+		pixels		= 0;
+		hits		= 0;
+		misses		= 0;
+		evictions	= 0;
+	}
+	
+	/**
+	 * @param degrees Rotation in degrees
+	 * @return The bucket for the given rotation
+	 */
+	synchronized int getRotationBucket (double degrees) {
+		return (int)Math.round(degrees / rotationStep);
+	}
+	
+	/**
+	 * @param bucket Bucket of a rotation
+	 * @return The rotation in degrees of the given bucket
+	 */
+	synchronized double getRotation (int bucket) {
+		return bucket * rotationStep;
+	}
+	
+	/**
+	 * Looks the sprite for the given {@link Key} up, a missing
+	 * sprite is requested to be created in the FX-Thread
+	 * @param key {@link Key} of the sprite
+	 * @return The {@link Sprite} or null if it isn't available yet
+	 */
+	synchronized Sprite get (Key key) {
+		Sprite sprite = sprites.get(key);
+		
+		if (sprite != null) {
+			++hits;
+			return sprite;
+		}
+		
+		++misses;
+		
+		// create it only once
+		if (requested.add(key)) {
+			pending.add(key);
+			
+			if (scheduled.compareAndSet(false, true)) {
+				Platform.runLater(new Runnable() {
+					@Override
+					public void run() {
+						createPending();
+					}
+				});
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Creates all pending sprites, must be called in the FX-Thread
+	 */
+	private void createPending () {
+		scheduled.set(false);
+		
+		Key key;
+		while ((key = pending.poll()) != null) {
+			Sprite sprite = create(key);
+			
+			synchronized (this) {
+				// cleared in the meantime?
+				if (!requested.remove(key)) {
+					continue;
+				}
+				
+				sprites.put(key, sprite);
+				pixels += sprite.getPixels();
+				evict();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the least recently used sprites until
+	 * the pixel budget is no longer exceeded
+	 */
+	private void evict () {
+		Iterator<Map.Entry<Key, Sprite>> iterator = sprites.entrySet().iterator();
+		
+		while (pixels > pixelBudget && iterator.hasNext()) {
+			pixels -= iterator.next().getValue().getPixels();
+			iterator.remove();
+			++evictions;
+		}
+	}
+	
+	/**
+	 * Rasterises the label for the given {@link Key}, must be called in the FX-Thread
+	 * @param key {@link Key} to create the {@link Sprite} for
+	 * @return The created {@link Sprite}
+	 */
+	private Sprite create (Key key) {
+		Text	text	= new Text(key.text);
+		text.setFont(key.backFont != null ? key.backFont : key.frontFont);
+		
+		Bounds	bounds	= text.getLayoutBounds();
+		double	halo	= Math.ceil(Math.max(
+				key.backStyle	== Style.STROKE ? key.backWidth		: 0,
+				key.frontStyle	== Style.STROKE ? key.frontWidth	: 0) / 2) + PADDING;
+		
+		// the text around the origin, in the not rotated system
+		double	left	= key.offsetX + bounds.getMinX() - halo;
+		double	top		= key.offsetY + bounds.getMinY() - halo;
+		double	right	= key.offsetX + bounds.getMaxX() + halo;
+		double	bottom	= key.offsetY + bounds.getMaxY() + halo;
+		
+		// the bounding box of the rotated text
+		double	radians	= Math.toRadians(getRotation(key.rotation));
+		double	cos		= Math.cos(radians);
+		double	sin		= Math.sin(radians);
+		double	minX	= Double.MAX_VALUE, minY = Double.MAX_VALUE;
+		double	maxX	= -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		
+		for (double[] corner : new double[][] { {left, top}, {right, top}, {right, bottom}, {left, bottom} }) {
+			double x = corner[0] * cos - corner[1] * sin;
+			double y = corner[0] * sin + corner[1] * cos;
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+		}
+		
+		double	originX	= Math.ceil(-minX);
+		double	originY	= Math.ceil(-minY);
+		Canvas	canvas	= new Canvas(Math.ceil(originX + maxX) + 1, Math.ceil(originY + maxY) + 1);
+		GraphicsContext context = canvas.getGraphicsContext2D();
+		
+		context.translate	(originX, originY);
+		context.rotate		(getRotation(key.rotation));
+		
+		drawText(context, key.text, key.backFont,	key.backColor,	key.backStyle,	key.backWidth,	key.offsetX, key.offsetY);
+		drawText(context, key.text, key.frontFont,	key.frontColor,	key.frontStyle,	key.frontWidth,	key.offsetX, key.offsetY);
+		
+		SnapshotParameters parameters = new SnapshotParameters();
+		parameters.setFill(Color.TRANSPARENT);
+		
+		return new Sprite(canvas.snapshot(parameters, null), originX, originY);
+	}
+	
+	private static void drawText(GraphicsContext context, String text, Font font, Color color, Style style, double width, double x, double y) {
+		if (font == null) {
+			return;
+		}
+		
+		context.setFont		(font);
+		context.setLineWidth(width);
+		
+		if (style == Style.FILL) {
+			context.setFill(color);
+			context.fillText(text, x, y);
+			
+		} else {
+			context.setStroke(color);
+			context.strokeText(text, x, y);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.mapsforge.core.model.GeoPoint;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.reader.MapDatabase;
+import org.mapsforge.map.reader.MapReadResult;
+import org.mapsforge.map.reader.PointOfInterest;
+import org.mapsforge.map.reader.Way;
+
+/**
+ * Reads the map data of all tiles of a metatile. The MapDatabase can only be queried per tile, and points of interest
+ * and ways that cross the borders of the tiles are returned for each of them, so these duplicates are removed to render
+ * every object once on the metatile.
+ */
+final class MetatileReader {
+        /**
+         * Identifies a way by its content, since every query creates new objects.
+         */
+        private static final class WayKey {
+                private final GeoPoint[][] geoPoints;
+                private final int hashCodeValue;
+                private final byte layer;
+                private final List<Tag> tags;
+
+                WayKey(Way way) {
+                        this.geoPoints = way.geoPoints;
+                        this.layer = way.layer;
+                        this.tags = way.tags;
+                        this.hashCodeValue = 31 * (31 * this.layer + this.tags.hashCode()) + Arrays.deepHashCode(this.geoPoints);
+                }
+
+                @Override
+                public boolean equals(Object obj) {
+                        if (this == obj) {
+                                return true;
+                        } else if (!(obj instanceof WayKey)) {
+                                return false;
+                        }
+                        WayKey other = (WayKey) obj;
+                        return this.hashCodeValue == other.hashCodeValue && this.layer == other.layer
+                                        && this.tags.equals(other.tags) && Arrays.deepEquals(this.geoPoints, other.geoPoints);
+                }
+
+                @Override
+                public int hashCode() {
+                        return this.hashCodeValue;
+                }
+        }
+
+        private final MapDatabase mapDatabase;
+        private final Set<Object> readObjects;
+
+        /**
+         * The points of interest of the last read metatile.
+         */
+        final List<PointOfInterest> pointOfInterests;
+
+        /**
+         * The ways of the last read metatile.
+         */
+        final List<Way> ways;
+
+        /**
+         * Whether the tiles of the last read metatile are covered by water, row by row.
+         */
+        boolean[] water;
+
+        /**
+         * @param mapDatabase
+         *            the MapDatabase from which the map data will be read.
+         */
+        MetatileReader(MapDatabase mapDatabase) {
+                this.mapDatabase = mapDatabase;
+                this.readObjects = new HashSet<Object>();
+                this.pointOfInterests = new ArrayList<PointOfInterest>();
+                this.ways = new ArrayList<Way>();
+                this.water = new boolean[0];
+        }
+
+        /**
+         * Reads the map data of the given metatile.
+         *
+         * @param tile
+         *            the upper left tile of the metatile.
+         * @param size
+         *            the number of tiles in each direction of the metatile.
+         */
+        void read(Tile tile, int size) {
+                clear();
+                if (this.water.length != size * size) {
+                        this.water = new boolean[size * size];
+                }
+
+                // on low zoom levels a metatile can be larger than the world
+                long tiles = 1L << tile.zoomLevel;
+
+                for (int row = 0; row < size; ++row) {
+                        for (int column = 0; column < size; ++column) {
+                                if (tile.tileX + column >= tiles || tile.tileY + row >= tiles) {
+                                        this.water[row * size + column] = false;
+                                        continue;
+                                }
+
+                                Tile subTile = new Tile(tile.tileX + column, tile.tileY + row, tile.zoomLevel);
+                                MapReadResult mapReadResult = this.mapDatabase.readMapData(subTile);
+                                this.water[row * size + column] = mapReadResult != null && mapReadResult.isWater;
+                                if (mapReadResult == null) {
+                                        continue;
+                                }
+
+                                for (PointOfInterest pointOfInterest : mapReadResult.pointOfInterests) {
+                                        if (this.readObjects.add(Arrays.asList(pointOfInterest.layer, pointOfInterest.tags,
+                                                        pointOfInterest.position))) {
+                                                this.pointOfInterests.add(pointOfInterest);
+                                        }
+                                }
+
+                                for (Way way : mapReadResult.ways) {
+                                        if (this.readObjects.add(new WayKey(way))) {
+                                                this.ways.add(way);
+                                        }
+                                }
+                        }
+                }
+
+                this.readObjects.clear();
+        }
+
+        /**
+         * Releases the map data of the last read metatile.
+         */
+        void clear() {
+                this.pointOfInterests.clear();
+                this.ways.clear();
+                this.readObjects.clear();
+        }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A simple pool handing out reusable objects while a job is rendered. All objects are
+ * returned at once by {@link #releaseAll()} when the job is done, so the same instances are
+ * used again for the next tile instead of being allocated.
+ *
+ * @param <T>
+ *            the type of the pooled objects.
+ */
+abstract class ObjectPool<T> {
+        private final List<T> objects = new ArrayList<T>();
+        private int used;
+
+        /**
+         * @return an unused object of this pool, a new one is created if all are in use.
+         */
+        T acquire() {
+                if (this.used == this.objects.size()) {
+                        this.objects.add(create());
+                }
+                return this.objects.get(this.used++);
+        }
+
+        /**
+         * Marks all objects of this pool as unused.
+         */
+        void releaseAll() {
+                this.used = 0;
+        }
+
+        /**
+         * @return the number of objects this pool has created so far.
+         */
+        int size() {
+                return this.objects.size();
+        }
+
+        /**
+         * @return a new object for this pool.
+         */
+        protected abstract T create();
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mapsforge.core.model.Tag;
+
+/**
+ * Reduces the labels of points of interest before they are placed, by
+ * dividing the tile into cells and keeping only the candidates with the
+ * highest priority in each cell. Dense areas would otherwise hand hundreds of
+ * candidates to the placement, most of which can't be placed anyway.
+ *
+ * The candidates of a cell with the same priority are kept in the order the
+ * render theme created them, so the result does not change between renderings.
+ */
+public class PoiDensityFilter {
+
+        public static final int DEFAULT_CELL_SIZE = 64;
+        public static final int DEFAULT_CANDIDATES_PER_CELL = 4;
+
+        /**
+         * How the priority of a point of interest is determined
+         */
+        public enum Priority {
+                /**
+                 * All points of interest are equal, the candidates of a cell
+                 * are kept in the order of the rules of the render theme
+                 */
+                RULE_ORDER,
+
+                /**
+                 * The priority is the highest priority of a tag of the
+                 * point of interest, see {@link PoiDensityFilter#setTagPriority(String, int)}
+                 */
+                TAG_IMPORTANCE,
+        }
+
+        private static final Comparator<PointTextContainer> PRIORITY_COMPARATOR = new Comparator<PointTextContainer>() {
+                @Override
+                public int compare(PointTextContainer o1, PointTextContainer o2) {
+                        return Integer.compare(o2.priority, o1.priority);
+                }
+        };
+
+
+        private final Map<String, Integer> tagPriorities = new HashMap<>();
+        private final int[] candidates = new int[Byte.MAX_VALUE + 1];
+        private final List<PointTextContainer> sorted = new ArrayList<>();
+        private int[] counts = new int[0];
+
+        private volatile boolean enabled = true;
+        private volatile int cellSize = DEFAULT_CELL_SIZE;
+        private volatile Priority priority = Priority.RULE_ORDER;
+
+        public PoiDensityFilter () {
+                Arrays.fill(candidates, DEFAULT_CANDIDATES_PER_CELL);
+
+                // the more important places first
+                setTagPriority("place=city", 100);
+                setTagPriority("place=town", 90);
+                setTagPriority("place=suburb", 70);
+                setTagPriority("place=village", 60);
+                setTagPriority("place=hamlet", 50);
+                setTagPriority("place", 40);
+                setTagPriority("railway=station", 30);
+                setTagPriority("amenity", 20);
+                setTagPriority("tourism", 20);
+                setTagPriority("shop", 10);
+        }
+
+        /**
+         * @return Whether the candidates are filtered
+         */
+        public boolean isEnabled () {
+                return enabled;
+        }
+
+        /**
+         * @param enabled Whether the candidates are filtered
+         */
+        public void setEnabled (boolean enabled) {
+                this.enabled = enabled;
+        }
+
+        /**
+         * @return The width and height of a cell in pixels
+         */
+        public int getCellSize () {
+                return cellSize;
+        }
+
+        /**
+         * @param cellSize The width and height of a cell in pixels
+         */
+        public void setCellSize (int cellSize) {
+                if (cellSize <= 0) {
+                        throw new IllegalArgumentException("cellSize must be positive: "+cellSize);
+                }
+                this.cellSize = cellSize;
+        }
+
+        /**
+         * @param zoomLevel Zoom-level to get the number of candidates for
+         * @return The number of candidates that are kept per cell on the given zoom-level
+         */
+        public synchronized int getCandidatesPerCell (byte zoomLevel) {
+                return candidates[Math.max(0, zoomLevel)];
+        }
+
+        /**
+         * @param zoomLevel Zoom-level to set the number of candidates for
+         * @param count The number of candidates that are kept per cell on the given zoom-level
+         */
+        public synchronized void setCandidatesPerCell (byte zoomLevel, int count) {
+                candidates[Math.max(0, zoomLevel)] = count;
+        }
+
+        /**
+         * @param count The number of candidates that are kept per cell on all zoom-levels
+         */
+        public synchronized void setCandidatesPerCell (int count) {
+                Arrays.fill(candidates, count);
+        }
+
+        /**
+         * @return How the priority of a point of interest is determined
+         */
+        public Priority getPriority () {
+                return priority;
+        }
+
+        /**
+         * @param priority How the priority of a point of interest is determined
+         */
+        public void setPriority (Priority priority) {
+                this.priority = priority;
+        }
+
+        /**
+         * Sets the priority of a tag for {@link Priority#TAG_IMPORTANCE}
+         *
+         * @param tag The tag as "key=value" or only the "key" for any value
+         * @param priority The priority of the tag, higher values are kept first
+         */
+        public synchronized void setTagPriority (String tag, int priority) {
+                tagPriorities.put(tag, priority);
+        }
+
+        /**
+         * Removes the priority of the given tag
+         *
+         * @param tag The tag as "key=value" or only the "key"
+         */
+        public synchronized void removeTagPriority (String tag) {
+                tagPriorities.remove(tag);
+        }
+
+        /**
+         * @param tags Tags of the point of interest
+         * @return The priority of the point of interest with the given tags
+         */
+        synchronized int getTagPriority (List<Tag> tags) {
+                if (priority != Priority.TAG_IMPORTANCE) {
+                        return 0;
+                }
+
+                int result = 0;
+
+                for (int i = 0; i < tags.size(); ++i) {
+                        Tag tag = tags.get(i);
+                        Integer value = tagPriorities.get(tag.key + "=" + tag.value);
+
+                        if (value == null) {
+                                value = tagPriorities.get(tag.key);
+                        }
+
+                        if (value != null) {
+                                result = Math.max(result, value);
+                        }
+                }
+
+                return result;
+        }
+
+        /**
+         * Removes the candidates with the lowest priority from each cell
+         * that contains more than allowed for the given zoom-level
+         *
+         * @param labels Labels of points of interest, relative to the tile
+         * @param zoomLevel Zoom-level of the tile
+         * @param tileSize Width and height of the tile in pixels
+         */
+        synchronized void filter (List<PointTextContainer> labels, byte zoomLevel, int tileSize) {
+                int maximum = candidates[Math.max(0, zoomLevel)];
+                int cellSize = this.cellSize;
+                int cells = (tileSize + cellSize - 1) / cellSize;
+
+                if (!enabled || labels.size() <= maximum) {
+                        return;
+                }
+
+                if (counts.length < cells * cells) {
+                        counts = new int[cells * cells];
+                } else {
+                        Arrays.fill(counts, 0, cells * cells, 0);
+                }
+
+                // stable, so equal priorities stay in the order of the theme
+                sorted.clear();
+                sorted.addAll(labels);
+                Collections.sort(sorted, PRIORITY_COMPARATOR);
+
+                labels.clear();
+
+                for (int i = 0; i < sorted.size(); ++i) {
+                        PointTextContainer label = sorted.get(i);
+                        int column = Math.min(cells - 1, Math.max(0, (int)(label.x / cellSize)));
+                        int row = Math.min(cells - 1, Math.max(0, (int)(label.y / cellSize)));
+                        int cell = row * cells + column;
+
+                        if (counts[cell] < maximum) {
+                                ++counts[cell];
+                                labels.add(label);
+                        }
+                }
+
+                sorted.clear();
+        }
+}
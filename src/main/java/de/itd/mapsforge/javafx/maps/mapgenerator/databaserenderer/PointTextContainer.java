@@ -25,6 +25,7 @@ class PointTextContainer {
 	final Rectangle boundary;
     final Paint paintBack;
     final Paint paintFront;
+    int priority;
     SymbolContainer symbol;
     final String text;
     double x;
@@ -74,8 +75,6 @@ class PointTextContainer {
             this.paintBack = paintBack;
 
             if (paintBack != null) {
-                    paintBack.getTextHeight(text);
-                    paintBack.getTextWidth(text);
                     this.boundary = new Rectangle(0, 0, paintBack.getTextWidth(text), paintBack.getTextHeight(text));
             } else {
                     this.boundary = new Rectangle(0, 0, paintFront.getTextWidth(text), paintFront.getTextHeight(text));
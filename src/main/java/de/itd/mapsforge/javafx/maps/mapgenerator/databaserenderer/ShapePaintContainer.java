@@ -20,11 +20,16 @@ package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
 import org.mapsforge.map.graphics.Paint;
 
 class ShapePaintContainer {
-        final Paint paint;
-        final ShapeContainer shapeContainer;
+        Paint paint;
+        ShapeContainer shapeContainer;
 
-        ShapePaintContainer(ShapeContainer shapeContainer, Paint paint) {
+        ShapePaintContainer() {
+                // set by the renderer, the container is reused through an ObjectPool
+        }
+
+        ShapePaintContainer set(ShapeContainer shapeContainer, Paint paint) {
                 this.shapeContainer = shapeContainer;
                 this.paint = paint;
+                return this;
         }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+/**
+ * Clips projected ways to a rectangle, usually the tile plus a margin for the stroke width.
+ * Closed ways are clipped as polygons (Sutherland-Hodgman), so the result can still be filled,
+ * linear ways are clipped segment by segment (Liang-Barsky) and may be split into several lines.
+ */
+final class TileClipper {
+        private static final int EDGE_BOTTOM = 3;
+        private static final int EDGE_LEFT = 0;
+        private static final int EDGE_RIGHT = 2;
+        private static final int EDGE_TOP = 1;
+
+        private float maxX;
+        private float maxY;
+        private float minX;
+        private float minY;
+        private final CoordinateBuffer scratch1 = new CoordinateBuffer();
+        private final CoordinateBuffer scratch2 = new CoordinateBuffer();
+        private float t0;
+        private float t1;
+
+        /**
+         * Sets the rectangle to clip to.
+         */
+        void setClip(float minX, float minY, float maxX, float maxY) {
+                this.minX = minX;
+                this.minY = minY;
+                this.maxX = maxX;
+                this.maxY = maxY;
+        }
+
+        /**
+         * @param wayContainer
+         *            the way to check.
+         * @return true if all points of the given way are inside of the clip rectangle.
+         */
+        boolean contains(WayContainer wayContainer) {
+                for (int i = 0; i < wayContainer.rings; ++i) {
+                        CoordinateBuffer ring = wayContainer.coordinates[i];
+                        float[] coordinates = ring.coordinates;
+                        for (int j = 0, n = ring.size * 2; j < n; j += 2) {
+                                float x = coordinates[j];
+                                float y = coordinates[j + 1];
+                                if (x < this.minX || x > this.maxX || y < this.minY || y > this.maxY) {
+                                        return false;
+                                }
+                        }
+                }
+                return true;
+        }
+
+        /**
+         * Clips all rings of the given way into the given target.
+         *
+         * @param source
+         *            the way to clip.
+         * @param closed
+         *            whether the way is closed and should be clipped as polygon.
+         * @param target
+         *            the container to add the clipped rings to, must be prepared with zero rings.
+         */
+        void clip(WayContainer source, boolean closed, WayContainer target) {
+                for (int i = 0; i < source.rings; ++i) {
+                        if (closed) {
+                                clipPolygon(source.coordinates[i], target);
+                        } else {
+                                clipLine(source.coordinates[i], target);
+                        }
+                }
+        }
+
+        /**
+         * Clips the given line, every visible part is added as own ring to the target.
+         */
+        private void clipLine(CoordinateBuffer line, WayContainer target) {
+                CoordinateBuffer current = null;
+
+                for (int i = 1; i < line.size; ++i) {
+                        float x0 = line.getX(i - 1);
+                        float y0 = line.getY(i - 1);
+                        float dx = line.getX(i) - x0;
+                        float dy = line.getY(i) - y0;
+
+                        // Liang-Barsky: t0 and t1 are the visible part of the segment
+                        this.t0 = 0;
+                        this.t1 = 1;
+                        if (!clipSegment(-dx, x0 - this.minX) || !clipSegment(dx, this.maxX - x0)
+                                        || !clipSegment(-dy, y0 - this.minY) || !clipSegment(dy, this.maxY - y0)) {
+                                current = null;
+                                continue;
+                        }
+                        float t0 = this.t0;
+                        float t1 = this.t1;
+
+                        // the segment enters the rectangle (or nothing is open) -> start a new line
+                        if (current == null || t0 > 0) {
+                                current = target.addRing();
+                                current.add(x0 + t0 * dx, y0 + t0 * dy);
+                        }
+                        current.add(x0 + t1 * dx, y0 + t1 * dy);
+
+                        // the segment leaves the rectangle -> the line ends here
+                        if (t1 < 1) {
+                                current = null;
+                        }
+                }
+        }
+
+        /**
+         * Narrows the visible part [t0, t1] of the current segment for one edge.
+         *
+         * @return false if the segment is not visible at all.
+         */
+        private boolean clipSegment(float p, float q) {
+                if (p == 0) {
+                        // parallel to the edge, visible only if inside
+                        return q >= 0;
+                }
+
+                float t = q / p;
+                if (p < 0) {
+                        if (t > this.t1) {
+                                return false;
+                        } else if (t > this.t0) {
+                                this.t0 = t;
+                        }
+                } else {
+                        if (t < this.t0) {
+                                return false;
+                        } else if (t < this.t1) {
+                                this.t1 = t;
+                        }
+                }
+                return true;
+        }
+
+        /**
+         * Clips the given closed ring, the result is added as closed ring to the target if anything remains.
+         */
+        private void clipPolygon(CoordinateBuffer ring, WayContainer target) {
+                CoordinateBuffer input = ring;
+                CoordinateBuffer output = this.scratch1;
+
+                for (int edge = EDGE_LEFT; edge <= EDGE_BOTTOM; ++edge) {
+                        clipPolygonEdge(input, output, edge);
+                        if (output.size == 0) {
+                                return;
+                        }
+                        input = output;
+                        output = output == this.scratch1 ? this.scratch2 : this.scratch1;
+                }
+
+                // keep the ring closed, so it can be stroked as before
+                CoordinateBuffer clipped = target.addRing();
+                clipped.ensureCapacity(input.size + 1);
+                System.arraycopy(input.coordinates, 0, clipped.coordinates, 0, input.size * 2);
+                clipped.size = input.size;
+                if (input.getX(0) != input.getX(input.size - 1) || input.getY(0) != input.getY(input.size - 1)) {
+                        clipped.add(input.getX(0), input.getY(0));
+                }
+        }
+
+        private void clipPolygonEdge(CoordinateBuffer input, CoordinateBuffer output, int edge) {
+                output.clear();
+                if (input.size == 0) {
+                        return;
+                }
+
+                float previousX = input.getX(input.size - 1);
+                float previousY = input.getY(input.size - 1);
+                boolean previousInside = isInside(previousX, previousY, edge);
+
+                for (int i = 0; i < input.size; ++i) {
+                        float x = input.getX(i);
+                        float y = input.getY(i);
+                        boolean inside = isInside(x, y, edge);
+
+                        if (inside != previousInside) {
+                                addIntersection(previousX, previousY, x, y, edge, output);
+                        }
+                        if (inside) {
+                                output.add(x, y);
+                        }
+
+                        previousX = x;
+                        previousY = y;
+                        previousInside = inside;
+                }
+        }
+
+        private void addIntersection(float x0, float y0, float x1, float y1, int edge, CoordinateBuffer output) {
+                float bound;
+                switch (edge) {
+                        case EDGE_LEFT:
+                        case EDGE_RIGHT:
+                                bound = edge == EDGE_LEFT ? this.minX : this.maxX;
+                                output.add(bound, y0 + (y1 - y0) * (bound - x0) / (x1 - x0));
+                                break;
+                        default:
+                                bound = edge == EDGE_TOP ? this.minY : this.maxY;
+                                output.add(x0 + (x1 - x0) * (bound - y0) / (y1 - y0), bound);
+                                break;
+                }
+        }
+
+        private boolean isInside(float x, float y, int edge) {
+                switch (edge) {
+                        case EDGE_LEFT:
+                                return x >= this.minX;
+                        case EDGE_TOP:
+                                return y >= this.minY;
+                        case EDGE_RIGHT:
+                                return x <= this.maxX;
+                        default:
+                                return y <= this.maxY;
+                }
+        }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import org.mapsforge.core.model.GeoPoint;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.core.util.MercatorProjection;
+
+/**
+ * Converts geographic coordinates into pixel coordinates relative to the upper left corner of one {@link Tile}.
+ * Everything that only depends on the tile (map size and tile origin) is calculated once in
+ * {@link #setTile(Tile)}, so projecting a node only costs the unavoidable sin/log for the latitude.
+ * The results are equal to {@link MercatorProjection#longitudeToPixelX(double, byte)} and
+ * {@link MercatorProjection#latitudeToPixelY(double, byte)} minus the tile origin.
+ */
+final class TileProjector {
+        private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+
+        private double maxY;
+        private double minY;
+        private double offsetX;
+        private double offsetY;
+        private double scaleX;
+        private double scaleY;
+
+        /**
+         * Precomputes the projection parameters for the given tile.
+         *
+         * @param tile
+         *            the tile the coordinates should be relative to.
+         */
+        void setTile(Tile tile) {
+                setTile(tile, 1);
+        }
+
+        /**
+         * Precomputes the projection parameters for the given tile, rendered with the given number of pixels per pixel
+         * of the map.
+         *
+         * @param tile
+         *            the tile the coordinates should be relative to.
+         * @param scale
+         *            the factor all coordinates are multiplied with.
+         */
+        void setTile(Tile tile, double scale) {
+                double mapSize = MercatorProjection.getMapSize(tile.zoomLevel) * scale;
+                double originX = tile.getPixelX() * scale;
+                double originY = tile.getPixelY() * scale;
+
+                this.scaleX = mapSize / 360;
+                this.offsetX = mapSize / 2 - originX;
+                this.scaleY = mapSize / (4 * Math.PI);
+                this.offsetY = mapSize / 2 - originY;
+
+                // MercatorProjection clamps to the map, which is [-origin, mapSize - origin] on the tile
+                this.minY = -originY;
+                this.maxY = mapSize - originY;
+        }
+
+        /**
+         * @param longitude
+         *            the longitude to convert.
+         * @return the x coordinate on the current tile.
+         */
+        float projectX(double longitude) {
+                return (float) (longitude * this.scaleX + this.offsetX);
+        }
+
+        /**
+         * @param latitude
+         *            the latitude to convert.
+         * @return the y coordinate on the current tile.
+         */
+        float projectY(double latitude) {
+                double sinLatitude = Math.sin(latitude * DEGREES_TO_RADIANS);
+                double pixelY = this.offsetY - Math.log((1 + sinLatitude) / (1 - sinLatitude)) * this.scaleY;
+                return (float) Math.min(Math.max(this.minY, pixelY), this.maxY);
+        }
+
+        /**
+         * Projects all given points into the given buffer, replacing its previous content.
+         *
+         * @param geoPoints
+         *            the points to convert.
+         * @param buffer
+         *            the buffer to write the coordinates to.
+         */
+        void project(GeoPoint[] geoPoints, CoordinateBuffer buffer) {
+                int size = geoPoints.length;
+                buffer.ensureCapacity(size);
+                float[] coordinates = buffer.coordinates;
+
+                // the longitude is an affine transformation, keep it in its own loop without any calls
+                double scale = this.scaleX;
+                double offset = this.offsetX;
+                for (int i = 0; i < size; ++i) {
+                        coordinates[i * 2] = (float) (geoPoints[i].longitude * scale + offset);
+                }
+
+                for (int i = 0; i < size; ++i) {
+                        coordinates[i * 2 + 1] = projectY(geoPoints[i].latitude);
+                }
+
+                buffer.size = size;
+        }
+}
@@ -17,29 +17,73 @@
 
 package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
 
-import org.mapsforge.core.model.Point;
+import java.util.Arrays;
+
 import org.mapsforge.map.reader.Way;
 
 /**
  * modified 2013-10-29 by mwatzko,
  * added the {@link Way} attribute
+ * 
+ * The container is reused through an {@link ObjectPool}, the
+ * coordinates are kept in {@link CoordinateBuffer}s that keep
+ * their capacity between the tiles
  */
 class WayContainer implements ShapeContainer {
 	
-    final Point[][] coordinates;
+    /**
+     * The rings of the way, only the first {@link #rings} are valid
+     */
+    CoordinateBuffer[] coordinates = new CoordinateBuffer[0];
+    
+    /**
+     * The number of valid rings in {@link #coordinates}
+     */
+    int rings;
     
     /**
      *  The {@link Way} for this {@link WayContainer}, can be null
      */
-    final Way       way;
+    Way       way;
     
-    WayContainer(Point[][] coordinates) {
-           this(null, coordinates);
+    WayContainer() {
+           // set by the renderer
+    }
+
+    /**
+     * Prepares this container for the given {@link Way}, the
+     * {@link CoordinateBuffer}s of the rings are reused and cleared
+     * 
+     * @param way   {@link Way} of this container, can be null
+     * @param rings Number of rings to prepare
+     * @return This {@link WayContainer}
+     */
+    WayContainer set(Way way, int rings) {
+            this.way   = way;
+            this.rings = 0;
+
+            for (int i = 0; i < rings; ++i) {
+                    addRing();
+            }
+            return this;
     }
 
-    WayContainer(Way way, Point[][] coordinates) {
-            this.way         = way;
-            this.coordinates = coordinates;
+    /**
+     * Adds a new, empty ring to this container
+     * 
+     * @return The {@link CoordinateBuffer} of the new ring
+     */
+    CoordinateBuffer addRing() {
+            if (this.coordinates.length == this.rings) {
+                    this.coordinates = Arrays.copyOf(this.coordinates, Math.max(this.rings * 2, 1));
+            }
+            if (this.coordinates[this.rings] == null) {
+                    this.coordinates[this.rings] = new CoordinateBuffer();
+            }
+
+            CoordinateBuffer ring = this.coordinates[this.rings++];
+            ring.clear();
+            return ring;
     }
 
     @Override
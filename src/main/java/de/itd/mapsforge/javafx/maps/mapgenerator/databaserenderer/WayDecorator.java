@@ -39,22 +39,22 @@ final class WayDecorator {
          */
         private static final int SEGMENT_SAFETY_DISTANCE = 30;
 
-        static void renderSymbol(Bitmap symbolBitmap, boolean alignCenter, boolean repeatSymbol, Point[][] coordinates,
+        static void renderSymbol(Bitmap symbolBitmap, boolean alignCenter, boolean repeatSymbol, CoordinateBuffer coordinates,
                         List<SymbolContainer> waySymbols) {
                 int skipPixels = SEGMENT_SAFETY_DISTANCE;
 
                 // get the first way point coordinates
-                double previousX = coordinates[0][0].x;
-                double previousY = coordinates[0][0].y;
+                double previousX = coordinates.getX(0);
+                double previousY = coordinates.getY(0);
 
                 // draw the symbol on each way segment
                 float segmentLengthRemaining;
                 float segmentSkipPercentage;
                 float symbolAngle;
-                for (int i = 1; i < coordinates[0].length; ++i) {
+                for (int i = 1; i < coordinates.size; ++i) {
                         // get the current way point coordinates
-                        double currentX = coordinates[0][i].x;
-                        double currentY = coordinates[0][i].y;
+                        double currentX = coordinates.getX(i);
+                        double currentY = coordinates.getY(i);
 
                         // calculate the length of the current segment (Euclidian distance)
                         double diffX = currentX - previousX;
@@ -101,7 +101,7 @@ final class WayDecorator {
                 }
         }
 
-        static void renderText(String textKey, Paint fill, Paint stroke, Point[][] coordinates,
+        static void renderText(String textKey, Paint fill, Paint stroke, CoordinateBuffer coordinates,
                         List<WayTextContainer> wayNames) {
                 // calculate the way name length plus some margin of safety
                 int wayNameWidth = fill.getTextWidth(textKey) + 10;
@@ -109,14 +109,14 @@ final class WayDecorator {
                 int skipPixels = 0;
 
                 // get the first way point coordinates
-                double previousX = coordinates[0][0].x;
-                double previousY = coordinates[0][0].y;
+                double previousX = coordinates.getX(0);
+                double previousY = coordinates.getY(0);
 
                 // find way segments long enough to draw the way name on them
-                for (int i = 1; i < coordinates[0].length; ++i) {
+                for (int i = 1; i < coordinates.size; ++i) {
                         // get the current way point coordinates
-                        double currentX = coordinates[0][i].x;
-                        double currentY = coordinates[0][i].y;
+                        double currentX = coordinates.getX(i);
+                        double currentY = coordinates.getY(i);
 
                         // calculate the length of the current segment (Euclidian distance)
                         double diffX = currentX - previousX;
@@ -139,10 +139,7 @@ final class WayDecorator {
                                         wayNamePath[2] = previousX;
                                         wayNamePath[3] = previousY;
                                 }
-                                wayNames.add(new WayTextContainer(wayNamePath, textKey, fill));
-                                if (stroke != null) {
-                                        wayNames.add(new WayTextContainer(wayNamePath, textKey, stroke));
-                                }
+                                wayNames.add(new WayTextContainer(wayNamePath, textKey, fill, stroke));
 
                                 skipPixels = DISTANCE_BETWEEN_WAY_NAMES;
                         }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.Arrays;
+
+/**
+ * Reduces the number of points of projected ways, that are closer to each other than a tolerance in pixels.
+ * Points within the tolerance of the last kept point are removed first, then the Douglas-Peucker algorithm removes
+ * points that are within the tolerance of the simplified line. The first and the last point of a ring are always kept,
+ * so closed rings stay closed. A ring is left as it is, if it would lose too many points to stay valid.
+ */
+final class WaySimplifier {
+        private static final int MIN_POINTS_CLOSED = 4;
+        private static final int MIN_POINTS_OPEN = 2;
+
+        private boolean[] keep = new boolean[16];
+        private final CoordinateBuffer scratch = new CoordinateBuffer();
+        private int[] stack = new int[32];
+        private float tolerance;
+        private float toleranceSquared;
+
+        /**
+         * @return the tolerance in pixels, zero if disabled.
+         */
+        float getTolerance() {
+                return this.tolerance;
+        }
+
+        /**
+         * @param tolerance
+         *            the tolerance in pixels, zero or less disables the simplification.
+         */
+        void setTolerance(float tolerance) {
+                this.tolerance = Math.max(tolerance, 0);
+                this.toleranceSquared = this.tolerance * this.tolerance;
+        }
+
+        /**
+         * Simplifies all rings of the given way in place.
+         *
+         * @param wayContainer
+         *            the way to simplify.
+         */
+        void simplify(WayContainer wayContainer) {
+                if (this.tolerance <= 0) {
+                        return;
+                }
+
+                for (int i = 0; i < wayContainer.rings; ++i) {
+                        simplify(wayContainer.coordinates[i]);
+                }
+        }
+
+        private void simplify(CoordinateBuffer ring) {
+                int size = ring.size;
+                if (size <= MIN_POINTS_OPEN) {
+                        return;
+                }
+
+                int last = size - 1;
+                boolean closed = ring.getX(0) == ring.getX(last) && ring.getY(0) == ring.getY(last);
+                int minPoints = closed ? MIN_POINTS_CLOSED : MIN_POINTS_OPEN;
+
+                // remove the points that are too close to the last kept one, but keep the last point
+                CoordinateBuffer reduced = this.scratch;
+                reduced.clear();
+                reduced.ensureCapacity(size);
+                reduced.add(ring.getX(0), ring.getY(0));
+                for (int i = 1; i < last; ++i) {
+                        float dx = ring.getX(i) - reduced.getX(reduced.size - 1);
+                        float dy = ring.getY(i) - reduced.getY(reduced.size - 1);
+                        if (dx * dx + dy * dy > this.toleranceSquared) {
+                                reduced.add(ring.getX(i), ring.getY(i));
+                        }
+                }
+                reduced.add(ring.getX(last), ring.getY(last));
+
+                int kept = markDouglasPeucker(reduced);
+                if (kept < minPoints || kept == size) {
+                        return;
+                }
+
+                // copy the kept points back
+                float[] coordinates = ring.coordinates;
+                int n = 0;
+                for (int i = 0; i < reduced.size; ++i) {
+                        if (this.keep[i]) {
+                                coordinates[n * 2] = reduced.getX(i);
+                                coordinates[n * 2 + 1] = reduced.getY(i);
+                                ++n;
+                        }
+                }
+                ring.size = n;
+        }
+
+        /**
+         * Marks the points to keep in {@link #keep} with an iterative Douglas-Peucker.
+         *
+         * @return the number of points to keep.
+         */
+        private int markDouglasPeucker(CoordinateBuffer points) {
+                int size = points.size;
+                if (this.keep.length < size) {
+                        this.keep = new boolean[Math.max(size, this.keep.length * 2)];
+                }
+                Arrays.fill(this.keep, 0, size, false);
+                this.keep[0] = true;
+                this.keep[size - 1] = true;
+                int kept = 2;
+
+                int top = 0;
+                top = push(top, 0, size - 1);
+                while (top > 0) {
+                        int end = this.stack[--top];
+                        int start = this.stack[--top];
+
+                        float startX = points.getX(start);
+                        float startY = points.getY(start);
+                        float dx = points.getX(end) - startX;
+                        float dy = points.getY(end) - startY;
+                        float lengthSquared = dx * dx + dy * dy;
+
+                        float maxDistance = -1;
+                        int index = -1;
+                        for (int i = start + 1; i < end; ++i) {
+                                float distance = distanceSquared(points.getX(i) - startX, points.getY(i) - startY, dx, dy,
+                                                lengthSquared);
+                                if (distance > maxDistance) {
+                                        maxDistance = distance;
+                                        index = i;
+                                }
+                        }
+
+                        if (index >= 0 && maxDistance > this.toleranceSquared) {
+                                this.keep[index] = true;
+                                ++kept;
+                                top = push(top, start, index);
+                                top = push(top, index, end);
+                        }
+                }
+
+                return kept;
+        }
+
+        /**
+         * @return the squared distance of the point (px, py) to the segment from the origin to (dx, dy).
+         */
+        private static float distanceSquared(float px, float py, float dx, float dy, float lengthSquared) {
+                if (lengthSquared == 0) {
+                        // start and end are the same point (closed ring)
+                        return px * px + py * py;
+                }
+
+                float t = Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+                float x = px - t * dx;
+                float y = py - t * dy;
+                return x * x + y * y;
+        }
+
+        private int push(int top, int start, int end) {
+                if (top + 2 > this.stack.length) {
+                        this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+                }
+                this.stack[top] = start;
+                this.stack[top + 1] = end;
+                return top + 2;
+        }
+}
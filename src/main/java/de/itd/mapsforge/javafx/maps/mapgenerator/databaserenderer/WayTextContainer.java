@@ -21,12 +21,14 @@ import org.mapsforge.map.graphics.Paint;
 
 class WayTextContainer {
         final double[] coordinates;
-        final Paint paint;
+        final Paint paintBack;
+        final Paint paintFront;
         final String text;
 
-        WayTextContainer(double[] coordinates, String text, Paint paint) {
+        WayTextContainer(double[] coordinates, String text, Paint paintFront, Paint paintBack) {
                 this.coordinates = coordinates;
                 this.text = text;
-                this.paint = paint;
+                this.paintFront = paintFront;
+                this.paintBack = paintBack;
         }
 }
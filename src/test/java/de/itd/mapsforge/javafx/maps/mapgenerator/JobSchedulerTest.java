@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.Tile;
+
+public class JobSchedulerTest {
+        private static final byte ZOOM_LEVEL = 14;
+
+        private static MapGeneratorJob createJob(long tileX, long tileY) {
+                return new MapGeneratorJob(new Tile(tileX, tileY, ZOOM_LEVEL), null, null, null);
+        }
+
+        @Test
+        public void getPriorityTest() {
+                // the class dominates the zoom level, which dominates the distance
+                Assert.assertTrue(JobScheduler.getPriority(JobScheduler.CLASS_VISIBLE, 5, 50, 50) < JobScheduler
+                                .getPriority(JobScheduler.CLASS_REFINE, 0, 0, 0));
+                Assert.assertTrue(JobScheduler.getPriority(JobScheduler.CLASS_PREDICTED, 0, 50, 50) < JobScheduler
+                                .getPriority(JobScheduler.CLASS_PREDICTED, 1, 0, 0));
+                Assert.assertTrue(JobScheduler.getPriority(JobScheduler.CLASS_PREFETCH, -1, 1, 0) < JobScheduler
+                                .getPriority(JobScheduler.CLASS_PREFETCH, 1, 2, 0));
+                Assert.assertEquals(JobScheduler.getPriority(JobScheduler.CLASS_VISIBLE, 0, 3, 4),
+                                JobScheduler.getPriority(JobScheduler.CLASS_VISIBLE, 0, -4, -3), 0);
+        }
+
+        @Test
+        public void pollTest() {
+                JobScheduler jobScheduler = new JobScheduler();
+                Map<MapGeneratorJob, Double> priorities = new HashMap<MapGeneratorJob, Double>();
+                priorities.put(createJob(2, 0), Double.valueOf(JobScheduler.getPriority(JobScheduler.CLASS_PREFETCH, 0, 0, 0)));
+                priorities.put(createJob(1, 0), Double.valueOf(JobScheduler.getPriority(JobScheduler.CLASS_VISIBLE, 0, 2, 0)));
+                priorities.put(createJob(0, 0), Double.valueOf(JobScheduler.getPriority(JobScheduler.CLASS_VISIBLE, 0, 1, 0)));
+                jobScheduler.update(priorities);
+
+                Assert.assertEquals(3, jobScheduler.size());
+                Assert.assertEquals(createJob(0, 0), jobScheduler.poll());
+                Assert.assertEquals(createJob(1, 0), jobScheduler.poll());
+                Assert.assertEquals(createJob(2, 0), jobScheduler.poll());
+                Assert.assertNull(jobScheduler.poll());
+                Assert.assertTrue(jobScheduler.isEmpty());
+        }
+
+        @Test
+        public void updateTest() {
+                JobScheduler jobScheduler = new JobScheduler();
+                Map<MapGeneratorJob, Double> priorities = new HashMap<MapGeneratorJob, Double>();
+                priorities.put(createJob(0, 0), Double.valueOf(1));
+                priorities.put(createJob(1, 0), Double.valueOf(2));
+                priorities.put(createJob(2, 0), Double.valueOf(3));
+                jobScheduler.update(priorities);
+
+                // the viewport has moved, the last job is the first one now and the first one is not needed anymore
+                priorities.clear();
+                priorities.put(createJob(1, 0), Double.valueOf(2));
+                priorities.put(createJob(2, 0), Double.valueOf(0));
+                priorities.put(createJob(3, 0), Double.valueOf(1));
+                jobScheduler.update(priorities);
+
+                Assert.assertEquals(3, jobScheduler.size());
+                Assert.assertFalse(jobScheduler.contains(createJob(0, 0)));
+                Assert.assertEquals(createJob(2, 0), jobScheduler.poll());
+                Assert.assertEquals(createJob(3, 0), jobScheduler.poll());
+                Assert.assertEquals(createJob(1, 0), jobScheduler.poll());
+        }
+
+        @Test
+        public void samePriorityTest() {
+                JobScheduler jobScheduler = new JobScheduler();
+                Map<MapGeneratorJob, Double> priorities = new LinkedHashMap<MapGeneratorJob, Double>();
+                priorities.put(createJob(2, 0), Double.valueOf(1));
+                priorities.put(createJob(0, 0), Double.valueOf(1));
+                priorities.put(createJob(1, 0), Double.valueOf(1));
+                jobScheduler.update(priorities);
+
+                // equal priorities are neither merged nor reordered
+                Assert.assertEquals(3, jobScheduler.size());
+                Assert.assertEquals(createJob(2, 0), jobScheduler.poll());
+                Assert.assertEquals(createJob(0, 0), jobScheduler.poll());
+                Assert.assertEquals(createJob(1, 0), jobScheduler.poll());
+        }
+
+        @Test
+        public void updatePreviewTest() {
+                JobScheduler jobScheduler = new JobScheduler();
+                MapGeneratorJob queued = createJob(0, 0);
+                queued.setPreview(true);
+
+                Map<MapGeneratorJob, Double> priorities = new HashMap<MapGeneratorJob, Double>();
+                priorities.put(queued, Double.valueOf(1));
+                jobScheduler.update(priorities);
+
+                // the queued instance takes over the flags of the equal job
+                priorities.clear();
+                priorities.put(createJob(0, 0), Double.valueOf(1));
+                jobScheduler.update(priorities);
+
+                MapGeneratorJob job = jobScheduler.poll();
+                Assert.assertSame(queued, job);
+                Assert.assertFalse(job.isPreview());
+        }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CollisionGridTest {
+        @Test
+        public void intersectsTest() {
+                CollisionGrid collisionGrid = new CollisionGrid(256, 256, 32);
+                collisionGrid.add(10, 10, 20, 20);
+
+                Assert.assertEquals(1, collisionGrid.size());
+                Assert.assertTrue(collisionGrid.intersects(15, 15, 25, 25));
+                Assert.assertTrue(collisionGrid.intersects(0, 0, 100, 100));
+                Assert.assertFalse(collisionGrid.intersects(30, 30, 40, 40));
+        }
+
+        @Test
+        public void touchingEdgesTest() {
+                CollisionGrid collisionGrid = new CollisionGrid(256, 256, 32);
+                collisionGrid.add(10, 10, 20, 20);
+
+                Assert.assertFalse(collisionGrid.intersects(20, 10, 30, 20));
+                Assert.assertFalse(collisionGrid.intersects(10, 0, 20, 10));
+        }
+
+        @Test
+        public void spanningCellsTest() {
+                // the rectangle covers four cells, it is found from each of them
+                CollisionGrid collisionGrid = new CollisionGrid(256, 256, 32);
+                collisionGrid.add(20, 20, 50, 50);
+
+                Assert.assertTrue(collisionGrid.intersects(21, 21, 22, 22));
+                Assert.assertTrue(collisionGrid.intersects(45, 21, 46, 22));
+                Assert.assertTrue(collisionGrid.intersects(21, 45, 22, 46));
+                Assert.assertTrue(collisionGrid.intersects(45, 45, 46, 46));
+        }
+
+        @Test
+        public void outsideOfTheTileTest() {
+                // labels crossing the tile borders are stored in the border cells
+                CollisionGrid collisionGrid = new CollisionGrid(256, 256, 32);
+                collisionGrid.add(-30, -30, 5, 5);
+                collisionGrid.add(250, 100, 300, 110);
+
+                Assert.assertTrue(collisionGrid.intersects(-20, -20, -10, -10));
+                Assert.assertTrue(collisionGrid.intersects(0, 0, 2, 2));
+                Assert.assertTrue(collisionGrid.intersects(280, 105, 290, 106));
+                Assert.assertFalse(collisionGrid.intersects(280, 120, 290, 130));
+                Assert.assertFalse(collisionGrid.intersects(-20, 100, -10, 110));
+        }
+
+        @Test
+        public void clearTest() {
+                CollisionGrid collisionGrid = new CollisionGrid(256, 256, 32);
+                for (int i = 0; i < 200; ++i) {
+                        collisionGrid.add(i, i, i + 40, i + 40);
+                }
+                Assert.assertEquals(200, collisionGrid.size());
+                Assert.assertTrue(collisionGrid.intersects(100, 100, 101, 101));
+
+                collisionGrid.clear();
+                Assert.assertEquals(0, collisionGrid.size());
+                Assert.assertFalse(collisionGrid.intersects(100, 100, 101, 101));
+        }
+}
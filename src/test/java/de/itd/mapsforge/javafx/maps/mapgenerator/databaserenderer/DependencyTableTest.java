@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mapsforge.core.model.Tile;
+
+public class DependencyTableTest {
+        private static void lockInThread(final DependencyTable dependencyTable, final Tile tile,
+                        final CountDownLatch locked) {
+                Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                                dependencyTable.unlock(dependencyTable.lock(tile));
+                                locked.countDown();
+                        }
+                });
+                thread.setDaemon(true);
+                thread.start();
+        }
+
+        @Test
+        public void earlierNeighbourTest() throws InterruptedException {
+                DependencyTable dependencyTable = new DependencyTable();
+                Tile earlier = new Tile(4, 4, (byte) 10);
+                Tile later = new Tile(5, 5, (byte) 10);
+                CountDownLatch locked = new CountDownLatch(1);
+
+                dependencyTable.begin(earlier);
+                dependencyTable.begin(later);
+                lockInThread(dependencyTable, later, locked);
+                Assert.assertFalse(locked.await(100, TimeUnit.MILLISECONDS));
+
+                dependencyTable.end(earlier);
+                Assert.assertTrue(locked.await(5, TimeUnit.SECONDS));
+                dependencyTable.end(later);
+        }
+
+        @Test
+        public void laterNeighbourTest() throws InterruptedException {
+                DependencyTable dependencyTable = new DependencyTable();
+                Tile earlier = new Tile(4, 4, (byte) 10);
+                Tile later = new Tile(4, 5, (byte) 10);
+                Tile other = new Tile(5, 4, (byte) 11);
+                CountDownLatch locked = new CountDownLatch(1);
+
+                dependencyTable.begin(later);
+                dependencyTable.begin(other);
+                dependencyTable.begin(earlier);
+                lockInThread(dependencyTable, earlier, locked);
+                Assert.assertTrue(locked.await(5, TimeUnit.SECONDS));
+        }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapsforge.core.model.Tag;
+import org.mapsforge.map.graphics.Align;
+import org.mapsforge.map.graphics.Bitmap;
+import org.mapsforge.map.graphics.Cap;
+import org.mapsforge.map.graphics.FontFamily;
+import org.mapsforge.map.graphics.FontStyle;
+import org.mapsforge.map.graphics.Paint;
+import org.mapsforge.map.graphics.Style;
+
+public class PoiDensityFilterTest {
+        private static final byte ZOOM_LEVEL = 14;
+
+        // measures every text with a fixed size, so no text layout is needed
+        private static final Paint PAINT = new Paint() {
+                @Override
+                public int getColor() {
+                        return 0;
+                }
+
+                @Override
+                public int getTextHeight(String text) {
+                        return 10;
+                }
+
+                @Override
+                public int getTextWidth(String text) {
+                        return 10 * text.length();
+                }
+
+                @Override
+                public void setBitmapShader(Bitmap bitmap) {
+                        // not needed
+                }
+
+                @Override
+                public void setColor(int color) {
+                        // not needed
+                }
+
+                @Override
+                public void setDashPathEffect(float[] strokeDasharray) {
+                        // not needed
+                }
+
+                @Override
+                public void setStrokeCap(Cap cap) {
+                        // not needed
+                }
+
+                @Override
+                public void setStrokeWidth(float width) {
+                        // not needed
+                }
+
+                @Override
+                public void setStyle(Style style) {
+                        // not needed
+                }
+
+                @Override
+                public void setTextAlign(Align align) {
+                        // not needed
+                }
+
+                @Override
+                public void setTextSize(float textSize) {
+                        // not needed
+                }
+
+                @Override
+                public void setTypeface(FontFamily fontFamily, FontStyle fontStyle) {
+                        // not needed
+                }
+
+                @Override
+                public void destroy() {
+                        // not needed
+                }
+        };
+
+        private static PointTextContainer createLabel(String text, double x, double y, int priority) {
+                PointTextContainer pointTextContainer = new PointTextContainer(text, x, y, PAINT);
+                pointTextContainer.priority = priority;
+                return pointTextContainer;
+        }
+
+        private static List<String> getTexts(List<PointTextContainer> labels) {
+                List<String> texts = new ArrayList<String>();
+                for (PointTextContainer label : labels) {
+                        texts.add(label.text);
+                }
+                return texts;
+        }
+
+        private PoiDensityFilter poiDensityFilter;
+
+        @Before
+        public void setUp() {
+                this.poiDensityFilter = new PoiDensityFilter();
+                this.poiDensityFilter.setCellSize(64);
+                this.poiDensityFilter.setCandidatesPerCell(2);
+        }
+
+        @Test
+        public void filterTest() {
+                // three in the upper left cell, one in the lower right cell
+                List<PointTextContainer> labels = new ArrayList<PointTextContainer>();
+                labels.add(createLabel("a", 10, 10, 0));
+                labels.add(createLabel("b", 20, 20, 0));
+                labels.add(createLabel("c", 30, 30, 0));
+                labels.add(createLabel("d", 200, 200, 0));
+
+                this.poiDensityFilter.filter(labels, ZOOM_LEVEL, 256);
+
+                // equal priorities stay in the order of the render theme
+                Assert.assertEquals(Arrays.asList("a", "b", "d"), getTexts(labels));
+        }
+
+        @Test
+        public void priorityTest() {
+                List<PointTextContainer> labels = new ArrayList<PointTextContainer>();
+                labels.add(createLabel("shop", 10, 10, 10));
+                labels.add(createLabel("village", 20, 20, 60));
+                labels.add(createLabel("city", 30, 30, 100));
+
+                this.poiDensityFilter.filter(labels, ZOOM_LEVEL, 256);
+
+                Assert.assertEquals(Arrays.asList("city", "village"), getTexts(labels));
+        }
+
+        @Test
+        public void outsideOfTheTileTest() {
+                // labels beyond the tile border are counted in the border cells
+                List<PointTextContainer> labels = new ArrayList<PointTextContainer>();
+                labels.add(createLabel("a", -10, -10, 0));
+                labels.add(createLabel("b", 10, 10, 0));
+                labels.add(createLabel("c", 300, 300, 0));
+                labels.add(createLabel("d", 250, 250, 0));
+                labels.add(createLabel("e", -20, 5, 0));
+
+                this.poiDensityFilter.filter(labels, ZOOM_LEVEL, 256);
+
+                Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), getTexts(labels));
+        }
+
+        @Test
+        public void disabledTest() {
+                List<PointTextContainer> labels = new ArrayList<PointTextContainer>();
+                for (int i = 0; i < 10; ++i) {
+                        labels.add(createLabel(String.valueOf(i), 10, 10, 0));
+                }
+
+                this.poiDensityFilter.setEnabled(false);
+                this.poiDensityFilter.filter(labels, ZOOM_LEVEL, 256);
+                Assert.assertEquals(10, labels.size());
+
+                this.poiDensityFilter.setEnabled(true);
+                this.poiDensityFilter.setCandidatesPerCell(ZOOM_LEVEL, 5);
+                this.poiDensityFilter.filter(labels, ZOOM_LEVEL, 256);
+                Assert.assertEquals(5, labels.size());
+        }
+
+        @Test
+        public void tagPriorityTest() {
+                List<Tag> city = Arrays.asList(new Tag("name", "Ulm"), new Tag("place", "city"));
+                List<Tag> hamlet = Arrays.asList(new Tag("place", "hamlet"));
+                List<Tag> locality = Arrays.asList(new Tag("place", "locality"));
+
+                // only used with the importance of the tags
+                Assert.assertEquals(0, this.poiDensityFilter.getTagPriority(city));
+
+                this.poiDensityFilter.setPriority(PoiDensityFilter.Priority.TAG_IMPORTANCE);
+                Assert.assertEquals(100, this.poiDensityFilter.getTagPriority(city));
+                Assert.assertEquals(50, this.poiDensityFilter.getTagPriority(hamlet));
+                Assert.assertEquals(40, this.poiDensityFilter.getTagPriority(locality));
+                Assert.assertEquals(0, this.poiDensityFilter.getTagPriority(Arrays.asList(new Tag("name", "Ulm"))));
+        }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileClipperTest {
+        private static final float DELTA = 0.001f;
+
+        private static WayContainer createWay(float... coordinates) {
+                WayContainer wayContainer = new WayContainer().set(null, 1);
+                for (int i = 0; i < coordinates.length; i += 2) {
+                        wayContainer.coordinates[0].add(coordinates[i], coordinates[i + 1]);
+                }
+                return wayContainer;
+        }
+
+        private static float getArea(CoordinateBuffer ring) {
+                float area = 0;
+                for (int i = 0; i < ring.size; ++i) {
+                        int next = (i + 1) % ring.size;
+                        area += ring.getX(i) * ring.getY(next) - ring.getX(next) * ring.getY(i);
+                }
+                return Math.abs(area / 2);
+        }
+
+        private static boolean isClosed(CoordinateBuffer ring) {
+                return ring.getX(0) == ring.getX(ring.size - 1) && ring.getY(0) == ring.getY(ring.size - 1);
+        }
+
+        private TileClipper tileClipper;
+
+        @Before
+        public void setUp() {
+                this.tileClipper = new TileClipper();
+                this.tileClipper.setClip(0, 0, 100, 100);
+        }
+
+        @Test
+        public void containsTest() {
+                Assert.assertTrue(this.tileClipper.contains(createWay(0, 0, 50, 50, 100, 100)));
+                Assert.assertFalse(this.tileClipper.contains(createWay(0, 0, 50, 50, 100, 100.5f)));
+        }
+
+        @Test
+        public void clipLineTest() {
+                WayContainer target = new WayContainer().set(null, 0);
+                this.tileClipper.clip(createWay(-50, 50, 150, 50), false, target);
+
+                Assert.assertEquals(1, target.rings);
+                CoordinateBuffer line = target.coordinates[0];
+                Assert.assertEquals(2, line.size);
+                Assert.assertEquals(0, line.getX(0), DELTA);
+                Assert.assertEquals(50, line.getY(0), DELTA);
+                Assert.assertEquals(100, line.getX(1), DELTA);
+                Assert.assertEquals(50, line.getY(1), DELTA);
+        }
+
+        @Test
+        public void clipLineReenteringTest() {
+                // leaves the tile on the right and enters it again, two separate lines remain
+                WayContainer target = new WayContainer().set(null, 0);
+                this.tileClipper.clip(createWay(50, 20, 150, 20, 150, 80, 50, 80), false, target);
+
+                Assert.assertEquals(2, target.rings);
+                Assert.assertEquals(2, target.coordinates[0].size);
+                Assert.assertEquals(100, target.coordinates[0].getX(1), DELTA);
+                Assert.assertEquals(2, target.coordinates[1].size);
+                Assert.assertEquals(100, target.coordinates[1].getX(0), DELTA);
+                Assert.assertEquals(50, target.coordinates[1].getX(1), DELTA);
+        }
+
+        @Test
+        public void clipLineOutsideTest() {
+                WayContainer target = new WayContainer().set(null, 0);
+                this.tileClipper.clip(createWay(-50, -10, 150, -10, 150, -20), false, target);
+
+                Assert.assertEquals(0, target.rings);
+        }
+
+        @Test
+        public void clipPolygonCornerTest() {
+                // a square around the upper left corner, only a quarter of it is inside
+                WayContainer target = new WayContainer().set(null, 0);
+                this.tileClipper.clip(createWay(-10, -10, 10, -10, 10, 10, -10, 10, -10, -10), true, target);
+
+                Assert.assertEquals(1, target.rings);
+                CoordinateBuffer ring = target.coordinates[0];
+                Assert.assertTrue(isClosed(ring));
+                Assert.assertEquals(100, getArea(ring), DELTA);
+
+                boolean corner = false;
+                for (int i = 0; i < ring.size; ++i) {
+                        Assert.assertTrue(ring.getX(i) >= 0 && ring.getX(i) <= 10);
+                        Assert.assertTrue(ring.getY(i) >= 0 && ring.getY(i) <= 10);
+                        corner |= ring.getX(i) == 0 && ring.getY(i) == 0;
+                }
+                Assert.assertTrue(corner);
+        }
+
+        @Test
+        public void clipPolygonCoveringTest() {
+                // an area larger than the tile is clipped to the tile itself
+                WayContainer target = new WayContainer().set(null, 0);
+                this.tileClipper.clip(createWay(-50, -50, 150, -50, 150, 150, -50, 150, -50, -50), true, target);
+
+                Assert.assertEquals(1, target.rings);
+                Assert.assertTrue(isClosed(target.coordinates[0]));
+                Assert.assertEquals(100 * 100, getArea(target.coordinates[0]), DELTA);
+        }
+
+        @Test
+        public void clipPolygonOutsideCornerTest() {
+                // the bounding box overlaps the tile, but the triangle itself does not
+                WayContainer target = new WayContainer().set(null, 0);
+                this.tileClipper.clip(createWay(-10, 5, 5, -10, -10, -10, -10, 5), true, target);
+
+                Assert.assertEquals(0, target.rings);
+        }
+
+        @Test
+        public void clipPolygonOpenRingTest() {
+                // a ring that is not explicitly closed is closed by the clipper
+                WayContainer target = new WayContainer().set(null, 0);
+                this.tileClipper.clip(createWay(50, 50, 150, 50, 150, 80, 50, 80), true, target);
+
+                Assert.assertEquals(1, target.rings);
+                Assert.assertTrue(isClosed(target.coordinates[0]));
+                Assert.assertEquals(50 * 30, getArea(target.coordinates[0]), DELTA);
+        }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2013 Michael Watzko and IT-Designers GmbH.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.itd.mapsforge.javafx.maps.mapgenerator.databaserenderer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WaySimplifierTest {
+        private static WayContainer createWay(float... coordinates) {
+                WayContainer wayContainer = new WayContainer().set(null, 1);
+                for (int i = 0; i < coordinates.length; i += 2) {
+                        wayContainer.coordinates[0].add(coordinates[i], coordinates[i + 1]);
+                }
+                return wayContainer;
+        }
+
+        private static WaySimplifier createSimplifier(float tolerance) {
+                WaySimplifier waySimplifier = new WaySimplifier();
+                waySimplifier.setTolerance(tolerance);
+                return waySimplifier;
+        }
+
+        @Test
+        public void toleranceTest() {
+                Assert.assertEquals(0, createSimplifier(-1).getTolerance(), 0);
+
+                // disabled, even points on a straight line are kept
+                WayContainer wayContainer = createWay(0, 0, 1, 0, 2, 0, 3, 0);
+                createSimplifier(0).simplify(wayContainer);
+                Assert.assertEquals(4, wayContainer.coordinates[0].size);
+        }
+
+        @Test
+        public void straightLineTest() {
+                WayContainer wayContainer = createWay(0, 0, 10, 0.1f, 20, -0.1f, 30, 0);
+                createSimplifier(1).simplify(wayContainer);
+
+                CoordinateBuffer line = wayContainer.coordinates[0];
+                Assert.assertEquals(2, line.size);
+                Assert.assertEquals(0, line.getX(0), 0);
+                Assert.assertEquals(30, line.getX(1), 0);
+        }
+
+        @Test
+        public void cornerTest() {
+                // the corner is further away from the simplified line than the tolerance
+                WayContainer wayContainer = createWay(0, 0, 10, 0, 20, 0, 20, 10, 20, 20);
+                createSimplifier(1).simplify(wayContainer);
+
+                CoordinateBuffer line = wayContainer.coordinates[0];
+                Assert.assertEquals(3, line.size);
+                Assert.assertEquals(20, line.getX(1), 0);
+                Assert.assertEquals(0, line.getY(1), 0);
+        }
+
+        @Test
+        public void closedRingTest() {
+                WayContainer wayContainer = createWay(0, 0, 10, 0, 20, 0, 20, 20, 0, 20, 0, 10, 0, 0);
+                createSimplifier(1).simplify(wayContainer);
+
+                CoordinateBuffer ring = wayContainer.coordinates[0];
+                Assert.assertEquals(5, ring.size);
+                Assert.assertEquals(ring.getX(0), ring.getX(ring.size - 1), 0);
+                Assert.assertEquals(ring.getY(0), ring.getY(ring.size - 1), 0);
+        }
+
+        @Test
+        public void smallClosedRingTest() {
+                // would collapse to less than a triangle, so it is left as it is
+                WayContainer wayContainer = createWay(0, 0, 0.5f, 0, 0.5f, 0.5f, 0, 0);
+                createSimplifier(1).simplify(wayContainer);
+
+                Assert.assertEquals(4, wayContainer.coordinates[0].size);
+        }
+
+        @Test
+        public void shortLineTest() {
+                WayContainer wayContainer = createWay(0, 0, 0.5f, 0);
+                createSimplifier(1).simplify(wayContainer);
+
+                Assert.assertEquals(2, wayContainer.coordinates[0].size);
+        }
+}